@@ -0,0 +1,115 @@
+/**
+ * Measures CSVReader reading synthetic candidates and poll files of several sizes into an Election. The files are
+ * written by tools/DatasetGenerator, the same generator as "ant generate-data".
+ * CSVReader and DatasetGenerator are in the default package, which a JMH benchmark cannot import, so they are reached
+ * through method handles looked up once in the setup; a handle call costs nanoseconds against a whole file read.
+ */
+
+package bench;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Election.Election;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+    @Param({ "10000", "100000", "1000000" })
+    public int pollRows;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private Path directory;
+    private MethodHandle newReader;
+    private MethodHandle candidatesReader;
+    private MethodHandle votesReader;
+    private Object reader;
+
+    /**
+     * Writes the synthetic files, with 5 000 state deputy candidates, and looks up the CSVReader methods.
+     *
+     * @throws Throwable if the files cannot be written or CSVReader or DatasetGenerator is not on the class path.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle write = lookup.findStatic(Class.forName("DatasetGenerator"), "write", MethodType.methodType(Path[].class, String[].class));
+
+        directory = Files.createTempDirectory("ingest-bench");
+        String[] options = { "--output=" + directory, "--seed=42", "--federal-candidates=0", "--state-candidates=5000", "--rows=" + pollRows };
+        Path[] files = (Path[]) write.invoke(options);
+        Path candidates = files[0];
+        Path poll = files[1];
+
+        Class<?> readerClass = Class.forName("CSVReader");
+
+        newReader = lookup.findConstructor(readerClass, MethodType.methodType(void.class, String.class, String.class));
+        candidatesReader = lookup.findVirtual(readerClass, "candidatesReader", MethodType.methodType(void.class, Election[].class));
+        votesReader = lookup.findVirtual(readerClass, "votesReader", MethodType.methodType(void.class, int.class, Election[].class));
+        reader = newReader.invoke(candidates.toString(), poll.toString());
+    }
+
+    /**
+     * Deletes the synthetic files.
+     *
+     * @throws IOException if a file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("candidatos.csv"));
+        Files.deleteIfExists(directory.resolve("votacao.csv"));
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Reads the candidates file into a new Election.
+     *
+     * @return The Election, so that its reading is not optimized away.
+     * @throws Throwable if CSVReader fails.
+     */
+    @Benchmark
+    public Election readCandidates() throws Throwable {
+        Election[] polls = { new Election(SyntheticElection.ELECTION_DATE, SyntheticElection.OFFICE_OPTION) };
+        candidatesReader.invoke(reader, polls);
+        return polls[0];
+    }
+
+    /**
+     * Reads the candidates and then the poll file into a new Election, as the application does.
+     *
+     * @return The Election, so that its reading is not optimized away.
+     * @throws Throwable if CSVReader fails.
+     */
+    @Benchmark
+    public Election readCandidatesAndVotes() throws Throwable {
+        Election[] polls = { new Election(SyntheticElection.ELECTION_DATE, SyntheticElection.OFFICE_OPTION) };
+        candidatesReader.invoke(reader, polls);
+        votesReader.invoke(reader, threads, polls);
+        return polls[0];
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Compares the lookups Election.addVotes made to resolve a votable number before and after the switch to IntRegistry:
+ * boxed HashMaps, with the party of a dismissed candidate found through Integer.toString(number).substring(0, 2),
+ * against IntRegistry tables, with the party found by integer division. Both resolve the same stream of numbers
+ * (candidates, party list votes, blank, null and unknown numbers) for elections of several sizes.
+ */
+
+package bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Election.Election;
+import Election.Domain.Candidate;
+import Election.Domain.IntRegistry;
+import Election.Domain.Party;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RegistryBenchmark {
+    private static final int STREAM_SIZE = 1 << 16;
+
+    @Param({ "1000", "10000", "50000" })
+    public int candidates;
+
+    private int[] numbers;
+
+    private Map<Integer, Party> partyMap;
+    private Map<Integer, Candidate> candidateMap;
+    private Map<Integer, Map<Integer, Candidate>> dismissedMaps; // dismissed candidates of each party, by party number
+
+    private IntRegistry<Party> partyRegistry;
+    private IntRegistry<Candidate> candidateRegistry;
+
+    /**
+     * Builds both kinds of tables from the same synthetic election, and the stream of votable numbers.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticElection synthetic = new SyntheticElection(candidates, 42);
+        Election poll = synthetic.newElection();
+
+        partyMap = new HashMap<Integer, Party>();
+        candidateMap = new HashMap<Integer, Candidate>();
+        dismissedMaps = new HashMap<Integer, Map<Integer, Candidate>>();
+        partyRegistry = new IntRegistry<Party>();
+        candidateRegistry = new IntRegistry<Candidate>();
+
+        for (Party p : poll.getParties()) {
+            Map<Integer, Candidate> dismissed = new HashMap<Integer, Candidate>();
+
+            partyMap.put(p.getPartyNumber(), p);
+            partyRegistry.add(p.getPartyNumber(), p);
+            dismissedMaps.put(p.getPartyNumber(), dismissed);
+
+            for (Candidate c : p.getDismissedCandidates()) {
+                dismissed.put(c.getCandidateNumber(), c);
+            }
+        }
+        for (Candidate c : poll.getCandidates()) {
+            candidateMap.put(c.getCandidateNumber(), c);
+            candidateRegistry.add(c.getCandidateNumber(), c);
+        }
+
+        numbers = synthetic.votes(STREAM_SIZE, 7).numbers;
+    }
+
+    /**
+     * Resolves the stream the way Election.addVotes did with boxed HashMaps.
+     *
+     * @return The sum of the resolved party numbers, so that the lookups are not optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(STREAM_SIZE)
+    public long hashMaps() {
+        long found = 0;
+
+        for (int number : numbers) {
+            if (partyMap.containsKey(number)) {
+                found += partyMap.get(number).getPartyNumber();
+            }
+            else if (candidateMap.containsKey(number)) {
+                Candidate c = candidateMap.get(number);
+                found += partyMap.get(c.getPartyNumber()).getPartyNumber();
+            }
+            else if (!candidateMap.containsKey(number) && !partyMap.containsKey(number)) {
+                String numberString = Integer.toString(number);
+
+                if (numberString.length() >= 2) {
+                    int partyNumber = Integer.parseInt(numberString.substring(0, 2));
+
+                    if (partyMap.containsKey(partyNumber) && dismissedMaps.get(partyNumber).containsKey(number)) {
+                        found += partyMap.get(partyNumber).getPartyNumber();
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Resolves the stream with IntRegistry tables, finding the party of a dismissed candidate by integer division.
+     *
+     * @return The sum of the resolved party numbers, so that the lookups are not optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(STREAM_SIZE)
+    public long intRegistries() {
+        long found = 0;
+
+        for (int number : numbers) {
+            Party p = partyRegistry.get(number);
+
+            if (p != null) {
+                found += p.getPartyNumber();
+                continue;
+            }
+
+            Candidate c = candidateRegistry.get(number);
+
+            if (c != null) {
+                found += partyRegistry.get(c.getPartyNumber()).getPartyNumber();
+            }
+            else if (number >= 10) {
+                int partyNumber = number;
+                while (partyNumber >= 100) partyNumber /= 10;
+
+                Party dismissedParty = partyRegistry.get(partyNumber);
+                if (dismissedParty != null && dismissedParty.hasDismissedCandidate(number)) {
+                    found += dismissedParty.getPartyNumber();
+                }
+            }
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Measures the ranking done by the Report constructor (sorting candidates and parties) and the rendering
+ * of Report.report7 (first and last placed candidates of each party), writing to a discarding stream.
+ */
+
+package bench;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Election.Election;
+import Election.Report.Report;
+import Election.Report.ReportWriter;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportBenchmark {
+    @Param({ "1000", "10000", "50000" })
+    public int candidates;
+
+    private Election poll;
+    private ReportWriter out;
+    private Report report;
+
+    /**
+     * Builds a synthetic election with its votes counted, and a report over it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        poll = new SyntheticElection(candidates, 42).newCountedElection(7);
+        out = new ReportWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+        report = new Report(poll, out);
+    }
+
+    /**
+     * Builds a Report, which ranks the candidates and parties of the election.
+     *
+     * @return The Report, so that its construction is not optimized away.
+     */
+    @Benchmark
+    public Report rank() {
+        return new Report(poll, out);
+    }
+
+    /**
+     * Renders the first and last placed candidates of each party.
+     */
+    @Benchmark
+    public void report7() {
+        report.report7();
+        out.flush();
+    }
+}
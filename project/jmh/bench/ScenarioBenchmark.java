@@ -0,0 +1,178 @@
+/**
+ * Compares two ways of reporting an election with some votes changed: an ElectionScenario over the counted election,
+ * against counting the changed votes again into a new Election, as a second run over edited files would (without
+ * parsing them). Both end with the ranking done by the Report constructor. The setup checks that both give the same
+ * tallies, so the benchmark also fails if a scenario drifts from a recount.
+ */
+
+package bench;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Election.Election;
+import Election.ElectionScenario;
+import Election.Domain.Candidate;
+import Election.Domain.Party;
+import Election.Report.Report;
+import Election.Report.ReportWriter;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScenarioBenchmark {
+    @Param({ "1000", "10000", "50000" })
+    public int candidates;
+
+    @Param({ "10", "1000" })
+    public int changes;
+
+    private SyntheticElection synthetic;
+    private SyntheticElection.VoteStream votes;
+    private Election base;
+    private ReportWriter out;
+
+    private int[] changedNumbers; // candidates whose nominal votes change
+    private int[] addedVotes;
+
+    /**
+     * Counts the synthetic election once, picks the changes among its candidates with nominal votes, and checks
+     * that a scenario and a recount agree on every tally.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        synthetic = new SyntheticElection(candidates, 42);
+        votes = synthetic.votes(synthetic.size() * 4, 7);
+        base = count(0);
+        out = new ReportWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+
+        List<Integer> nominal = new ArrayList<Integer>();
+        for (Candidate c : base.getCandidates()) {
+            if (base.getVoteDestination(c.getCandidateNumber()) == Election.NOMINAL_VOTE) nominal.add(c.getCandidateNumber());
+        }
+
+        SplittableRandom random = new SplittableRandom(11);
+        changedNumbers = new int[changes];
+        addedVotes = new int[changes];
+
+        for (int i = 0; i < changes; i++) {
+            changedNumbers[i] = nominal.get(random.nextInt(nominal.size()));
+            addedVotes[i] = 1 + random.nextInt(500);
+        }
+
+        check(newScenario(), count(changes));
+    }
+
+    /**
+     * Counts the synthetic votes and the first changes into a new Election.
+     *
+     * @param changeCount The number of changes counted, from the first one.
+     * @return The Election, with its total votes set.
+     */
+    private Election count(int changeCount) {
+        Election poll = synthetic.newElection();
+
+        for (int i = 0; i < votes.size(); i++) {
+            poll.addVotes(votes.votes[i], votes.numbers[i], SyntheticElection.OFFICE_OPTION);
+        }
+        for (int i = 0; i < changeCount; i++) {
+            poll.addVotes(addedVotes[i], changedNumbers[i], SyntheticElection.OFFICE_OPTION);
+        }
+
+        poll.setTotalVotes();
+        return poll;
+    }
+
+    /**
+     * Builds the scenario with the changes over the counted election.
+     *
+     * @return The ElectionScenario.
+     */
+    private ElectionScenario newScenario() {
+        ElectionScenario scenario = new ElectionScenario(base);
+
+        for (int i = 0; i < changes; i++) {
+            scenario.addNominalVotes(changedNumbers[i], addedVotes[i]);
+        }
+
+        return scenario;
+    }
+
+    /**
+     * Checks that a scenario has the same tallies as a recount of the same changes.
+     *
+     * @param scenario The scenario.
+     * @param poll     The recounted election.
+     * @throws IllegalStateException if a tally differs.
+     */
+    private void check(ElectionScenario scenario, Election poll) {
+        for (Candidate c : poll.getCandidates()) {
+            if (scenario.getNominalVotes(base.getCandidate(c.getCandidateNumber())) != c.getNominalVotes()) {
+                throw new IllegalStateException("Scenario and recount differ for candidate " + c.getCandidateNumber());
+            }
+        }
+
+        for (Party p : poll.getParties()) {
+            Party baseParty = base.getParty(p.getPartyNumber());
+            Candidate most = scenario.getMostVotedCandidate(baseParty);
+            Candidate least = scenario.getLeastVotedCandidate(baseParty);
+
+            if (scenario.getListVotes(baseParty) != p.getListVotes() || scenario.getNominalVotes(baseParty) != p.getNominalVotes()
+                || !sameNumber(most, p.getMostVotedCandidate()) || !sameNumber(least, p.getLeastVotedCandidate())) {
+                throw new IllegalStateException("Scenario and recount differ for party " + p.getPartyNumber());
+            }
+        }
+
+        if (scenario.getListVotes() != poll.getListVotes() || scenario.getNominalVotes() != poll.getNominalVotes()) {
+            throw new IllegalStateException("Scenario and recount differ in the election totals");
+        }
+    }
+
+    /**
+     * Checks if two candidates, possibly null, have the same number.
+     */
+    private static boolean sameNumber(Candidate a, Candidate b) {
+        if (a == null || b == null) return a == b;
+        return a.getCandidateNumber() == b.getCandidateNumber();
+    }
+
+    /**
+     * Builds the scenario and ranks its candidates and parties.
+     *
+     * @return The Report, so that the work is not optimized away.
+     */
+    @Benchmark
+    public Report scenario() {
+        return new Report(base, newScenario(), out);
+    }
+
+    /**
+     * Counts the votes and the changes again and ranks the candidates and parties of the new election.
+     *
+     * @return The Report, so that the work is not optimized away.
+     */
+    @Benchmark
+    public Report recountReport() {
+        return new Report(count(changes), out);
+    }
+}
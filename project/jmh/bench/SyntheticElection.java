@@ -0,0 +1,166 @@
+/**
+ * Builds deterministic synthetic elections in memory for the benchmarks. The benchmarks that read files get them
+ * from tools/DatasetGenerator instead. Numbers follow the state deputies' layout: parties 10 to 99 and five-digit
+ * candidate numbers starting with the party.
+ */
+
+package bench;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import Election.Election;
+import Election.Domain.Candidate;
+import Election.Domain.PackedDate;
+import Election.Domain.Party;
+
+public class SyntheticElection {
+    public static final LocalDate ELECTION_DATE = LocalDate.of(2022, 10, 2);
+    public static final String OFFICE_OPTION = "--estadual";
+
+    private static final int OFFICE = 7;
+
+    private int parties;
+    private int[] numbers;
+    private int[] partyNumbers;
+    private int[] birthDates;
+    private int[] genders;
+    private int[] statuses;
+    private boolean[] dismissed;
+
+    /**
+     * Constructor for the SyntheticElection class.
+     *
+     * @param candidates The number of candidates, at most 90 000.
+     * @param seed       The seed of the random values.
+     */
+    public SyntheticElection(int candidates, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        this.parties = Math.min(90, Math.max(30, (candidates + 998) / 999));
+        this.numbers = new int[candidates];
+        this.partyNumbers = new int[candidates];
+        this.birthDates = new int[candidates];
+        this.genders = new int[candidates];
+        this.statuses = new int[candidates];
+        this.dismissed = new boolean[candidates];
+
+        int seats = Math.max(8, candidates / 100);
+
+        for (int i = 0; i < candidates; i++) {
+            partyNumbers[i] = 10 + i % parties;
+            numbers[i] = partyNumbers[i] * 1000 + i / parties;
+            birthDates[i] = PackedDate.of(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            genders[i] = random.nextInt(3) == 0 ? 4 : 2;
+            statuses[i] = random.nextInt(candidates) < seats ? 2 + random.nextInt(2) : 4 + random.nextInt(2);
+            dismissed[i] = random.nextInt(50) == 0;
+        }
+    }
+
+    /**
+     * Gets the number of candidates.
+     *
+     * @return The number of candidates.
+     */
+    public int size() {
+        return numbers.length;
+    }
+
+    /**
+     * Builds an Election with every party and candidate, and no votes.
+     *
+     * @return The Election.
+     */
+    public Election newElection() {
+        Election poll = new Election(ELECTION_DATE, OFFICE_OPTION);
+        int electionDate = PackedDate.of(ELECTION_DATE);
+
+        for (int p = 0; p < parties; p++) {
+            int number = 10 + p;
+            poll.addParty(number, new Party(number, "P" + number, "PARTIDO " + number));
+        }
+
+        for (int i = 0; i < numbers.length; i++) {
+            Candidate c = poll.getCandidateTable().add(OFFICE, numbers[i], "CANDIDATO " + numbers[i], partyNumbers[i], "P" + partyNumbers[i],
+                                                       -1, birthDates[i], genders[i], statuses[i],
+                                                       dismissed[i] ? "Válido (legenda)" : "Válido", dismissed[i] ? 6 : 2, electionDate);
+
+            if (dismissed[i]) {
+                poll.addDismissedCandidateToParty(c);
+            }
+            else {
+                poll.addCandidateToParty(c);
+                poll.addCandidate(numbers[i], c);
+            }
+        }
+
+        poll.compileVoteRoutes();
+        return poll;
+    }
+
+    /**
+     * Builds an Election with every party and candidate, and random votes already counted.
+     *
+     * @param seed The seed of the votes.
+     * @return The Election.
+     */
+    public Election newCountedElection(long seed) {
+        Election poll = newElection();
+        VoteStream votes = votes(numbers.length * 4, seed);
+
+        for (int i = 0; i < votes.size(); i++) {
+            poll.addVotes(votes.votes[i], votes.numbers[i], OFFICE_OPTION);
+        }
+
+        poll.setTotalVotes();
+        return poll;
+    }
+
+    /**
+     * Votes for random votable numbers: mostly candidates, some party list votes and a few blank, null
+     * or unknown numbers, as in a poll file.
+     */
+    public static class VoteStream {
+        public final int[] numbers;
+        public final int[] votes;
+
+        private VoteStream(int size) {
+            this.numbers = new int[size];
+            this.votes = new int[size];
+        }
+
+        /**
+         * Gets the number of votes entries.
+         *
+         * @return The number of entries.
+         */
+        public int size() {
+            return numbers.length;
+        }
+    }
+
+    /**
+     * Generates a stream of votes for this election.
+     *
+     * @param size The number of entries.
+     * @param seed The seed of the random values.
+     * @return The VoteStream.
+     */
+    public VoteStream votes(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        VoteStream stream = new VoteStream(size);
+
+        for (int i = 0; i < size; i++) {
+            int kind = random.nextInt(100);
+
+            if (kind < 80) stream.numbers[i] = numbers[random.nextInt(numbers.length)];
+            else if (kind < 95) stream.numbers[i] = 10 + random.nextInt(parties);
+            else if (kind < 98) stream.numbers[i] = 95 + random.nextInt(2);
+            else stream.numbers[i] = 10000 + random.nextInt(90000);
+
+            stream.votes[i] = 1 + random.nextInt(kind < 80 ? 300 : 50);
+        }
+
+        return stream;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Measures Election.addVotes routing a stream of votable numbers (candidates, party list votes, blank, null
+ * and unknown numbers) to candidates and parties, for elections of several sizes.
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Election.Election;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VoteRoutingBenchmark {
+    private static final int STREAM_SIZE = 1 << 16;
+
+    @Param({ "1000", "10000", "50000" })
+    public int candidates;
+
+    private SyntheticElection synthetic;
+    private SyntheticElection.VoteStream votes;
+    private Election poll;
+
+    /**
+     * Builds the synthetic election and the stream of votes.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        synthetic = new SyntheticElection(candidates, 42);
+        votes = synthetic.votes(STREAM_SIZE, 7);
+    }
+
+    /**
+     * Starts every iteration from an election with no votes, so that the counts cannot overflow.
+     */
+    @Setup(Level.Iteration)
+    public void resetElection() {
+        poll = synthetic.newElection();
+    }
+
+    /**
+     * Adds the whole stream of votes to the election. Throughput is reported per addVotes call.
+     *
+     * @return The nominal votes of the election, so that the calls are not optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(STREAM_SIZE)
+    public int addVotes() {
+        int[] numbers = votes.numbers;
+        int[] counts = votes.votes;
+        String office = SyntheticElection.OFFICE_OPTION;
+
+        for (int i = 0; i < numbers.length; i++) {
+            poll.addVotes(counts[i], numbers[i], office);
+        }
+
+        return poll.getNominalVotes();
+    }
+}
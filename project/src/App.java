@@ -2,14 +2,35 @@
  * The main class responsible for running the election analysis application.
  */
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.regex.Pattern;
 
 import Election.Election;
+import Election.ElectionScenario;
+import Election.ElectionSnapshot;
+import Election.ScenarioFile;
+import Election.VoteView;
+import Election.Input.CSVSource;
+import Election.Report.GeoReport;
+import Election.Report.RecordReport;
+import Election.Report.RecordWriter;
 import Election.Report.Report;
+import Election.Report.ReportWriter;
+import Election.Report.SeatReport;
+import Election.Seats.SeatModel;
+import Election.Seats.SeatSimulation;
+import Election.Stats.Phase;
+import Election.Stats.PipelineStats;
 
 public class App {
     /**
@@ -19,9 +40,15 @@ public class App {
      */
     public static void main(String[] args) {
         
+        // Run many states at once
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Check if the correct number of arguments is provided
-        if (args.length != 4) {
-            System.out.println("To run properly, use: java -jar deputies.jar --<office_option> <candidates_file_path> <poll_file_path> <election_date>");
+        if (args.length < 4) {
+            System.out.println("To run properly, use: java -jar deputies.jar --<office_option> <candidates_file_path> <poll_file_path> <election_date> [--threads=<n>] [--cache=<dir>] [--format=text|jsonl|csv] [--output=<file>] [--follow=<seconds>] [--stats] [--geo[=<n>]] [--seats] [--simulate=<runs>] [--scenario=<file>]");
             return;
         }
         
@@ -31,6 +58,100 @@ public class App {
         String pollFilePath = args[2];
         String dateString = args[3];
 
+        // Extract optional flags
+        int threads = 1;
+        String cacheDirectory = null;
+        String format = "text";
+        String outputFile = null;
+        int followSeconds = 0;
+        boolean printStats = false;
+        int geoLimit = 0;
+        boolean seats = false;
+        int simulationRuns = 0;
+        String scenarioPath = null;
+
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].startsWith("--threads=")) {
+                try {
+                    threads = Integer.parseInt(args[i].substring("--threads=".length()));
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+
+                if (threads < 1) {
+                    System.out.println("Invalid number of threads. Use --threads=<n>, with n >= 1");
+                    return;
+                }
+            }
+            else if (args[i].startsWith("--cache=")) {
+                cacheDirectory = args[i].substring("--cache=".length());
+            }
+            else if (args[i].startsWith("--format=")) {
+                format = args[i].substring("--format=".length());
+
+                if (!format.equals("text") && !format.equals("jsonl") && !format.equals("csv")) {
+                    System.out.println("Invalid format. Use --format=text, --format=jsonl or --format=csv");
+                    return;
+                }
+            }
+            else if (args[i].startsWith("--output=")) {
+                outputFile = args[i].substring("--output=".length());
+            }
+            else if (args[i].startsWith("--follow=")) {
+                try {
+                    followSeconds = Integer.parseInt(args[i].substring("--follow=".length()));
+                } catch (NumberFormatException e) {
+                    followSeconds = 0;
+                }
+
+                if (followSeconds < 1) {
+                    System.out.println("Invalid follow interval. Use --follow=<seconds>, with seconds >= 1");
+                    return;
+                }
+            }
+            else if (args[i].equals("--stats")) {
+                printStats = true;
+            }
+            else if (args[i].equals("--geo")) {
+                geoLimit = 5;
+            }
+            else if (args[i].startsWith("--geo=")) {
+                try {
+                    geoLimit = Integer.parseInt(args[i].substring("--geo=".length()));
+                } catch (NumberFormatException e) {
+                    geoLimit = 0;
+                }
+
+                if (geoLimit < 1) {
+                    System.out.println("Invalid number of places. Use --geo=<n>, with n >= 1");
+                    return;
+                }
+            }
+            else if (args[i].equals("--seats")) {
+                seats = true;
+            }
+            else if (args[i].startsWith("--simulate=")) {
+                try {
+                    simulationRuns = Integer.parseInt(args[i].substring("--simulate=".length()));
+                } catch (NumberFormatException e) {
+                    simulationRuns = 0;
+                }
+
+                if (simulationRuns < 1) {
+                    System.out.println("Invalid number of runs. Use --simulate=<runs>, with runs >= 1");
+                    return;
+                }
+                seats = true;
+            }
+            else if (args[i].startsWith("--scenario=")) {
+                scenarioPath = args[i].substring("--scenario=".length());
+            }
+            else {
+                System.out.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
         // Validate date format
         if (!Pattern.matches("\\d{2}/\\d{2}/\\d{4}", dateString)) {
             System.out.println("Invalid Date Format. Use dd/MM/yyyy");
@@ -48,26 +169,452 @@ public class App {
             e.printStackTrace(); // Handle the exception appropriately
         }
 
-        // Create a new Election instance
-        Election poll = new Election(electionDate, officeOption);
+        // Read the what-if scenarios, which are built over the votes of a single office once they are counted
+        ScenarioFile scenarioFile = null;
+
+        if (scenarioPath != null) {
+            if (officeOption.equals("--ambos") || followSeconds > 0) {
+                System.out.println("Use --scenario with --federal or --estadual, and without --follow");
+                return;
+            }
+
+            try {
+                scenarioFile = ScenarioFile.read(scenarioPath);
+            } catch (IOException e) {
+                System.err.println("Could not read the scenarios: " + e.getMessage());
+                return;
+            }
+        }
+
+        // Create a new Election instance per office (--ambos reads both offices in a single scan of each file)
+        Election[] polls;
+
+        if (officeOption.equals("--ambos")) {
+            polls = new Election[] { new Election(electionDate, "--federal"), new Election(electionDate, "--estadual") };
+        }
+        else {
+            polls = new Election[] { new Election(electionDate, officeOption) };
+        }
 
-        // Read candidates and votes data from CSV files
         CSVReader reader = new CSVReader(candidatesFilePath, pollFilePath);
-        reader.candidatesReader(poll);
-        reader.votesReader(poll);
+        PipelineStats stats = new PipelineStats();
+        reader.setStats(stats);
+        reader.setVoteCubes(geoLimit > 0);
+
+        // Follow the poll file, printing the reports again whenever it changes
+        if (followSeconds > 0) {
+            String followFormat = format;
+            String followOutput = outputFile;
+            boolean followStats = printStats;
+            int followGeoLimit = geoLimit;
+            boolean followSeats = seats;
+            int followRuns = simulationRuns;
+            int followThreads = threads;
+
+            Phase candidatesPhase = stats.begin("candidates read");
+            try {
+                reader.candidatesReader(polls);
+            } finally {
+                candidatesPhase.close();
+            }
+            reader.getDiagnostics().print(System.err);
+            reader.getDiagnostics().clear();
+            if (printStats) stats.print(System.err);
+
+            try {
+                new PollFollower(reader, polls, threads).follow(followSeconds * 1000L, updated -> {
+                    reader.getDiagnostics().print(System.err); // only the problems of the rows read in this update
+                    reader.getDiagnostics().clear();
+
+                    PipelineStats reportStats = new PipelineStats(); // a new one per update, so the phases do not pile up
+                    emitReports(updated, new ElectionScenario[0], followFormat, followOutput, reportStats, followGeoLimit, followSeats, followRuns, followThreads);
+                    if (followStats) reportStats.print(System.err);
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        // Read candidates and votes data from CSV files, unless a snapshot of the same files was cached
+        ElectionSnapshot snapshot = null;
+        Election[] cached = null;
+
+        if (cacheDirectory != null && geoLimit > 0) {
+            System.err.println("The votes per place are not cached, so --cache is ignored with --geo");
+        }
+        else if (cacheDirectory != null) {
+            try {
+                snapshot = new ElectionSnapshot(Paths.get(cacheDirectory), new CSVSource(candidatesFilePath), new CSVSource(pollFilePath));
+                Phase loadPhase = stats.begin("snapshot load");
+                try {
+                    cached = loadSnapshots(snapshot, polls);
+                } finally {
+                    loadPhase.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read cached snapshot: " + e.getMessage());
+            }
+        }
+
+        if (cached != null) {
+            polls = cached;
+        }
+        else {
+            Phase candidatesPhase = stats.begin("candidates read");
+            try {
+                reader.candidatesReader(polls);
+            } finally {
+                candidatesPhase.close();
+            }
+
+            Phase votesPhase = stats.begin("votes read");
+            try {
+                if (threads > 1) reader.votesReader(threads, polls);
+                else reader.votesReader(polls);
+            } finally {
+                votesPhase.close();
+            }
+
+            reader.getDiagnostics().print(System.err);
+
+            if (snapshot != null) {
+                try {
+                    for (Election poll : polls) {
+                        snapshot.save(poll);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not write snapshot: " + e.getMessage());
+                }
+            }
+        }
+
+        // Build the scenarios over the counted votes, which freezes the election
+        ElectionScenario[] scenarios = new ElectionScenario[0];
+
+        if (scenarioFile != null) {
+            try {
+                scenarios = newScenarios(scenarioFile, polls[0], stats);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid scenario: " + e.getMessage());
+                return;
+            }
+        }
 
         // Generate reports
-        Report report = new Report(poll);
-        report.report1(); 
-        report.report2(); 
-        report.report3(); 
-        report.report4(); 
-        report.report5(); 
-        report.report6(); 
-        report.report7();
-        report.report8(); 
-        report.report9(); 
-        report.report10(); 
+        emitReports(polls, scenarios, format, outputFile, stats, geoLimit, seats, simulationRuns, threads);
+
+        if (printStats) stats.print(System.err);
+    }
+
+    /**
+     * Writes every report of the elections and their scenarios in a format, to standard output or to a file.
+     *
+     * @param polls      The elections to be reported.
+     * @param scenarios  The scenarios to be reported after the reports of their base election.
+     * @param format     The format of the reports: "text", "jsonl" or "csv".
+     * @param outputFile The file the reports are written to (replacing its contents), or null for standard output.
+     * @param stats      The stats where the time of each report is recorded.
+     * @param geoLimit   The number of places listed per candidate or party by the geographic reports, or 0 to skip them.
+     * @param seats      True to write the seat reports.
+     * @param runs       The number of runs of the seat simulation, or 0 to skip it.
+     * @param threads    The number of threads of the seat simulation.
+     */
+    private static void emitReports(Election[] polls, ElectionScenario[] scenarios, String format, String outputFile, PipelineStats stats, int geoLimit,
+                                    boolean seats, int runs, int threads) {
+        OutputStream sink = System.out;
+
+        try {
+            if (outputFile != null) sink = new FileOutputStream(outputFile);
+
+            writeReports(polls, scenarios, format, sink, stats, geoLimit, seats, runs, threads);
+
+            if (outputFile != null) sink.close();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Could not write the reports: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every report of the elections in a format to a stream, which is flushed but not closed.
+     *
+     * @param polls  The elections to be reported.
+     * @param format The format of the reports: "text", "jsonl" or "csv".
+     * @param sink   The stream the reports are written to.
+     */
+    static void writeReports(Election[] polls, String format, OutputStream sink) {
+        writeReports(polls, new ElectionScenario[0], format, sink, new PipelineStats(), 0, false, 0, 1);
+    }
+
+    /**
+     * Writes every report of the elections in a format to a stream, which is flushed but not closed,
+     * timing the construction of each report and each of its sections as a phase.
+     * The geographic and seat reports of each election follow its other reports, and then come the reports of each of
+     * its scenarios, under the name of the scenario (as a "scenario" record before its sections, in the record formats).
+     * The votes per place are not changed by a scenario, so it has no geographic reports.
+     *
+     * @param polls     The elections to be reported.
+     * @param scenarios The scenarios to be reported after the reports of their base election.
+     * @param format   The format of the reports: "text", "jsonl" or "csv".
+     * @param sink     The stream the reports are written to.
+     * @param stats    The stats where the phases are recorded.
+     * @param geoLimit The number of places listed per candidate or party by the geographic reports, or 0 to skip them.
+     * @param seats    True to write the seat reports.
+     * @param runs     The number of runs of the seat simulation, or 0 to skip it.
+     * @param threads  The number of threads of the seat simulation.
+     */
+    static void writeReports(Election[] polls, ElectionScenario[] scenarios, String format, OutputStream sink, PipelineStats stats, int geoLimit,
+                             boolean seats, int runs, int threads) {
+        if (format.equals("text")) {
+            ReportWriter out = new ReportWriter(sink, Charset.defaultCharset());
+            for (int i = 0; i < polls.length; i++) {
+                if (i > 0) out.print("\n");
+                printReports(polls[i], polls[i], out, stats);
+
+                if (geoLimit > 0) {
+                    GeoReport geo = newGeoReport(polls[i], geoLimit, stats);
+                    out.print("\n");
+                    geo.printMunicipalities(out);
+                    geo.printZones(out);
+                }
+
+                if (seats) {
+                    SeatReport seatReport = newSeatReport(polls[i], polls[i], runs, threads, stats);
+                    out.print("\n");
+                    seatReport.printAllocation(out);
+                    seatReport.printSimulation(out);
+                }
+
+                for (ElectionScenario scenario : scenarios) {
+                    if (scenario.getBase() != polls[i]) continue;
+
+                    out.print("\nCenário: ").print(scenario.getName()).print("\n\n");
+                    printReports(polls[i], scenario, out, stats);
+
+                    if (seats) {
+                        SeatReport seatReport = newSeatReport(polls[i], scenario, runs, threads, stats);
+                        out.print("\n");
+                        seatReport.printAllocation(out);
+                        seatReport.printSimulation(out);
+                    }
+                }
+            }
+            out.flush();
+        }
+        else {
+            RecordWriter out = RecordWriter.of(format, sink);
+            for (Election poll : polls) {
+                writeRecords(poll, poll, out, stats);
+
+                if (geoLimit > 0) {
+                    GeoReport geo = newGeoReport(poll, geoLimit, stats);
+                    geo.writeMunicipalities(out);
+                    geo.writeZones(out);
+                }
+
+                if (seats) {
+                    SeatReport seatReport = newSeatReport(poll, poll, runs, threads, stats);
+                    seatReport.writeAllocation(out);
+                    seatReport.writeSimulation(out);
+                }
+
+                for (ElectionScenario scenario : scenarios) {
+                    if (scenario.getBase() != poll) continue;
+
+                    out.beginSection("scenario", "office", "scenario");
+                    out.beginRecord();
+                    out.value(poll.getOfficeOption().replace("-", "")).value(scenario.getName());
+                    out.endRecord();
+                    writeRecords(poll, scenario, out, stats);
+
+                    if (seats) {
+                        SeatReport seatReport = newSeatReport(poll, scenario, runs, threads, stats);
+                        seatReport.writeAllocation(out);
+                        seatReport.writeSimulation(out);
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Builds the geographic reports of an election, timing the rollups as a phase.
+     *
+     * @param poll     The Election, with its votes per place.
+     * @param geoLimit The number of places listed per candidate or party.
+     * @param stats    The stats where the phase is recorded.
+     * @return The GeoReport.
+     */
+    private static GeoReport newGeoReport(Election poll, int geoLimit, PipelineStats stats) {
+        Phase phase = stats.begin("GeoReport (" + poll.getOfficeOption() + ")");
+        try {
+            return new GeoReport(poll, geoLimit);
+        } finally {
+            phase.close();
+        }
+    }
+
+    /**
+     * Builds the seat reports of an election, timing the model, the simulation and the allocation as phases.
+     *
+     * @param poll    The Election.
+     * @param votes   The votes the seats are computed from: the election itself or one of its scenarios.
+     * @param runs    The number of runs of the simulation, or 0 to skip it.
+     * @param threads The number of threads of the simulation.
+     * @param stats   The stats where the phases are recorded.
+     * @return The SeatReport.
+     */
+    private static SeatReport newSeatReport(Election poll, VoteView votes, int runs, int threads, PipelineStats stats) {
+        String label = phaseLabel(poll, votes);
+        SeatModel model;
+        SeatSimulation simulation = null;
+
+        Phase modelPhase = stats.begin("seat model (" + label + ")");
+        try {
+            model = new SeatModel(poll, votes);
+        } finally {
+            modelPhase.close();
+        }
+
+        if (runs > 0) {
+            Phase simulationPhase = stats.begin("seat simulation (" + label + ")");
+            try {
+                simulation = new SeatSimulation(model, SeatSimulation.LIST_DEVIATION, SeatSimulation.CANDIDATE_DEVIATION, SeatSimulation.SEED);
+                simulation.run(runs, threads);
+            } catch (Exception e) {
+                throw new IllegalStateException("Seat simulation failed", e);
+            } finally {
+                simulationPhase.close();
+            }
+        }
+
+        Phase reportPhase = stats.begin("SeatReport (" + label + ")");
+        try {
+            return new SeatReport(poll, model, simulation);
+        } finally {
+            reportPhase.close();
+        }
+    }
+
+    /**
+     * Loads the cached snapshot of every election. Snapshots are only used if all of them are available,
+     * since the elections are read together in a single scan otherwise.
+     *
+     * @param snapshot The snapshot cache.
+     * @param polls    The empty Election objects.
+     * @return The restored elections, or null if any snapshot is missing.
+     * @throws IOException if a snapshot cannot be read.
+     */
+    private static Election[] loadSnapshots(ElectionSnapshot snapshot, Election[] polls) throws IOException {
+        Election[] loaded = new Election[polls.length];
+
+        for (int i = 0; i < polls.length; i++) {
+            loaded[i] = snapshot.load(polls[i].getElectionDate(), polls[i].getOfficeOption());
+            if (loaded[i] == null) return null;
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Builds the scenarios of a file over an election, timing each one as a phase.
+     *
+     * @param scenarioFile The scenarios.
+     * @param poll         The Election, with its votes counted. It is frozen.
+     * @param stats        The stats where the phases are recorded.
+     * @return The scenarios, in the order of the file.
+     * @throws IllegalArgumentException if a scenario names a candidate or party the election does not have.
+     */
+    private static ElectionScenario[] newScenarios(ScenarioFile scenarioFile, Election poll, PipelineStats stats) {
+        ElectionScenario[] scenarios = new ElectionScenario[scenarioFile.size()];
+
+        for (int i = 0; i < scenarios.length; i++) {
+            Phase phase = stats.begin("scenario (" + poll.getOfficeOption() + ", " + scenarioFile.getName(i) + ")");
+            try {
+                scenarios[i] = scenarioFile.build(i, poll);
+            } finally {
+                phase.close();
+            }
+        }
+
+        return scenarios;
+    }
+
+    /**
+     * Gets the label of the phases of an election: its office, followed by the name of the scenario if the votes are of one.
+     *
+     * @param poll  The Election.
+     * @param votes The votes being reported: the election itself or one of its scenarios.
+     * @return The label.
+     */
+    private static String phaseLabel(Election poll, VoteView votes) {
+        if (votes instanceof ElectionScenario) return poll.getOfficeOption() + ", " + ((ElectionScenario) votes).getName();
+        return poll.getOfficeOption();
+    }
+
+    /**
+     * Generates every report of an election.
+     *
+     * @param poll  The Election to be reported.
+     * @param votes The votes to be reported: the election itself or one of its scenarios.
+     * @param out   The writer the reports are written to.
+     * @param stats The stats where the construction of the Report and each report are recorded as phases.
+     */
+    private static void printReports(Election poll, VoteView votes, ReportWriter out, PipelineStats stats) {
+        String label = phaseLabel(poll, votes);
+        Report report;
+        Phase phase = stats.begin("Report (" + label + ")");
+        try {
+            report = new Report(poll, votes, out);
+        } finally {
+            phase.close();
+        }
+
+        Runnable[] reports = { report::report1, report::report2, report::report3, report::report4, report::report5,
+                               report::report6, report::report7, report::report8, report::report9, report::report10 };
+        runReports(reports, label, stats);
+    }
+
+    /**
+     * Writes every report of an election as machine-readable records.
+     *
+     * @param poll  The Election to be reported.
+     * @param votes The votes to be reported: the election itself or one of its scenarios.
+     * @param out   The writer the records are written to.
+     * @param stats The stats where the construction of the RecordReport and each report are recorded as phases.
+     */
+    private static void writeRecords(Election poll, VoteView votes, RecordWriter out, PipelineStats stats) {
+        String label = phaseLabel(poll, votes);
+        RecordReport report;
+        Phase phase = stats.begin("RecordReport (" + label + ")");
+        try {
+            report = new RecordReport(poll, votes, out);
+        } finally {
+            phase.close();
+        }
+
+        Runnable[] reports = { report::report1, report::report2, report::report3, report::report4, report::report5,
+                               report::report6, report::report7, report::report8, report::report9, report::report10 };
+        runReports(reports, label, stats);
+    }
+
+    /**
+     * Runs the reports of an election in order, each one as a phase named "report1", "report2" and so on.
+     *
+     * @param reports The reports.
+     * @param label   The label of the phases, as given by phaseLabel().
+     * @param stats   The stats where the phases are recorded.
+     */
+    private static void runReports(Runnable[] reports, String label, PipelineStats stats) {
+        for (int i = 0; i < reports.length; i++) {
+            Phase phase = stats.begin("report" + (i + 1) + " (" + label + ")");
+            try {
+                reports[i].run();
+            } finally {
+                phase.close();
+            }
+        }
     }
     
 }
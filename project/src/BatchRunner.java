@@ -0,0 +1,363 @@
+/**
+ * Runs the election analysis for many states in a single JVM: each state (a pair of candidates and poll files)
+ * is read and reported as a task of a work-stealing pool, and the results of every state are added up into
+ * national totals. The states share a single dictionary of party acronyms and names.
+ */
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import Election.Election;
+import Election.Domain.StringDictionary;
+import Election.Report.NationalReport;
+import Election.Report.RecordWriter;
+import Election.Report.ReportWriter;
+
+public class BatchRunner {
+    private static final Pattern STATE_FILE = Pattern.compile(".*_([A-Za-z]{2})\\.(csv|csv\\.gz|gz|zip)");
+
+    private String officeOption;
+    private LocalDate electionDate;
+    private String format;
+    private Path outputDirectory;
+    private StringDictionary partyDictionary;
+    private NationalReport[] nationalReports;
+
+    /**
+     * The input files of a state.
+     */
+    private static class State {
+        private String code;
+        private String candidatesFile;
+        private String pollFile;
+        private long size;
+    }
+
+    /**
+     * Constructor for the BatchRunner class.
+     *
+     * @param officeOption    The office option ("--federal", "--estadual" or "--ambos").
+     * @param electionDate    The date of the election.
+     * @param format          The format of the reports: "text", "jsonl" or "csv".
+     * @param outputDirectory The directory where each state's reports are written, or null for standard output.
+     */
+    public BatchRunner(String officeOption, LocalDate electionDate, String format, Path outputDirectory) {
+        this.officeOption = officeOption;
+        this.electionDate = electionDate;
+        this.format = format;
+        this.outputDirectory = outputDirectory;
+        this.partyDictionary = new StringDictionary();
+
+        String[] offices = officeOptions(officeOption);
+        this.nationalReports = new NationalReport[offices.length];
+        for (int i = 0; i < offices.length; i++) {
+            nationalReports[i] = new NationalReport(offices[i]);
+        }
+    }
+
+    /**
+     * Entry point of the batch mode.
+     *
+     * @param args The office option, a directory or manifest of state files, the election date, and optional flags
+     *             --threads=<n>, --format=text|jsonl|csv and --output=<dir>.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("To run in batch, use: java -jar deputies.jar --batch --<office_option> <directory_or_manifest> <election_date> [--threads=<n>] [--format=text|jsonl|csv] [--output=<dir>]");
+            return;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = "text";
+        Path outputDirectory = null;
+
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].startsWith("--threads=")) {
+                try {
+                    threads = Integer.parseInt(args[i].substring("--threads=".length()));
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+
+                if (threads < 1) {
+                    System.out.println("Invalid number of threads. Use --threads=<n>, with n >= 1");
+                    return;
+                }
+            }
+            else if (args[i].startsWith("--format=")) {
+                format = args[i].substring("--format=".length());
+
+                if (!format.equals("text") && !format.equals("jsonl") && !format.equals("csv")) {
+                    System.out.println("Invalid format. Use --format=text, --format=jsonl or --format=csv");
+                    return;
+                }
+            }
+            else if (args[i].startsWith("--output=")) {
+                outputDirectory = Paths.get(args[i].substring("--output=".length()));
+            }
+            else {
+                System.out.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        if (!format.equals("text") && outputDirectory == null) {
+            System.out.println("The jsonl and csv formats need an output directory in batch mode. Use --output=<dir>");
+            return;
+        }
+
+        LocalDate electionDate;
+        try {
+            electionDate = LocalDate.parse(args[2], DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.forLanguageTag("pt-BR")));
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid Date Format. Use dd/MM/yyyy");
+            return;
+        }
+
+        try {
+            List<State> states = findStates(Paths.get(args[1]));
+
+            if (states.isEmpty()) {
+                System.out.println("No state files found in " + args[1]);
+                return;
+            }
+
+            new BatchRunner(args[0], electionDate, format, outputDirectory).run(states, threads);
+        } catch (IOException e) {
+            System.out.println("Could not run the batch: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the files of each state. A directory is searched for poll files (with "votacao" in their names) and
+     * candidates files (any other name with "cand"), paired by the state code at the end of the name, as in
+     * consulta_cand_2022_ES.csv and votacao_candidato_munzona_2022_ES.csv. Any other path is read as a manifest with one "UF;candidates;poll" line
+     * per state, where relative paths are resolved against the manifest's directory and "#" starts a comment.
+     *
+     * @param location The directory or manifest.
+     * @return The states, ordered by state code.
+     * @throws IOException if the directory or manifest cannot be read.
+     */
+    private static List<State> findStates(Path location) throws IOException {
+        TreeMap<String, State> states = new TreeMap<String, State>();
+
+        if (Files.isDirectory(location)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(location)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    Matcher m = STATE_FILE.matcher(name);
+                    if (!m.matches() || !Files.isRegularFile(file)) continue;
+
+                    String lowerName = name.toLowerCase(Locale.ROOT);
+                    State state = states.computeIfAbsent(m.group(1).toUpperCase(Locale.ROOT), code -> newState(code));
+
+                    if (lowerName.contains("votacao")) state.pollFile = file.toString();
+                    else if (lowerName.contains("cand")) state.candidatesFile = file.toString();
+                }
+            }
+        }
+        else {
+            Path directory = location.toAbsolutePath().getParent();
+
+            try (BufferedReader in = Files.newBufferedReader(location, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+
+                    String[] fields = line.split(";");
+                    if (fields.length != 3) {
+                        throw new IOException("Invalid manifest line, expected UF;candidates;poll: " + line);
+                    }
+
+                    State state = newState(fields[0].trim().toUpperCase(Locale.ROOT));
+                    state.candidatesFile = directory.resolve(fields[1].trim()).toString();
+                    state.pollFile = directory.resolve(fields[2].trim()).toString();
+                    states.put(state.code, state);
+                }
+            }
+        }
+
+        List<State> complete = new ArrayList<State>();
+        for (State state : states.values()) {
+            if (state.candidatesFile == null || state.pollFile == null) {
+                System.out.println("Skipping " + state.code + ": missing " + (state.candidatesFile == null ? "candidates" : "poll") + " file");
+                continue;
+            }
+
+            Path poll = Paths.get(state.pollFile.replaceFirst("!.*$", ""));
+            state.size = Files.exists(poll) ? Files.size(poll) : 0;
+            complete.add(state);
+        }
+
+        return complete;
+    }
+
+    /**
+     * Creates a State with a code and no files.
+     */
+    private static State newState(String code) {
+        State state = new State();
+        state.code = code;
+        return state;
+    }
+
+    /**
+     * Gets the extension of the output files of the format.
+     */
+    private String extension() {
+        return format.equals("text") ? ".txt" : "." + format;
+    }
+
+    /**
+     * Gets the office options of the elections of each state.
+     */
+    private static String[] officeOptions(String officeOption) {
+        if (officeOption.equals("--ambos")) return new String[] { "--federal", "--estadual" };
+        else return new String[] { officeOption };
+    }
+
+    /**
+     * Runs every state on a work-stealing pool, largest poll files first so that a big state is not left for last,
+     * and then writes the national totals. Text sent to standard output is printed in state order.
+     *
+     * @param states  The states.
+     * @param threads The number of threads of the pool.
+     * @throws IOException if an output file cannot be written.
+     */
+    private void run(List<State> states, int threads) throws IOException {
+        List<State> bySize = new ArrayList<State>(states);
+        bySize.sort((a, b) -> Long.compare(b.size, a.size));
+
+        List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>();
+        for (State state : bySize) {
+            tasks.add(() -> runState(state));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Future<byte[]>> results;
+
+        try {
+            results = pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (State state : states) {
+            byte[] output;
+
+            try {
+                output = results.get(bySize.indexOf(state)).get();
+            } catch (InterruptedException | ExecutionException e) {
+                Throwable cause = e;
+                while (cause.getCause() != null) cause = cause.getCause();
+                System.out.println("Could not process " + state.code + ": " + cause.getMessage());
+                continue;
+            }
+
+            if (outputDirectory == null) {
+                System.out.print("Estado: " + state.code + "\n\n");
+                System.out.write(output, 0, output.length);
+                System.out.print("\n");
+            }
+        }
+
+        writeNational();
+    }
+
+    /**
+     * Reads the files of a state, adds its results to the national totals and writes its reports.
+     *
+     * @param state The state.
+     * @return The text of the reports, or an empty array if they were written to a file.
+     * @throws IOException if the output file cannot be written.
+     */
+    private byte[] runState(State state) throws IOException {
+        String[] offices = officeOptions(officeOption);
+        Election[] polls = new Election[offices.length];
+
+        for (int i = 0; i < offices.length; i++) {
+            polls[i] = new Election(electionDate, offices[i], partyDictionary);
+        }
+
+        CSVReader reader = new CSVReader(state.candidatesFile, state.pollFile);
+        reader.candidatesReader(polls);
+        reader.votesReader(polls);
+
+        if (reader.getDiagnostics().getProblemCount() > 0) {
+            synchronized (System.err) {
+                System.err.println("State " + state.code + ":");
+                reader.getDiagnostics().print(System.err);
+            }
+        }
+
+        for (int i = 0; i < polls.length; i++) {
+            synchronized (nationalReports[i]) {
+                nationalReports[i].add(polls[i]);
+            }
+        }
+
+        if (outputDirectory != null) {
+            Files.createDirectories(outputDirectory);
+
+            try (OutputStream out = new FileOutputStream(outputDirectory.resolve(state.code + extension()).toFile())) {
+                App.writeReports(polls, format, out);
+            }
+            return new byte[0];
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        App.writeReports(polls, format, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the national totals of every office, to "nacional.txt" (or .jsonl, .csv) in the output directory or to standard output.
+     *
+     * @throws IOException if the output file cannot be written.
+     */
+    private void writeNational() throws IOException {
+        OutputStream sink = System.out;
+        if (outputDirectory != null) sink = new FileOutputStream(outputDirectory.resolve("nacional" + extension()).toFile());
+
+        if (format.equals("text")) {
+            ReportWriter out = new ReportWriter(sink, Charset.defaultCharset());
+            for (int i = 0; i < nationalReports.length; i++) {
+                if (i > 0) out.print("\n");
+                nationalReports[i].print(out);
+            }
+            out.flush();
+        }
+        else {
+            RecordWriter out = RecordWriter.of(format, sink);
+            for (NationalReport report : nationalReports) {
+                report.write(out);
+            }
+            out.flush();
+        }
+
+        if (outputDirectory != null) sink.close();
+    }
+}
@@ -2,30 +2,60 @@
  * This class reads CSV files containing candidate and poll information and processes the data for an election.
  */
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import Election.Election;
 import Election.Domain.Candidate;
+import Election.Domain.PackedDate;
 import Election.Domain.Party;
-import java.io.File;
+import Election.Geo.VoteCube;
+import Election.Input.CSVScanner;
+import Election.Input.CSVSource;
+import Election.Input.Diagnostics;
+import Election.Input.IntParser;
+import Election.Input.ScanSpec;
+import Election.Input.VoteTally;
+import Election.Stats.Phase;
+import Election.Stats.PipelineStats;
 
 public class CSVReader {
+    private static final long MIN_CHUNK_SIZE = 1 << 20; // smaller chunks are not worth a thread
+    private static final String CANDIDATES_FILE = "candidates";
+    private static final String POLL_FILE = "poll";
+
+    // the columns read from each file, so the rest of every row is not tokenized
+    private static final ScanSpec CANDIDATE_COLUMNS = new ScanSpec(13, 16, 18, 27, 28, 29, 30, 42, 45, 56, 67, 68);
+    private static final ScanSpec VOTE_COLUMNS = new ScanSpec(17, 19, 21);
+    private static final ScanSpec PLACE_VOTE_COLUMNS = new ScanSpec(13, 14, 15, 17, 19, 21);
+
     private String candidatesFilePath;
     private String pollFilePath;
+    private CSVSource candidatesSource;
+    private CSVSource pollSource;
+    private PipelineStats stats;
+    private Diagnostics diagnostics;
+    private boolean voteCubes;
     
     /**
      * Constructor for the CSVReader class.
+     * Each path may point to a plain CSV file, a gzip file or a zip archive (optionally followed by "!" and the entry name).
      *
      * @param candidatesFilePath The file path for the candidates CSV file.
      * @param pollFilePath       The file path for the poll CSV file.
-     * @throws IllegalArgumentException if either candidates file or poll file does not exist.
+     * @throws IllegalArgumentException if either candidates file or poll file does not exist,
+     *                                  or if a zip archive has no entry to be read or no single one to choose.
      */
     public CSVReader(String candidatesFilePath, String pollFilePath) {
 
-        File candidatesFile = new File(candidatesFilePath);
-        File pollFile = new File(pollFilePath);
+        CSVSource candidatesFile = new CSVSource(candidatesFilePath);
+        CSVSource pollFile = new CSVSource(pollFilePath);
 
         if (!candidatesFile.exists() && pollFile.exists()) {
             throw new IllegalArgumentException("Candidates file does not exist!\npath: " + candidatesFilePath + "");
@@ -38,8 +68,55 @@ public class CSVReader {
                                                 "\npollFilePath: " + pollFilePath + "\n");
         }
 
+        try {
+            candidatesFile.getEntry();
+            pollFile.getEntry();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+
         this.candidatesFilePath = candidatesFilePath;
         this.pollFilePath = pollFilePath;
+        this.candidatesSource = candidatesFile;
+        this.pollSource = pollFile;
+        this.stats = new PipelineStats();
+        this.diagnostics = new Diagnostics();
+    }
+
+    /**
+     * Sets whether the votes are also counted per municipality and zone, in a VoteCube of each election.
+     *
+     * @param voteCubes True to count the votes per place too, false for the totals only.
+     */
+    public void setVoteCubes(boolean voteCubes) {
+        this.voteCubes = voteCubes;
+    }
+
+    /**
+     * Gets the diagnostics where the bad values found while reading are recorded, to be printed once at the end.
+     *
+     * @return The Diagnostics.
+     */
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Sets the stats where the rows read are counted, in the phase open while reading.
+     *
+     * @param stats The PipelineStats of the run.
+     */
+    public void setStats(PipelineStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Gets the stats where the rows read are counted.
+     *
+     * @return The PipelineStats.
+     */
+    public PipelineStats getStats() {
+        return stats;
     }
 
     /**
@@ -61,142 +138,411 @@ public class CSVReader {
     }
 
     /**
-     * Reads and processes candidate information from a CSV file.
+     * Reads and processes candidate information from a CSV file, in a single scan for any number of elections.
+     * Every party is added to all the elections, and each candidate goes to the election of its office.
      *
-     * @param poll The Election object to which candidate information will be added.
+     * @param polls The Election objects to which candidate information will be added, at most one per office option.
      */
-    public void candidatesReader(Election poll) {
-        try (FileInputStream fin = new FileInputStream(this.candidatesFilePath);
-            InputStreamReader isr = new InputStreamReader(fin, "ISO-8859-1");
-            BufferedReader br = new BufferedReader(isr)) {
+    public void candidatesReader(Election... polls) {
+        try (CSVScanner scanner = candidatesSource.open()) {
+            scanner.setScanSpec(CANDIDATE_COLUMNS); // every row is read, since parties come from all offices
 
-            String[] token = new String[80];
-            int currentRow = 0;
-            int officeOption = 0;
+            int[] officeOptions = officeCodes(polls);
+            int[] electionDates = new int[polls.length];
 
-            if (poll.getOfficeOption().equals("--estadual")) {
-                officeOption = 7;
-            } else {
-                officeOption = 6;
+            for (int i = 0; i < polls.length; i++) {
+                electionDates[i] = PackedDate.of(polls[i].getElectionDate());
             }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(";");
-                
-                for (int i = 0; i < parts.length && i < token.length; i++) {
-                    token[i] = parts[i].replace("\"", "");
-                }
+            scanner.nextRow(); // skip csv header
+            long scanned = 0;
+            long filtered = 0;
 
-                if (currentRow != 0) { // row != csv header && officeOption == same as command line input
+            while (scanner.nextRow()) {
+                scanned++;
 
-                    int partyNumber = stringToInt(token[27]);           /* "NR_PARTIDO" */
-                    String partyAcronym = token[28];                    /* "SG_PARTIDO" */
-                    String partyName = token[29];                       /* "NM_PARTIDO" */
-                    Party p = new Party(partyNumber, partyAcronym, partyName);
-                    poll.addParty(partyNumber, p); 
+                int partyNumber = fieldToInt(scanner, CANDIDATES_FILE, 27);                  /* "NR_PARTIDO" */
+                for (Election poll : polls) {
+                    if (!poll.hasParty(partyNumber)) {
+                        String partyAcronym = poll.getPartyDictionary().intern(scanner.getString(28)); /* "SG_PARTIDO" */
+                        String partyName = poll.getPartyDictionary().intern(scanner.getString(29));    /* "NM_PARTIDO" */
+                        Party p = new Party(partyNumber, partyAcronym, partyName);
+                        poll.addParty(partyNumber, p); 
+                    }
+                }
 
-                    if (stringToInt(token[13]) == officeOption /* "CD_CARGO" */) {
+                int pollIndex = indexOf(officeOptions, fieldToInt(scanner, CANDIDATES_FILE, 13)); /* "CD_CARGO" */
+
+                if (pollIndex >= 0) {
+                    Election poll = polls[pollIndex];
+                    int officeOption = officeOptions[pollIndex];
+
+                    int candidateNumber = fieldToInt(scanner, CANDIDATES_FILE, 16);          /* "NR_CANDIDATO" */
+                    String candidateBallotName = scanner.getString(18);     /* "NM_URNA_CANDIDATO" */
+                    String partyAcronym = scanner.getString(28);            /* "SG_PARTIDO" */
+                    int federationNumber = fieldToInt(scanner, CANDIDATES_FILE, 30);         /* "NR_FEDERACAO" */
+                    int birthDate = scanner.getDate(42);                    /* "DT_NASCIMENTO" */
+                    int gender = fieldToInt(scanner, CANDIDATES_FILE, 45);                   /* "CD_GENERO" */
+                    int turnStatus = fieldToInt(scanner, CANDIDATES_FILE, 56);               /* "CD_SIT_TOT_TURNO" */
+                    String voteDestinationType = scanner.getString(67);     /* "NM_TIPO_DESTINACAO_VOTOS" */
+                    int candidacyCondition = fieldToInt(scanner, CANDIDATES_FILE, 68);       /* "CD_SITUACAO_CANDIDATO_TOT" */
+
+                        
+                    if (candidacyCondition == 2 || candidacyCondition == 16) {
+                        Candidate c = poll.getCandidateTable().add(officeOption, candidateNumber, candidateBallotName, partyNumber, partyAcronym, 
+                                                federationNumber, birthDate, gender, turnStatus, voteDestinationType, candidacyCondition, electionDates[pollIndex]);
+
+                        poll.addCandidateToParty(c);
+                        poll.addCandidate(candidateNumber, c);
+                        if (!PackedDate.isValid(birthDate)) invalidBirthDate(scanner, poll, birthDate);
+                    }
+                    else if (candidacyCondition != 2 && candidacyCondition != 16 && voteDestinationType.equals("Válido (legenda)")) {
+                        Candidate c = poll.getCandidateTable().add(officeOption, candidateNumber, candidateBallotName, partyNumber, partyAcronym, 
+                                                federationNumber, birthDate, gender, turnStatus, voteDestinationType, candidacyCondition, electionDates[pollIndex]);
 
-                        int candidateNumber = stringToInt(token[16]);       /* "NR_CANDIDATO" */
-                        String candidateBallotName = token[18];             /* "NM_URNA_CANDIDATO" */
-                        int federationNumber = stringToInt(token[30]);      /* "NR_FEDERACAO" */
-                        String birthDate = token[42];                       /* "DT_NASCIMENTO" */
-                        int gender = stringToInt(token[45]);                /* "CD_GENERO" */
-                        int turnStatus = stringToInt(token[56]);            /* "CD_SIT_TOT_TURNO" */
-                        String voteDestinationType = token[67];             /* "NM_TIPO_DESTINACAO_VOTOS" */
-                        int candidacyCondition = stringToInt(token[68]);    /* "CD_SITUACAO_CANDIDATO_TOT" */
+                        poll.addDismissedCandidateToParty(c);
+                        if (!PackedDate.isValid(birthDate)) invalidBirthDate(scanner, poll, birthDate);
+                    }
+                }
+                else filtered++;
+            }
 
-                            
-                        if (candidacyCondition == 2 || candidacyCondition == 16) {
-                            Candidate c = new Candidate(officeOption, candidateNumber, candidateBallotName, partyNumber, partyAcronym, 
-                                                    federationNumber, birthDate, gender, turnStatus, voteDestinationType, candidacyCondition, poll.getElectionDate());
+            Phase phase = stats.current();
+            if (phase != null) phase.addScan(scanned, filtered, 0, scanner.getBytesRead(), 0);
 
-                            poll.addCandidateToParty(c);
-                            poll.addCandidate(candidateNumber, c);
-                        }
-                        else if (candidacyCondition != 2 && candidacyCondition != 16 && voteDestinationType.equals("Válido (legenda)")) {
-                            Candidate c = new Candidate(officeOption, candidateNumber, candidateBallotName, partyNumber, partyAcronym, 
-                                                    federationNumber, birthDate, gender, turnStatus, voteDestinationType, candidacyCondition, poll.getElectionDate());
+            for (Election poll : polls) {
+                poll.compileVoteRoutes();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-                            poll.addDismissedCandidateToParty(c);
-                        }
-                    }
+    /**
+     * Reads and processes vote information from a CSV file, in a single scan for any number of elections.
+     * Votes are first summed per votable number while scanning, and each distinct number is then resolved
+     * against the candidates and parties of its election only once.
+     *
+     * @param polls The Election objects to which vote information will be added, at most one per office option.
+     */
+    public void votesReader(Election... polls) {
+        try {
+            VoteTally[] tallies = tallyVotes(pollSource.open(), officeCodes(polls), false);
+            applyTallies(polls, tallies, stats);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-                }
-                currentRow++;
-            }
+    /**
+     * Reads and processes vote information from a CSV file, splitting it into chunks that are tallied in parallel.
+     * The tallies of all chunks are merged into each Election before its total votes are set, so the result is the same as votesReader(polls).
+     * Compressed poll files cannot be split, so they are read as a single chunk.
+     *
+     * @param threads The number of threads reading the file.
+     * @param polls   The Election objects to which vote information will be added, at most one per office option.
+     */
+    public void votesReader(int threads, Election... polls) {
+        try {
+            long end = pollSource.isCompressed() ? Long.MAX_VALUE : Files.size(pollSource.getPath());
+            applyTallies(polls, tallyPoll(0, end, threads, polls), stats);
         } catch (Exception e) {
             e.printStackTrace();
         }
-}
+    }
 
     /**
-     * Reads and processes vote information from a CSV file.
+     * Sums the votes of the rows starting inside a byte range of the poll file, splitting the range into chunks
+     * that are tallied in parallel. Compressed poll files cannot be split or read from an offset,
+     * so they are always read whole, as a single chunk.
      *
-     * @param poll The Election object to which vote information will be added.
+     * @param start   The first byte of the range.
+     * @param end     The byte after the last one of the range.
+     * @param threads The number of threads reading the range.
+     * @param polls   The Election objects whose offices are counted.
+     * @return The votes per votable number, one tally per election.
+     * @throws Exception if the file cannot be read.
      */
-    public void votesReader(Election poll) {
-        try (FileInputStream fin = new FileInputStream(this.pollFilePath);
-            InputStreamReader isr = new InputStreamReader(fin, "ISO-8859-1");
-            BufferedReader br = new BufferedReader(isr)) {
+    VoteTally[] tallyPoll(long start, long end, int threads, Election... polls) throws Exception {
+        int[] officeOptions = officeCodes(polls);
+
+        if (pollSource.isCompressed()) {
+            return tallyVotes(pollSource.open(), officeOptions, false);
+        }
+
+        Path path = pollSource.getPath();
+        long[] bounds = CSVScanner.split(start, end, threads, MIN_CHUNK_SIZE);
+
+        if (bounds.length == 2) {
+            return tallyVotes(new CSVScanner(path, start, end), officeOptions, false);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
 
-            String[] token = new String[30];
-            int currentRow = 0;
-            int officeOption = 0;
-            String officeString = "";
+        try {
+            List<Future<VoteTally[]>> chunks = new ArrayList<Future<VoteTally[]>>();
 
-            if (poll.getOfficeOption().equals("--estadual")) {
-                officeOption = 7;
-                officeString = "--estadual";
-            } else {
-                officeOption = 6;
-                officeString = "--federal";
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long chunkStart = bounds[i];
+                long chunkEnd = bounds[i + 1];
+                chunks.add(executor.submit(() -> tallyVotes(new CSVScanner(path, chunkStart, chunkEnd), officeOptions, true)));
             }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(";");
+            VoteTally[] tallies = newTallies(polls.length, voteCubes);
+            for (Future<VoteTally[]> chunk : chunks) {
+                VoteTally[] chunkTallies = chunk.get();
 
-                for (int i = 0; i < parts.length && i < token.length; i++) {
-                    token[i] = parts[i].replace("\"", "");
+                for (int p = 0; p < polls.length; p++) {
+                    tallies[p].merge(chunkTallies[p]);
                 }
+            }
+
+            return tallies;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Gets the source of the poll file.
+     *
+     * @return The CSVSource of the poll file.
+     */
+    CSVSource getPollSource() {
+        return pollSource;
+    }
+
+    /**
+     * Sums the votes of the rows read by a scanner of the poll file, per office and votable number.
+     * The rows are counted in the phase open in the stats, if any.
+     *
+     * @param reader        The scanner over the poll file, or over a chunk of it. It is closed at the end.
+     * @param officeOptions The office codes of the rows to be counted (6 for federal, 7 for state).
+     * @param worker        True if it runs on a worker thread, whose allocations are added to the phase.
+     * @return The votes of the chunk per votable number, one tally per office code.
+     * @throws IOException if the file cannot be read.
+     */
+    private VoteTally[] tallyVotes(CSVScanner reader, int[] officeOptions, boolean worker) throws IOException {
+        long allocated = worker ? PipelineStats.threadAllocatedBytes() : 0;
+        VoteTally[] tallies = newTallies(officeOptions.length, voteCubes);
+        long scanned = 0;
+        long filtered = 0;
+        long skipped = 0;
 
-                if (currentRow != 0 && stringToInt(token[17]) == officeOption) { // row != csv header && officeOption == same as command line input
+        try (CSVScanner scanner = reader) {
+            scanner.setScanSpec((voteCubes ? PLACE_VOTE_COLUMNS : VOTE_COLUMNS).where(17, officeOptions)); // rows of other offices are skipped by the scanner
+            if (scanner.startsAtHeader()) scanner.nextRow(); // skip csv header
 
-                    int votableNumber = stringToInt(token[19]);         /* "NR_VOTAVEL" */
-                    int totalVotes = stringToInt(token[21]);            /* "QT_VOTOS" */
+            while (scanner.nextRow()) {
+                scanned++;
+
+                int pollIndex = indexOf(officeOptions, fieldToInt(scanner, POLL_FILE, 17)); /* "CD_CARGO" */
+
+                if (pollIndex >= 0) {
+
+                    int votableNumber = fieldToInt(scanner, POLL_FILE, 19);         /* "NR_VOTAVEL" */
+                    int totalVotes = fieldToInt(scanner, POLL_FILE, 21);            /* "QT_VOTOS" */
 
                     if (votableNumber != 95 && votableNumber != 96 && votableNumber != 97 && votableNumber != 98) {
-                        poll.addVotes(totalVotes, votableNumber, officeString);
+                        tallies[pollIndex].add(votableNumber, totalVotes);
+
+                        VoteCube cube = tallies[pollIndex].getCube();
+                        if (cube != null) {
+                            int municipality = fieldToInt(scanner, POLL_FILE, 13);              /* "CD_MUNICIPIO" */
+                            String name = cube.hasMunicipality(municipality) ? null : scanner.getString(14); /* "NM_MUNICIPIO" */
+                            cube.add(municipality, name, fieldToInt(scanner, POLL_FILE, 15), votableNumber, totalVotes); /* "NR_ZONA" */
+                        }
                     }
+                    else skipped++;
 
                 }
-                currentRow++;
+                else filtered++;
             }
 
-            poll.setTotalVotes();
-        } catch (Exception e) {
-            e.printStackTrace();
+            scanned += scanner.getRowsRejected();
+            filtered += scanner.getRowsRejected();
+
+            Phase phase = stats.current();
+            if (phase != null) {
+                if (worker) allocated = PipelineStats.threadAllocatedBytes() - allocated;
+                phase.addScan(scanned, filtered, skipped, scanner.getBytesRead(), allocated);
+            }
+        }
+
+        return tallies;
+    }
+
+    /**
+     * Adds the summed votes of each votable number to its election, and then sets the elections' total votes.
+     * Where the votes of each number went is counted in the phase open in the stats, if any.
+     *
+     * @param polls    The Election objects.
+     * @param tallies  The votes per votable number, one tally per election.
+     * @param stats    The stats of the run.
+     */
+    private static void applyTallies(Election[] polls, VoteTally[] tallies, PipelineStats stats) {
+        Phase phase = stats.current();
+
+        for (int p = 0; p < polls.length; p++) {
+            Election poll = polls[p];
+            VoteTally tally = tallies[p];
+
+            for (int i = 0; i < tally.size(); i++) {
+                poll.addVotes(tally.getVotes(i), tally.getNumber(i), poll.getOfficeOption());
+            }
+            if (tally.getCube() != null) poll.addVoteCube(tally.getCube());
+
+            if (phase != null) {
+                for (int i = 0; i < tally.size(); i++) {
+                    phase.addDestination(poll.getVoteDestination(tally.getNumber(i)), tally.getRows(i), tally.getVotes(i));
+                }
+            }
+
+            Phase totals = stats.begin("setTotalVotes (" + poll.getOfficeOption() + ")");
+            try {
+                poll.setTotalVotes();
+            } finally {
+                totals.close();
+            }
+        }
+    }
+
+    /**
+     * Creates one empty VoteTally per election.
+     *
+     * @param count The number of elections.
+     * @return The new tallies.
+     */
+    static VoteTally[] newTallies(int count) {
+        return newTallies(count, false);
+    }
+
+    /**
+     * Creates one empty VoteTally per election, optionally counting the votes per municipality and zone.
+     *
+     * @param count    The number of elections.
+     * @param withCube True to count the votes per place too.
+     * @return The new tallies.
+     */
+    static VoteTally[] newTallies(int count, boolean withCube) {
+        VoteTally[] tallies = new VoteTally[count];
+
+        for (int i = 0; i < count; i++) {
+            tallies[i] = new VoteTally(withCube);
+        }
+
+        return tallies;
+    }
+
+    /**
+     * Gets the "CD_CARGO" code of each election's office option.
+     *
+     * @param polls The Election objects.
+     * @return The office codes (7 for --estadual, 6 otherwise), in the same order.
+     */
+    private static int[] officeCodes(Election[] polls) {
+        int[] codes = new int[polls.length];
+
+        for (int i = 0; i < polls.length; i++) {
+            codes[i] = polls[i].getOfficeOption().equals("--estadual") ? 7 : 6;
+        }
+
+        return codes;
+    }
+
+    /**
+     * Finds the election that a row belongs to.
+     *
+     * @param officeOptions The office codes of the elections.
+     * @param officeOption  The office code of the row.
+     * @return The index of the election, or -1 if the row belongs to none of them.
+     */
+    private static int indexOf(int[] officeOptions, int officeOption) {
+        for (int i = 0; i < officeOptions.length; i++) {
+            if (officeOptions[i] == officeOption) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Counts a candidate whose birth date is missing or invalid, and records it in the diagnostics.
+     *
+     * @param scanner   The scanner positioned on the candidate's row.
+     * @param poll      The Election of the candidate.
+     * @param birthDate The packed birth date read, PackedDate.NONE or PackedDate.INVALID.
+     */
+    private void invalidBirthDate(CSVScanner scanner, Election poll, int birthDate) {
+        poll.countInvalidBirthDate();
+        diagnostics.report(CANDIDATES_FILE, scanner, 42, "DT_NASCIMENTO", birthDate == PackedDate.NONE ? "missing date" : "not a date");
+    }
+
+    /**
+     * Reads a column of the scanner's current row of a file as an integer. A bad value is recorded in the
+     * diagnostics, without throwing.
+     *
+     * @param scanner The scanner positioned on the row to be read.
+     * @param file    CANDIDATES_FILE or POLL_FILE.
+     * @param column  The column index.
+     * @return The integer value of the column, or 0 if it is not an integer.
+     */
+    private int fieldToInt(CSVScanner scanner, String file, int column) {
+        long value = scanner.tryGetInt(column);
+
+        if (!IntParser.isValid(value)) {
+            diagnostics.report(file, scanner, column, columnName(file, column), "not an integer");
+            return 0;
         }
+
+        return (int) value;
     }
 
     /**
-     * Converts a string to an integer, if possible. Otherwise, prints exception.
+     * Gets the name of a numeric column read from a file, for the diagnostics.
+     *
+     * @param file   CANDIDATES_FILE or POLL_FILE.
+     * @param column The column index.
+     * @return The name in the header of the TSE files, or null if it is not one of the columns read.
+     */
+    private static String columnName(String file, int column) {
+        if (file.equals(POLL_FILE)) {
+            switch (column) {
+                case 13: return "CD_MUNICIPIO";
+                case 15: return "NR_ZONA";
+                case 17: return "CD_CARGO";
+                case 19: return "NR_VOTAVEL";
+                case 21: return "QT_VOTOS";
+                default: return null;
+            }
+        }
+
+        switch (column) {
+            case 13: return "CD_CARGO";
+            case 16: return "NR_CANDIDATO";
+            case 27: return "NR_PARTIDO";
+            case 30: return "NR_FEDERACAO";
+            case 45: return "CD_GENERO";
+            case 56: return "CD_SIT_TOT_TURNO";
+            case 68: return "CD_SITUACAO_CANDIDATO_TOT";
+            default: return null;
+        }
+    }
+
+    /**
+     * Converts a string to an integer, if possible. A bad value is recorded in the diagnostics, without throwing.
+     * The readers no longer call it; it is kept only for compatibility with code that used this public method.
      *
      * @param str The string to be converted.
      * @return The integer value of the string, or 0 if the conversion fails.
      */
     public int stringToInt(String str) {
-        int value = 0;
+        long value = IntParser.parse(str);
 
-        try {
-            value =  Integer.parseInt(str);
-        }
-        catch (NumberFormatException nfe){
-            System.out.println("Error converting String (" + str + ") to Integer: " + nfe.getMessage());
+        if (!IntParser.isValid(value)) {
+            diagnostics.report("input", -1, "value", "not an integer", str);
+            return 0;
         }
 
-        return value;
+        return (int) value;
     }
 }
@@ -1,29 +1,16 @@
 /**
  * Represents a candidate in an election, containing relevant information such as candidate number, party affiliation,
- * birthdate, gender, and election results.
+ * birthdate, gender, and election results. A Candidate is a lightweight view over a row of a CandidateTable,
+ * where its attributes are actually stored.
  */
 
 package Election.Domain;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Locale;
 
 public class Candidate implements Comparable<Candidate> {
-    private int officeOption;
-    private int candidateNumber;
-    private String ballotName;
-    private int partyNumber;
-    private String partyAcronym;
-    private int federationNumber;
-    private LocalDate birthDate;
-    private int gender;
-    private int turnStatus;
-    private String voteDestinationType;
-    private int candidacyCondition;
-    private int nominalVotes;
-    private int age;
+    private CandidateTable table;
+    private int row;
 
     /**
      * Constructor for the Candidate class.
@@ -34,7 +21,7 @@ public class Candidate implements Comparable<Candidate> {
      * @param partyNumber      The number of the party the candidate belongs to.
      * @param partyAcronym     The acronym of the party the candidate belongs to.
      * @param federationNumber The federation number of the candidate (-1 if isolated party).
-     * @param birthDate        The birth date of the candidate.
+     * @param birthDate        The birth date of the candidate, in the dd/MM/yyyy format.
      * @param gender           The gender of the candidate (2 for male, 4 for female).
      * @param status           The turn status of the candidate (2 or 3 for elected).
      * @param voteDestination  The type of vote destination for the candidate.
@@ -42,33 +29,63 @@ public class Candidate implements Comparable<Candidate> {
      * @param electionDate     The date of the election.
      */
     public Candidate(int office, int number, String ballotName, int partyNumber, String partyAcronym, int federationNumber, String birthDate,  int gender, int status, String voteDestination, int condition, LocalDate electionDate) {
+        this(office, number, ballotName, partyNumber, partyAcronym, federationNumber, PackedDate.parse(birthDate), 
+             gender, status, voteDestination, condition, PackedDate.of(electionDate));
+    }
 
-        this.officeOption = office;
-        this.candidateNumber = number;
-        this.ballotName = ballotName;
-        this.partyNumber = partyNumber;
-        this.partyAcronym = partyAcronym;
-        this.federationNumber = federationNumber;
-
-        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.forLanguageTag("pt-BR"));
-
-        try {
-            if (birthDate != null && !birthDate.isEmpty()) {
-                this.birthDate = LocalDate.parse(birthDate, dateFormat);
-                this.age = calculateAge(this.birthDate, electionDate);
-            } else {
-                System.out.println("Birth date is empty or null. Candidate: " + this.ballotName + " (" + this.candidateNumber + ")");
-            }
-        } catch (DateTimeParseException e) {
-            System.out.println("Date parse exception error: " + e.getMessage());
-        }
+    /**
+     * Constructor for the Candidate class, with an already parsed birth date.
+     *
+     * @param office           The office option (6 for federal, 7 for state).
+     * @param number           The candidate number.
+     * @param ballotName       The candidate's ballot name.
+     * @param partyNumber      The number of the party the candidate belongs to.
+     * @param partyAcronym     The acronym of the party the candidate belongs to.
+     * @param federationNumber The federation number of the candidate (-1 if isolated party).
+     * @param birthDate        The birth date of the candidate (null if unknown).
+     * @param gender           The gender of the candidate (2 for male, 4 for female).
+     * @param status           The turn status of the candidate (2 or 3 for elected).
+     * @param voteDestination  The type of vote destination for the candidate.
+     * @param condition        The candidacy condition of the candidate (2 or 16 for accepted candidacy).
+     * @param electionDate     The date of the election.
+     */
+    public Candidate(int office, int number, String ballotName, int partyNumber, String partyAcronym, int federationNumber, LocalDate birthDate,  int gender, int status, String voteDestination, int condition, LocalDate electionDate) {
+        this(office, number, ballotName, partyNumber, partyAcronym, federationNumber, PackedDate.of(birthDate), 
+             gender, status, voteDestination, condition, PackedDate.of(electionDate));
+    }
 
+    /**
+     * Constructor for a standalone Candidate, stored in a table of its own, with dates packed as yyyyMMdd (see PackedDate).
+     * Candidates of an election should be added to its CandidateTable instead.
+     *
+     * @param office           The office option (6 for federal, 7 for state).
+     * @param number           The candidate number.
+     * @param ballotName       The candidate's ballot name.
+     * @param partyNumber      The number of the party the candidate belongs to.
+     * @param partyAcronym     The acronym of the party the candidate belongs to.
+     * @param federationNumber The federation number of the candidate (-1 if isolated party).
+     * @param birthDate        The packed birth date of the candidate (PackedDate.NONE or PackedDate.INVALID if unknown).
+     * @param gender           The gender of the candidate (2 for male, 4 for female).
+     * @param status           The turn status of the candidate (2 or 3 for elected).
+     * @param voteDestination  The type of vote destination for the candidate.
+     * @param condition        The candidacy condition of the candidate (2 or 16 for accepted candidacy).
+     * @param electionDate     The packed date of the election.
+     */
+    public Candidate(int office, int number, String ballotName, int partyNumber, String partyAcronym, int federationNumber, int birthDate,  int gender, int status, String voteDestination, int condition, int electionDate) {
+        this.table = new CandidateTable(1);
+        this.row = table.addRow(office, number, ballotName, partyNumber, partyAcronym, federationNumber, birthDate, 
+                                gender, status, voteDestination, condition, electionDate);
+    }
 
-        this.gender = gender;
-        this.turnStatus = status;
-        this.voteDestinationType = voteDestination;
-        this.candidacyCondition = condition;
-        this.nominalVotes = 0;
+    /**
+     * Constructor for a view over a row of a CandidateTable.
+     *
+     * @param table The table where the candidate is stored.
+     * @param row   The row of the candidate.
+     */
+    Candidate(CandidateTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     /**
@@ -79,22 +96,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The age of the candidate.
      */
     public int calculateAge(LocalDate birthDate, LocalDate electionDate) {
-        int birthYear = birthDate.getYear();
-        int electionYear = electionDate.getYear();
-    
-        int age = electionYear - birthYear;
-    
-        int birthMonth = birthDate.getMonthValue();
-        int electionMonth = electionDate.getMonthValue();
-    
-        int birthDay = birthDate.getDayOfMonth();
-        int electionDay = electionDate.getDayOfMonth();
-    
-        if (electionMonth < birthMonth || (electionMonth == birthMonth && electionDay < birthDay)) {
-            age -= 1;
-        }
-    
-        return age;
+        return PackedDate.age(PackedDate.of(birthDate), PackedDate.of(electionDate));
     }
     
     /**
@@ -103,7 +105,7 @@ public class Candidate implements Comparable<Candidate> {
      * @param votes The number of votes to be added.
      */
     public void addVotes(int votes) {
-        this.nominalVotes += votes;
+        table.addVotes(row, votes);
     }
 
     /**
@@ -112,7 +114,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The office option (6 for federal, 7 for state).
      */
     public int getOfficeOption() {
-        return officeOption;
+        return table.getOfficeOption(row);
     }
 
     /**
@@ -121,7 +123,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The candidate number.
      */
     public int getCandidateNumber() {
-        return candidateNumber;
+        return table.getCandidateNumber(row);
     }
 
     /**
@@ -130,7 +132,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The candidate's ballot name.
      */
     public String getBallotName() {
-        return ballotName;
+        return table.getBallotName(row);
     }
 
     /**
@@ -139,7 +141,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The party number.
      */
     public int getPartyNumber() {
-        return partyNumber;
+        return table.getPartyNumber(row);
     }
 
     /**
@@ -148,7 +150,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The party acronym.
      */
     public String getPartyAcronym() {
-        return partyAcronym;
+        return table.getPartyAcronym(row);
     }
 
     /**
@@ -157,16 +159,25 @@ public class Candidate implements Comparable<Candidate> {
      * @return The federation number (-1 if isolated party).
      */
     public int getFederationNumber() {
-        return federationNumber;
+        return table.getFederationNumber(row);
     }
     
     /**
      * Gets the birth date of the candidate.
      *
-     * @return The birth date.
+     * @return The birth date, or null if it is unknown.
      */
     public LocalDate getBirthDate() {
-        return birthDate;
+        return PackedDate.toLocalDate(table.getBirthDate(row));
+    }
+
+    /**
+     * Gets the birth date of the candidate packed as yyyyMMdd.
+     *
+     * @return The packed birth date, or PackedDate.NONE if it is unknown.
+     */
+    public int getPackedBirthDate() {
+        return table.getBirthDate(row);
     }
 
     /**
@@ -175,7 +186,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The gender (2 for male, 4 for female).
      */
     public int getGender() {
-        return gender;
+        return table.getGender(row);
     }
 
     /**
@@ -184,7 +195,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The turn status (2 or 3 for elected).
      */
     public int getTurnStatus() {
-        return turnStatus;
+        return table.getTurnStatus(row);
     }
 
     /**
@@ -193,7 +204,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The vote destination type.
      */
     public String getVoteDestinationType() {
-        return voteDestinationType;
+        return table.getVoteDestinationType(row);
     }
 
     /**
@@ -202,7 +213,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The candidacy condition (2 or 16 for accepted candidacy).
      */
     public int getCandidacyCondition() {
-        return candidacyCondition;
+        return table.getCandidacyCondition(row);
     }
 
     /**
@@ -211,7 +222,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The total number of nominal votes.
      */
     public int getNominalVotes() {
-        return nominalVotes;
+        return table.getNominalVotes(row);
     }
 
     /**
@@ -220,7 +231,7 @@ public class Candidate implements Comparable<Candidate> {
      * @return The age of the candidate.
      */
     public int getAge() {
-        return age;
+        return table.getAge(row);
     }
 
     /**
@@ -229,6 +240,8 @@ public class Candidate implements Comparable<Candidate> {
      * @return True if the candidate is elected, false otherwise.
      */
     public boolean isElected() {
+        int turnStatus = getTurnStatus();
+
         if (turnStatus == 2 || turnStatus == 3) {
             return true;
         }
@@ -241,10 +254,10 @@ public class Candidate implements Comparable<Candidate> {
      * @return The modified candidate name.
      */
     public String changeName() {
-        if (this.federationNumber != -1) {
-            return "*" + this.ballotName;
+        if (getFederationNumber() != -1) {
+            return "*" + getBallotName();
         }
-        else return this.ballotName;
+        else return getBallotName();
     }
 
     /**
@@ -256,11 +269,11 @@ public class Candidate implements Comparable<Candidate> {
      */
     @Override
     public int compareTo(Candidate o) {
-        int voteResult = Integer.compare(o.nominalVotes, this.nominalVotes);
+        int voteResult = Integer.compare(o.getNominalVotes(), this.getNominalVotes());
 
         if (voteResult != 0) return voteResult;
 
-        int ageResult = Integer.compare(o.age, this.age);
+        int ageResult = Integer.compare(o.getAge(), this.getAge());
         return ageResult;
     }
 }
@@ -0,0 +1,313 @@
+/**
+ * Columnar storage for the candidates of an election. Every attribute is kept in its own int array,
+ * indexed by the row of the candidate. Party acronyms and vote destination types are stored as dictionary codes,
+ * and ballot names are stored together in a single Latin-1 byte arena. Candidate objects are lightweight views over a row.
+ */
+
+package Election.Domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class CandidateTable {
+    private int size;
+
+    private int[] officeOptions;
+    private int[] numbers;
+    private int[] partyNumbers;
+    private int[] partyAcronyms;
+    private int[] federationNumbers;
+    private int[] birthDates;
+    private int[] genders;
+    private int[] turnStatuses;
+    private int[] voteDestinations;
+    private int[] candidacyConditions;
+    private int[] nominalVotes;
+    private int[] ages;
+
+    private byte[] names;
+    private int[] nameOffsets; // the name of row i goes from nameOffsets[i] to nameOffsets[i + 1]
+
+    private StringDictionary acronymDictionary;
+    private StringDictionary destinationDictionary;
+
+    /**
+     * Constructor for the CandidateTable class.
+     *
+     * @param capacity The expected number of candidates; the table grows as needed.
+     */
+    public CandidateTable(int capacity) {
+        this(capacity, new StringDictionary());
+    }
+
+    /**
+     * Constructor for a CandidateTable whose party acronyms are encoded by a given dictionary,
+     * which may be shared with other tables.
+     *
+     * @param capacity           The expected number of candidates; the table grows as needed.
+     * @param acronymDictionary  The dictionary of party acronyms.
+     */
+    public CandidateTable(int capacity, StringDictionary acronymDictionary) {
+        int n = Math.max(1, capacity);
+
+        this.officeOptions = new int[n];
+        this.numbers = new int[n];
+        this.partyNumbers = new int[n];
+        this.partyAcronyms = new int[n];
+        this.federationNumbers = new int[n];
+        this.birthDates = new int[n];
+        this.genders = new int[n];
+        this.turnStatuses = new int[n];
+        this.voteDestinations = new int[n];
+        this.candidacyConditions = new int[n];
+        this.nominalVotes = new int[n];
+        this.ages = new int[n];
+
+        this.names = new byte[n * 16];
+        this.nameOffsets = new int[n + 1];
+
+        this.acronymDictionary = acronymDictionary;
+        this.destinationDictionary = new StringDictionary();
+    }
+
+    /**
+     * Adds a candidate to the table.
+     *
+     * @param office           The office option (6 for federal, 7 for state).
+     * @param number           The candidate number.
+     * @param ballotName       The candidate's ballot name.
+     * @param partyNumber      The number of the party the candidate belongs to.
+     * @param partyAcronym     The acronym of the party the candidate belongs to.
+     * @param federationNumber The federation number of the candidate (-1 if isolated party).
+     * @param birthDate        The packed birth date of the candidate (PackedDate.NONE or PackedDate.INVALID if unknown).
+     * @param gender           The gender of the candidate (2 for male, 4 for female).
+     * @param status           The turn status of the candidate (2 or 3 for elected).
+     * @param voteDestination  The type of vote destination for the candidate.
+     * @param condition        The candidacy condition of the candidate (2 or 16 for accepted candidacy).
+     * @param electionDate     The packed date of the election.
+     * @return The view of the new candidate.
+     */
+    public Candidate add(int office, int number, String ballotName, int partyNumber, String partyAcronym, int federationNumber, int birthDate, int gender, int status, String voteDestination, int condition, int electionDate) {
+        int row = addRow(office, number, ballotName, partyNumber, partyAcronym, federationNumber, birthDate, gender, status, voteDestination, condition, electionDate);
+        return new Candidate(this, row);
+    }
+
+    /**
+     * Adds a candidate to the table, with the same parameters as add().
+     *
+     * @return The row of the new candidate.
+     */
+    int addRow(int office, int number, String ballotName, int partyNumber, String partyAcronym, int federationNumber, int birthDate, int gender, int status, String voteDestination, int condition, int electionDate) {
+        if (size == numbers.length) grow();
+
+        int row = size++;
+        boolean knownBirthDate = PackedDate.isValid(birthDate);
+
+        officeOptions[row] = office;
+        numbers[row] = number;
+        partyNumbers[row] = partyNumber;
+        partyAcronyms[row] = acronymDictionary.encode(partyAcronym);
+        federationNumbers[row] = federationNumber;
+        birthDates[row] = knownBirthDate ? birthDate : PackedDate.NONE;
+        genders[row] = gender;
+        turnStatuses[row] = status;
+        voteDestinations[row] = destinationDictionary.encode(voteDestination);
+        candidacyConditions[row] = condition;
+        nominalVotes[row] = 0;
+        ages[row] = knownBirthDate ? PackedDate.age(birthDate, electionDate) : 0;
+
+        appendName(row, ballotName);
+
+        return row;
+    }
+
+    /**
+     * Stores a ballot name at the end of the name arena, in Latin-1 (characters outside it become '?').
+     */
+    private void appendName(int row, String name) {
+        int start = nameOffsets[row];
+        int length = name.length();
+
+        if (start + length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, start + length));
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            names[start + i] = (byte) (c <= 0xFF ? c : '?');
+        }
+
+        nameOffsets[row + 1] = start + length;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int n = numbers.length * 2;
+
+        officeOptions = Arrays.copyOf(officeOptions, n);
+        numbers = Arrays.copyOf(numbers, n);
+        partyNumbers = Arrays.copyOf(partyNumbers, n);
+        partyAcronyms = Arrays.copyOf(partyAcronyms, n);
+        federationNumbers = Arrays.copyOf(federationNumbers, n);
+        birthDates = Arrays.copyOf(birthDates, n);
+        genders = Arrays.copyOf(genders, n);
+        turnStatuses = Arrays.copyOf(turnStatuses, n);
+        voteDestinations = Arrays.copyOf(voteDestinations, n);
+        candidacyConditions = Arrays.copyOf(candidacyConditions, n);
+        nominalVotes = Arrays.copyOf(nominalVotes, n);
+        ages = Arrays.copyOf(ages, n);
+        nameOffsets = Arrays.copyOf(nameOffsets, n + 1);
+    }
+
+    /**
+     * Gets the number of candidates in the table.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds votes to the nominal votes of a candidate.
+     *
+     * @param row   The row of the candidate.
+     * @param votes The number of votes to be added.
+     */
+    public void addVotes(int row, int votes) {
+        nominalVotes[row] += votes;
+    }
+
+    /**
+     * Gets the office option of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The office option (6 for federal, 7 for state).
+     */
+    public int getOfficeOption(int row) {
+        return officeOptions[row];
+    }
+
+    /**
+     * Gets the number of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The candidate number.
+     */
+    public int getCandidateNumber(int row) {
+        return numbers[row];
+    }
+
+    /**
+     * Gets the ballot name of a candidate, decoded from the name arena.
+     *
+     * @param row The row of the candidate.
+     * @return The ballot name.
+     */
+    public String getBallotName(int row) {
+        int start = nameOffsets[row];
+        return new String(names, start, nameOffsets[row + 1] - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Gets the party number of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The party number.
+     */
+    public int getPartyNumber(int row) {
+        return partyNumbers[row];
+    }
+
+    /**
+     * Gets the party acronym of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The party acronym.
+     */
+    public String getPartyAcronym(int row) {
+        return acronymDictionary.decode(partyAcronyms[row]);
+    }
+
+    /**
+     * Gets the federation number of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The federation number (-1 if isolated party).
+     */
+    public int getFederationNumber(int row) {
+        return federationNumbers[row];
+    }
+
+    /**
+     * Gets the packed birth date of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The birth date packed as yyyyMMdd, or PackedDate.NONE if it is unknown.
+     */
+    public int getBirthDate(int row) {
+        return birthDates[row];
+    }
+
+    /**
+     * Gets the gender of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The gender (2 for male, 4 for female).
+     */
+    public int getGender(int row) {
+        return genders[row];
+    }
+
+    /**
+     * Gets the turn status of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The turn status (2 or 3 for elected).
+     */
+    public int getTurnStatus(int row) {
+        return turnStatuses[row];
+    }
+
+    /**
+     * Gets the vote destination type of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The vote destination type.
+     */
+    public String getVoteDestinationType(int row) {
+        return destinationDictionary.decode(voteDestinations[row]);
+    }
+
+    /**
+     * Gets the candidacy condition of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The candidacy condition (2 or 16 for accepted candidacy).
+     */
+    public int getCandidacyCondition(int row) {
+        return candidacyConditions[row];
+    }
+
+    /**
+     * Gets the nominal votes of a candidate.
+     *
+     * @param row The row of the candidate.
+     * @return The number of nominal votes.
+     */
+    public int getNominalVotes(int row) {
+        return nominalVotes[row];
+    }
+
+    /**
+     * Gets the age of a candidate at the date of the election.
+     *
+     * @param row The row of the candidate.
+     * @return The age, or 0 if the birth date is unknown.
+     */
+    public int getAge(int row) {
+        return ages[row];
+    }
+}
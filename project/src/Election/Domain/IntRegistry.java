@@ -0,0 +1,139 @@
+/**
+ * Registry of objects keyed by a primitive int, such as candidates by candidate number or parties by party number.
+ * Keys are given dense indexes by a KeyIndex, so lookups neither box the key nor follow hash chain nodes, and the
+ * objects are kept in an array at the index of their key. Values are iterated in the order they were added.
+ *
+ * @param <V> The type of the registered objects.
+ */
+
+package Election.Domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+public class IntRegistry<V> {
+    private KeyIndex keys;
+    private Object[] values; // at the index of their key
+    private int size;
+
+    /**
+     * Constructor for the IntRegistry class.
+     */
+    public IntRegistry() {
+        this(16);
+    }
+
+    /**
+     * Constructor for an IntRegistry sized for an expected number of entries.
+     *
+     * @param expectedSize The number of entries expected to be added.
+     */
+    public IntRegistry(int expectedSize) {
+        this.keys = new KeyIndex(expectedSize);
+        this.values = new Object[Math.max(4, expectedSize)];
+        this.size = 0;
+    }
+
+    /**
+     * Adds an object to the registry if its key is not registered yet.
+     *
+     * @param key   The key.
+     * @param value The object to be added.
+     * @return True if the object was added, false if the key was already registered.
+     */
+    public boolean add(int key, V value) {
+        int index = keys.add(key);
+        if (index < size) return false;
+
+        if (index == values.length) {
+            values = Arrays.copyOf(values, index * 2);
+        }
+
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Gets the object registered under a key.
+     *
+     * @param key The key.
+     * @return The registered object, or null if the key is not registered.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = keys.indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Checks if a key is registered.
+     *
+     * @param key The key.
+     * @return True if the key is registered, false otherwise.
+     */
+    public boolean containsKey(int key) {
+        return keys.indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the position in which a key was added to the registry.
+     *
+     * @param key The key.
+     * @return The insertion index of the key, or -1 if it is not registered.
+     */
+    public int indexOf(int key) {
+        return keys.indexOf(key);
+    }
+
+    /**
+     * Gets the number of registered objects.
+     *
+     * @return The number of registered objects.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the key added in a given position.
+     *
+     * @param index The insertion index, between 0 and size() - 1.
+     * @return The key.
+     */
+    public int keyAt(int index) {
+        return (int) keys.keyAt(index);
+    }
+
+    /**
+     * Gets the object added in a given position.
+     *
+     * @param index The insertion index, between 0 and size() - 1.
+     * @return The registered object.
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * Gets a read-only view of the registered objects, in insertion order.
+     *
+     * @return A list backed by the registry.
+     */
+    public List<V> values() {
+        return new AbstractList<V>() {
+            @Override
+            public V get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                return valueAt(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
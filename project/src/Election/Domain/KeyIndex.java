@@ -0,0 +1,120 @@
+/**
+ * Gives dense indexes, in the order they were first seen, to primitive keys such as candidate numbers, votable
+ * numbers or (municipality, zone) pairs, so that the values of each key can be kept in plain arrays at its index.
+ * Keys are kept in an open-addressing table of ints, so lookups neither box the key nor follow hash chain nodes.
+ * IntRegistry, VoteTally and VoteCube are built on it. Int keys are widened to long.
+ */
+
+package Election.Domain;
+
+import java.util.Arrays;
+
+public class KeyIndex {
+    private static final int EMPTY = -1;
+
+    private long[] keys; // in the order they were added
+    private int size;
+    private int[] table; // open addressing: index of the key, or EMPTY
+    private int mask;
+
+    /**
+     * Constructor for the KeyIndex class.
+     */
+    public KeyIndex() {
+        this(64);
+    }
+
+    /**
+     * Constructor for a KeyIndex sized for an expected number of keys.
+     *
+     * @param expectedSize The number of keys expected to be added.
+     */
+    public KeyIndex(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+
+        this.keys = new long[capacity];
+        this.size = 0;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Gets the index of a key, adding it if it is new. A new key gets the index size() had before the call.
+     *
+     * @param key The key.
+     * @return The index of the key, between 0 and size() - 1.
+     */
+    public int add(long key) {
+        int slot = slot(key);
+        if (table[slot] != EMPTY) return table[slot];
+
+        if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+
+        int index = size++;
+        keys[index] = key;
+        table[slot] = index;
+
+        if (size * 2 > table.length) rehash();
+        return index;
+    }
+
+    /**
+     * Gets the index of a key.
+     *
+     * @param key The key.
+     * @return The index of the key, or -1 if it was not added.
+     */
+    public int indexOf(long key) {
+        return table[slot(key)];
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return The number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the key at an index.
+     *
+     * @param index The index, between 0 and size() - 1.
+     * @return The key.
+     */
+    public long keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Finds the slot of the table holding a key, or the empty slot where it should be inserted.
+     *
+     * @param key The key.
+     * @return The slot index.
+     */
+    private int slot(long key) {
+        int slot = ((int) (key ^ key >>> 32) * 0x9E3779B9) >>> 7 & mask; // int keys hash as they did in IntRegistry
+
+        while (table[slot] != EMPTY && keys[table[slot]] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Doubles the table, keeping it at most half full.
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        Arrays.fill(table, EMPTY);
+
+        for (int i = 0; i < size; i++) {
+            table[slot(keys[i])] = i;
+        }
+    }
+}
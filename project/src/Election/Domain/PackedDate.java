@@ -0,0 +1,125 @@
+/**
+ * Dates packed into a single int as yyyyMMdd (2022-10-02 is 20221002), so that they can be parsed from fixed-width
+ * dd/MM/yyyy text without allocating, compared as plain ints and subtracted to compute ages.
+ */
+
+package Election.Domain;
+
+import java.time.LocalDate;
+
+public final class PackedDate {
+    public static final int NONE = 0;     // no date in the input
+    public static final int INVALID = -1; // a date that cannot be parsed
+
+    private static final int[] DAYS_IN_MONTH = { 0, 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    private PackedDate() {
+    }
+
+    /**
+     * Packs a date, validating it like LocalDate.parse with the dd/MM/yyyy pattern: a day past the end of its month
+     * (such as 31/04) is moved to the last day of the month, while a day above 31 or a month above 12 is invalid.
+     *
+     * @param year  The year, from 1 to 9999.
+     * @param month The month, from 1 to 12.
+     * @param day   The day of the month, from 1 to 31.
+     * @return The packed date, or INVALID if it is not a valid date.
+     */
+    public static int of(int year, int month, int day) {
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || day < 1 || day > 31) return INVALID;
+
+        int lastDay = DAYS_IN_MONTH[month];
+        if (month == 2 && !isLeapYear(year)) lastDay = 28;
+
+        return year * 10000 + month * 100 + Math.min(day, lastDay);
+    }
+
+    /**
+     * Packs a LocalDate.
+     *
+     * @param date The date, or null.
+     * @return The packed date, or NONE if the date is null.
+     */
+    public static int of(LocalDate date) {
+        if (date == null) return NONE;
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Parses a date in the fixed-width dd/MM/yyyy format.
+     *
+     * @param text The text to be parsed.
+     * @return The packed date, NONE if the text is null or empty, or INVALID if it is not a valid date.
+     */
+    public static int parse(CharSequence text) {
+        if (text == null || text.length() == 0) return NONE;
+        if (text.length() != 10 || text.charAt(2) != '/' || text.charAt(5) != '/') return INVALID;
+
+        int day = digits(text, 0, 2);
+        int month = digits(text, 3, 5);
+        int year = digits(text, 6, 10);
+        if (day < 0 || month < 0 || year < 0) return INVALID;
+
+        return of(year, month, day);
+    }
+
+    /**
+     * Reads the decimal digits of a range of a text.
+     *
+     * @return The value of the digits, or -1 if there is a character that is not a digit.
+     */
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Checks if a packed date holds an actual date.
+     *
+     * @param date The packed date.
+     * @return True if it is neither NONE nor INVALID.
+     */
+    public static boolean isValid(int date) {
+        return date > 0;
+    }
+
+    /**
+     * Checks if a year is a leap year in the ISO calendar.
+     *
+     * @param year The year.
+     * @return True if it is a leap year.
+     */
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Computes the age of someone on a date, in complete years. Since a packed date grows with its year
+     * in steps of 10000, the age is the number of whole steps between the two dates.
+     *
+     * @param birthDate The packed birth date.
+     * @param date      The packed date when the age is computed.
+     * @return The age, negative if the date is before the birth date.
+     */
+    public static int age(int birthDate, int date) {
+        return Math.floorDiv(date - birthDate, 10000);
+    }
+
+    /**
+     * Unpacks a date.
+     *
+     * @param date The packed date.
+     * @return The LocalDate, or null if the packed date is NONE or INVALID.
+     */
+    public static LocalDate toLocalDate(int date) {
+        if (!isValid(date)) return null;
+        return LocalDate.of(date / 10000, date / 100 % 100, date % 100);
+    }
+}
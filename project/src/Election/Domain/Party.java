@@ -4,9 +4,7 @@
 
 package Election.Domain;
 
-import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.Map;
 
 public class Party implements Comparable<Party> {
     private int partyNumber;
@@ -17,8 +15,12 @@ public class Party implements Comparable<Party> {
     private int nominalVotes; 
     private int totalVotes; //listVotes + nominalVotes
 
-    private Map<Integer, Candidate> candidates;
-    private Map<Integer, Candidate> dismissedCandidates;
+    private IntRegistry<Candidate> candidates;
+    private IntRegistry<Candidate> dismissedCandidates;
+    private Candidate mostVoted;    // first candidate in Candidate.compareTo order, earliest added on ties
+    private Candidate leastVoted;   // last candidate in Candidate.compareTo order, latest added on ties
+    private boolean mostVotedStale;
+    private boolean leastVotedStale;
 
     /**
      * Constructor for the Party class.
@@ -28,8 +30,8 @@ public class Party implements Comparable<Party> {
      * @param name     The name of the party.
      */
     public Party(int number, String acronym, String name) {
-        this.candidates = new HashMap<Integer, Candidate>();
-        this.dismissedCandidates = new HashMap<Integer, Candidate>();
+        this.candidates = new IntRegistry<Candidate>();
+        this.dismissedCandidates = new IntRegistry<Candidate>(4);
         this.partyNumber = number;
         this.partyAcronym = acronym;
         this.partyName = name;
@@ -46,9 +48,11 @@ public class Party implements Comparable<Party> {
      * @param c               The Candidate object to be added.
      */
     public void addCandidate(int candidateNumber, Candidate c) {
-        if (candidates.containsKey(candidateNumber) == false) {
-            candidates.put(candidateNumber, c);
+        if (candidates.add(candidateNumber, c)) {
             numberOfCandidates+=1;
+
+            if (mostVoted == null || ranksBefore(c, mostVoted)) mostVoted = c;
+            if (leastVoted == null || !ranksBefore(c, leastVoted)) leastVoted = c;
         }
     }
 
@@ -59,9 +63,7 @@ public class Party implements Comparable<Party> {
      * @param c               The Candidate object to be added.
      */
     public void addDismissedCandidate(int candidateNumber, Candidate c) {
-        if (dismissedCandidates.containsKey(candidateNumber) == false) {
-            dismissedCandidates.put(candidateNumber, c);
-        }
+        dismissedCandidates.add(candidateNumber, c);
     }
 
     /**
@@ -90,9 +92,91 @@ public class Party implements Comparable<Party> {
      * @param candidateNumber The candidate number.
      */
     public void addCandidateVotes(int votes, int candidateNumber) {
-        Candidate c = candidates.get(candidateNumber);
+        addCandidateVotes(candidates.get(candidateNumber), votes);
+    }
+
+    /**
+     * Adds votes to a candidate of the party, already looked up, such as by the vote routing table of the election.
+     *
+     * @param c     The Candidate, which must be one of the party's candidates.
+     * @param votes The number of votes to be added.
+     */
+    public void addCandidateVotes(Candidate c, int votes) {
         c.addVotes(votes);
         this.nominalVotes += votes;
+
+        // votes only move c up (or down, for negative corrections), so only one end can need a full rescan
+        if (votes > 0) {
+            if (!mostVotedStale && ranksBefore(c, mostVoted)) mostVoted = c;
+            if (c == leastVoted) leastVotedStale = true;
+        }
+        else if (votes < 0) {
+            if (!leastVotedStale && !ranksBefore(c, leastVoted)) leastVoted = c;
+            if (c == mostVoted) mostVotedStale = true;
+        }
+    }
+
+    /**
+     * Checks if a candidate of the party comes before another one when sorted by Candidate.compareTo,
+     * breaking ties by the order in which they were added to the party.
+     *
+     * @param a The first candidate.
+     * @param b The second candidate.
+     * @return True if a comes before b, false otherwise.
+     */
+    private boolean ranksBefore(Candidate a, Candidate b) {
+        int result = a.compareTo(b);
+        if (result != 0) return result < 0;
+
+        return candidates.indexOf(a.getCandidateNumber()) < candidates.indexOf(b.getCandidateNumber());
+    }
+
+    /**
+     * Finds the first or the last candidate of the party by scanning all of them.
+     *
+     * @param first True to find the first candidate, false to find the last one.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    private Candidate scanCandidates(boolean first) {
+        Candidate found = null;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate c = candidates.valueAt(i);
+
+            if (found == null || (first ? ranksBefore(c, found) : !ranksBefore(c, found))) {
+                found = c;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Gets the most voted candidate of the party, with the same tie-breaks as sorting its candidates.
+     *
+     * @return The first candidate of the party, or null if it has no candidates.
+     */
+    public Candidate getMostVotedCandidate() {
+        if (mostVotedStale) {
+            mostVoted = scanCandidates(true);
+            mostVotedStale = false;
+        }
+
+        return mostVoted;
+    }
+
+    /**
+     * Gets the least voted candidate of the party, with the same tie-breaks as sorting its candidates.
+     *
+     * @return The last candidate of the party, or null if it has no candidates.
+     */
+    public Candidate getLeastVotedCandidate() {
+        if (leastVotedStale) {
+            leastVoted = scanCandidates(false);
+            leastVotedStale = false;
+        }
+
+        return leastVoted;
     }
     
     /**
@@ -104,6 +188,15 @@ public class Party implements Comparable<Party> {
         return new LinkedList<Candidate>(this.candidates.values()); // Linked List makes it easier to sort by vote afterwards
     }
 
+    /**
+     * Gets a linked list of all dismissed candidates of the party, whose votes count as list votes.
+     *
+     * @return A linked list of Candidate objects.
+     */
+    public LinkedList<Candidate> getDismissedCandidates() {
+        return new LinkedList<Candidate>(this.dismissedCandidates.values());
+    }
+
     /**
      * Gets the party number.
      *
@@ -0,0 +1,89 @@
+/**
+ * Dictionary that encodes repeated Strings, such as party acronyms, as small int codes.
+ * Each distinct String is stored once, and codes are given in order of first appearance, starting at 0.
+ * A dictionary can be shared by elections loaded in parallel: encoding takes a lock, while decoding, which the
+ * reports do for every row, reads the values without one. A value is stored before the size that publishes it, and
+ * is never changed; a full array is copied to a larger one, so a reader sees every value below the size it read.
+ */
+
+package Election.Domain;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class StringDictionary {
+    private HashMap<String, Integer> codes;  // guarded by this
+    private volatile String[] values;
+    private volatile int size;               // written after values[size - 1], which it publishes
+
+    /**
+     * Constructor for the StringDictionary class.
+     */
+    public StringDictionary() {
+        this.codes = new HashMap<String, Integer>();
+        this.values = new String[16];
+    }
+
+    /**
+     * Gets the code of a String, adding it to the dictionary if it is new.
+     *
+     * @param value The String to be encoded.
+     * @return The code of the String.
+     */
+    public synchronized int encode(String value) {
+        Integer code = codes.get(value);
+
+        if (code == null) {
+            code = size;
+
+            String[] current = values;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, code * 2);
+                current[code] = value;
+                values = current;
+            }
+            else {
+                current[code] = value; // beyond size, so no reader looks at it yet
+            }
+
+            codes.put(value, code);
+            size = code + 1;
+        }
+
+        return code;
+    }
+
+    /**
+     * Gets the stored copy of a String, adding it to the dictionary if it is new, so that equal Strings
+     * read from different files share a single instance.
+     *
+     * @param value The String.
+     * @return The String stored in the dictionary, equal to value.
+     */
+    public synchronized String intern(String value) {
+        int code = encode(value); // before reading values, which encode() may replace
+        return values[code];
+    }
+
+    /**
+     * Gets the String of a code, without locking.
+     *
+     * @param code The code, as returned by encode().
+     * @return The String.
+     * @throws IndexOutOfBoundsException if no String has the code.
+     */
+    public String decode(int code) {
+        if (code < 0 || code >= size) throw new IndexOutOfBoundsException("No String with code " + code);
+
+        return values[code];
+    }
+
+    /**
+     * Gets the number of distinct Strings in the dictionary, without locking.
+     *
+     * @return The number of Strings.
+     */
+    public int size() {
+        return size;
+    }
+}
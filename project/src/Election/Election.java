@@ -1,25 +1,46 @@
 /**
  * Represents an Election with candidates, parties, and associated results.
+ * Once frozen, an election can no longer change, so any number of ElectionScenario overlays can read it concurrently.
  */
 
 package Election;
 
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.Map;
 import Election.Domain.Candidate;
+import Election.Domain.CandidateTable;
+import Election.Domain.IntRegistry;
 import Election.Domain.Party;
+import Election.Domain.StringDictionary;
+import Election.Geo.VoteCube;
 
-public class Election {
-    private Map<Integer, Candidate> candidates;
-    private Map<Integer, Party> parties;
+public class Election implements VoteView {
+    public static final int IGNORED_VOTE = 0; // destinations of the votes of a number, see getVoteDestination()
+    public static final int LIST_VOTE = 1;
+    public static final int NOMINAL_VOTE = 2;
+
+    private static final int ROUTE_IGNORE = IGNORED_VOTE;
+    private static final int ROUTE_LIST = LIST_VOTE;
+    private static final int ROUTE_NOMINAL = NOMINAL_VOTE;
+    private static final int ROUTE_SHIFT = 2;
+    private static final int ROUTE_MASK = (1 << ROUTE_SHIFT) - 1;
+    private static final int MAX_ROUTED_NUMBER = (1 << 22) - 1; // larger numbers are routed without the table
+
+    private StringDictionary partyDictionary;
+    private CandidateTable candidateTable;
+    private IntRegistry<Candidate> candidates;
+    private IntRegistry<Party> parties;
     private LocalDate electionDate;
     private String officeOption;
     private int seats; // == number of electeds
     private int listVotes;
     private int nominalVotes;
     private int totalVotes;
+    private int invalidBirthDates;
+    private int[] routes; // vote routing table, see compileVoteRoutes()
+    private int[] candidateParties; // parties registry index of each candidate, indexed like candidates
+    private VoteCube voteCube; // votes per municipality and zone, if they were counted
+    private boolean frozen;
     
     /**
      * Constructs an Election object with the specified election date and office option.
@@ -28,13 +49,46 @@ public class Election {
      * @param officeOption The office option for the election.
      */
     public Election(LocalDate electionDate, String officeOption) {
-        this.candidates = new HashMap<Integer, Candidate>();
-        this.parties = new HashMap<Integer, Party>();
+        this(electionDate, officeOption, new StringDictionary());
+    }
+
+    /**
+     * Constructs an Election object whose party acronyms and names are kept in a dictionary,
+     * which may be shared with other elections so that their equal Strings are stored once.
+     *
+     * @param electionDate    The date of the election.
+     * @param officeOption    The office option for the election.
+     * @param partyDictionary The dictionary of party acronyms and names.
+     */
+    public Election(LocalDate electionDate, String officeOption, StringDictionary partyDictionary) {
+        this.partyDictionary = partyDictionary;
+        this.candidateTable = new CandidateTable(1024, partyDictionary);
+        this.candidates = new IntRegistry<Candidate>(1024);
+        this.parties = new IntRegistry<Party>(64);
         this.electionDate = electionDate;
         this.officeOption = officeOption;
         this.seats = 0;
     }
 
+    /**
+     * Gets the dictionary of party acronyms and names of the election.
+     *
+     * @return The StringDictionary.
+     */
+    public StringDictionary getPartyDictionary() {
+        return partyDictionary;
+    }
+
+    /**
+     * Gets the table where the candidates of the election, including dismissed ones, are stored.
+     * New candidates should be created with getCandidateTable().add().
+     *
+     * @return The CandidateTable of the election.
+     */
+    public CandidateTable getCandidateTable() {
+        return candidateTable;
+    }
+
     /**
      * Returns a list of all candidates in the election.
      *
@@ -75,58 +129,224 @@ public class Election {
 
     /**
      * Adds votes to the election results based on the votable number, votes, and office option.
+     * The meaning of each votable number is looked up in the vote routing table, which is compiled on first use.
      *
      * @param votes         The number of votes to be added.
      * @param votableNumber The number associated with the votable entity.
      * @param office        The office option.
      */
     public void addVotes(int votes, int votableNumber, String office) {
-        if (hasParty(votableNumber)) {
-            Party p = parties.get(votableNumber);
-            p.addVotes(votes);
-            this.listVotes += votes;
-        }
-        else if (hasCandidate(votableNumber)) {
-            Candidate c = candidates.get(votableNumber);
-            Party p = parties.get(c.getPartyNumber());
+        checkMutable();
+        if (routes == null) compileVoteRoutes();
 
-            if (c.getVoteDestinationType().equalsIgnoreCase("Válido (legenda)")) {
-                p.addVotes(votes);
+        int route = votableNumber >= 0 && votableNumber < routes.length ? routes[votableNumber] : routeOf(votableNumber);
+        int index = route >>> ROUTE_SHIFT;
+
+        switch (route & ROUTE_MASK) {
+            case ROUTE_LIST:
+                parties.valueAt(index).addVotes(votes);
                 this.listVotes += votes;
+                break;
+
+            case ROUTE_NOMINAL:
+                parties.valueAt(candidateParties[index]).addCandidateVotes(candidates.valueAt(index), votes);
+                this.nominalVotes += votes;
+                break;
+
+            default: // ROUTE_IGNORE
+                break;
+        }
+    }
+
+    /**
+     * Gets where addVotes() puts the votes of a votable number, without adding any.
+     *
+     * @param votableNumber The number associated with the votable entity.
+     * @return NOMINAL_VOTE for a candidate, LIST_VOTE for a party, or IGNORED_VOTE if the votes are not counted.
+     */
+    public int getVoteDestination(int votableNumber) {
+        if (routes == null) compileVoteRoutes();
+
+        int route = votableNumber >= 0 && votableNumber < routes.length ? routes[votableNumber] : routeOf(votableNumber);
+        return route & ROUTE_MASK;
+    }
+
+    /**
+     * Gets the party that receives the votes of a votable number, as a list vote or through one of its candidates.
+     *
+     * @param votableNumber The number associated with the votable entity.
+     * @return The Party, or null if the votes of the number are ignored.
+     */
+    public Party getVoteParty(int votableNumber) {
+        if (routes == null) compileVoteRoutes();
+
+        int route = votableNumber >= 0 && votableNumber < routes.length ? routes[votableNumber] : routeOf(votableNumber);
+        int index = route >>> ROUTE_SHIFT;
+
+        switch (route & ROUTE_MASK) {
+            case ROUTE_LIST:
+                return parties.valueAt(index);
+
+            case ROUTE_NOMINAL:
+                return parties.valueAt(candidateParties[index]);
+
+            default: // ROUTE_IGNORE
+                return null;
+        }
+    }
+
+    /**
+     * Adds votes per municipality and zone to the election. The first cube added is kept as it is,
+     * so it must not be changed afterwards; later ones are merged into it.
+     *
+     * @param cube The votes per place of some rows of the poll file.
+     */
+    public void addVoteCube(VoteCube cube) {
+        checkMutable();
+        if (voteCube == null) voteCube = cube;
+        else voteCube.merge(cube);
+    }
+
+    /**
+     * Replaces the votes per municipality and zone of the election, such as when the poll file is read again.
+     *
+     * @param cube The votes per place of the whole poll file, or null.
+     */
+    public void setVoteCube(VoteCube cube) {
+        checkMutable();
+        this.voteCube = cube;
+    }
+
+    /**
+     * Gets the votes per municipality and zone of the election.
+     *
+     * @return The VoteCube, or null if the votes were not counted per place.
+     */
+    public VoteCube getVoteCube() {
+        return voteCube;
+    }
+
+    /**
+     * Builds the vote routing table: for every votable number from 0 up to the highest number of a party or candidate,
+     * the action that addVotes() takes for it. Votes for a party number, for a candidate whose votes go to the party
+     * ("Válido (legenda)") and for a dismissed candidate of the party given by its first two digits all become list votes
+     * of that party; votes for a valid accepted candidate become nominal votes; anything else is ignored.
+     * Numbers outside the table are routed by routeOf(), which applies the same rules.
+     * The party of each candidate is resolved here too, so that a nominal vote needs no registry lookup.
+     * The table is rebuilt whenever a party or candidate is added afterwards.
+     */
+    public void compileVoteRoutes() {
+        int max = -1;
+
+        for (int i = 0; i < parties.size(); i++) {
+            Party p = parties.valueAt(i);
+            max = Math.max(max, p.getPartyNumber());
+
+            for (Candidate c : p.getDismissedCandidates()) {
+                max = Math.max(max, c.getCandidateNumber());
             }
-            else {
-                if ((c.getCandidacyCondition() == 2 || c.getCandidacyCondition() == 16) && 
-                    c.getVoteDestinationType().equalsIgnoreCase("Válido")) {
-                        
-                    c.addVotes(totalVotes);
-                    p.addCandidateVotes(votes, votableNumber);
-                    this.nominalVotes += votes;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            max = Math.max(max, candidates.keyAt(i));
+        }
+
+        int[] table = new int[Math.min(max, MAX_ROUTED_NUMBER) + 1]; // zero is ROUTE_IGNORE
+
+        this.candidateParties = new int[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            candidateParties[i] = parties.indexOf(candidates.valueAt(i).getPartyNumber());
+        }
+
+        // later steps take precedence, in the same order as the checks of routeOf()
+        for (int i = 0; i < parties.size(); i++) {
+            Party p = parties.valueAt(i);
+
+            for (Candidate c : p.getDismissedCandidates()) {
+                int number = c.getCandidateNumber();
+                if (number >= 10 && number < table.length && leadingTwoDigits(number) == p.getPartyNumber()) {
+                    table[number] = route(ROUTE_LIST, i);
                 }
             }
-            
         }
-        else if (!hasCandidate(votableNumber) && !hasParty(votableNumber)) {
-            // votableNumber to string
-            String numberString = Integer.toString(votableNumber);
+        for (int i = 0; i < candidates.size(); i++) {
+            int number = candidates.keyAt(i);
+            if (number >= 0 && number < table.length) table[number] = candidateRoute(i);
+        }
+        for (int i = 0; i < parties.size(); i++) {
+            int number = parties.keyAt(i);
+            if (number >= 0 && number < table.length) table[number] = route(ROUTE_LIST, i);
+        }
 
-            // verify if has at least 2 characters
-            if (numberString.length() >= 2) {
-                // get first 2 digits = party number
-                String twoDigits = numberString.substring(0, 2);
+        this.routes = table;
+    }
 
-                // convert twoDigits back to number
-                int partyNum = Integer.parseInt(twoDigits);
+    /**
+     * Finds the route of a votable number without the routing table.
+     *
+     * @param votableNumber The votable number.
+     * @return The route of the number.
+     */
+    private int routeOf(int votableNumber) {
+        int party = parties.indexOf(votableNumber);
+        if (party >= 0) return route(ROUTE_LIST, party);
 
-                if (hasParty(partyNum)) {
-                    Party p = parties.get(partyNum);
+        int candidate = candidates.indexOf(votableNumber);
+        if (candidate >= 0) return candidateRoute(candidate);
 
-                    if (p.hasDismissedCandidate(votableNumber)) {
-                        p.addVotes(votes);
-                        this.listVotes += votes;
-                    }
-                }
+        if (votableNumber >= 10 || votableNumber <= -1) {
+            int dismissedParty = parties.indexOf(leadingTwoDigits(votableNumber));
+
+            if (dismissedParty >= 0 && parties.valueAt(dismissedParty).hasDismissedCandidate(votableNumber)) {
+                return route(ROUTE_LIST, dismissedParty);
             }
         }
+
+        return ROUTE_IGNORE;
+    }
+
+    /**
+     * Finds the route of the votes for a registered candidate, once candidateParties is compiled.
+     *
+     * @param index The index of the candidate in the candidates registry.
+     * @return The route of the candidate's number.
+     */
+    private int candidateRoute(int index) {
+        Candidate c = candidates.valueAt(index);
+        int party = candidateParties[index];
+
+        if (c.getVoteDestinationType().equalsIgnoreCase("Válido (legenda)")) {
+            return party >= 0 ? route(ROUTE_LIST, party) : ROUTE_IGNORE;
+        }
+        else if ((c.getCandidacyCondition() == 2 || c.getCandidacyCondition() == 16) && 
+                 c.getVoteDestinationType().equalsIgnoreCase("Válido")) {
+            return party >= 0 ? route(ROUTE_NOMINAL, index) : ROUTE_IGNORE;
+        }
+        else return ROUTE_IGNORE;
+    }
+
+    /**
+     * Packs an action and the registry index it applies to into a route.
+     */
+    private static int route(int action, int index) {
+        return index << ROUTE_SHIFT | action;
+    }
+
+    /**
+     * Gets the number formed by the first two characters of a number written in decimal,
+     * such as 12 for 12345, or -1 for -123. Votes for dismissed candidates go to the party with this number.
+     *
+     * @param number The number, with at least two characters.
+     * @return The number formed by its first two characters.
+     */
+    static int leadingTwoDigits(int number) {
+        long n = Math.abs((long) number);
+        if (number < 0) {
+            while (n >= 10) n /= 10;
+            return (int) -n;
+        }
+
+        while (n >= 100) n /= 10;
+        return (int) n;
     }
 
     /**
@@ -136,9 +356,9 @@ public class Election {
      * @param p      The Party object to be added.
      */
     public void addParty(int number, Party p) {
-        if (hasParty(number) == false) {
-            parties.put(number, p);
-        }
+        checkMutable();
+        parties.add(number, p);
+        this.routes = null;
     }
 
     /**
@@ -158,11 +378,11 @@ public class Election {
      * @param c              The Candidate object to be added.
      */
     public void addCandidate(int candidateNumber, Candidate c) {
-        if (hasCandidate(candidateNumber) == false) {
-            candidates.put(candidateNumber, c);
-
+        checkMutable();
+        if (candidates.add(candidateNumber, c)) {
             if (c.isElected()) seats += 1;
         }
+        this.routes = null;
     }
 
     /**
@@ -181,6 +401,7 @@ public class Election {
      * @param c The Candidate object to be added.
      */
     public void addCandidateToParty(Candidate c) {
+        checkMutable();
         Party p = parties.get(c.getPartyNumber());
         p.addCandidate(c.getCandidateNumber(), c);
     }
@@ -191,8 +412,10 @@ public class Election {
      * @param c The Candidate object to be added.
      */
     public void addDismissedCandidateToParty(Candidate c) {
+        checkMutable();
         Party p = parties.get(c.getPartyNumber());
         p.addDismissedCandidate(c.getCandidateNumber(), c);
+        this.routes = null;
     }
 
     /**
@@ -228,6 +451,7 @@ public class Election {
      * @param seats The number of seats to be set.
      */
     public void setSeats(int seats) {
+        checkMutable();
         this.seats = seats;
     }
 
@@ -249,6 +473,34 @@ public class Election {
         return nominalVotes;
     }
 
+    /**
+     * Sets the list and nominal vote totals of the election, when they are restored from a snapshot instead of counted by addVotes.
+     *
+     * @param listVotes    The total number of list votes.
+     * @param nominalVotes The total number of nominal votes.
+     */
+    void restoreVotes(int listVotes, int nominalVotes) {
+        checkMutable();
+        this.listVotes = listVotes;
+        this.nominalVotes = nominalVotes;
+    }
+
+    /**
+     * Counts a candidate whose birth date is missing or cannot be parsed.
+     */
+    public void countInvalidBirthDate() {
+        this.invalidBirthDates++;
+    }
+
+    /**
+     * Gets the number of candidates whose birth date is missing or cannot be parsed.
+     *
+     * @return The number of such candidates.
+     */
+    public int getInvalidBirthDates() {
+        return invalidBirthDates;
+    }
+
     /**
      * Gets the total number of votes (list votes + nominal votes) in the election.
      *
@@ -262,10 +514,113 @@ public class Election {
      * Sets the total number of votes (list votes + nominal votes) in the election and updates the total votes for each party.
      */
     public void setTotalVotes() {
+        checkMutable();
         this.totalVotes = this.listVotes + this.nominalVotes;
 
         for (Party p : parties.values()) {
             p.setTotalVotes();
         }
     }
+
+    /**
+     * Gets the nominal votes of a candidate, as counted.
+     *
+     * @param c The candidate.
+     * @return The nominal votes.
+     */
+    @Override
+    public int getNominalVotes(Candidate c) {
+        return c.getNominalVotes();
+    }
+
+    /**
+     * Gets the list votes of a party, as counted.
+     *
+     * @param p The party.
+     * @return The list votes.
+     */
+    @Override
+    public int getListVotes(Party p) {
+        return p.getListVotes();
+    }
+
+    /**
+     * Gets the nominal votes of the candidates of a party, as counted.
+     *
+     * @param p The party.
+     * @return The nominal votes.
+     */
+    @Override
+    public int getNominalVotes(Party p) {
+        return p.getNominalVotes();
+    }
+
+    /**
+     * Gets the total votes of a party, as set by setTotalVotes().
+     *
+     * @param p The party.
+     * @return The total votes.
+     */
+    @Override
+    public int getTotalVotes(Party p) {
+        return p.getTotalVotes();
+    }
+
+    /**
+     * Gets the most voted candidate of a party, as counted.
+     *
+     * @param p The party.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    @Override
+    public Candidate getMostVotedCandidate(Party p) {
+        return p.getMostVotedCandidate();
+    }
+
+    /**
+     * Gets the least voted candidate of a party, as counted.
+     *
+     * @param p The party.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    @Override
+    public Candidate getLeastVotedCandidate(Party p) {
+        return p.getLeastVotedCandidate();
+    }
+
+    /**
+     * Freezes the election: from now on, adding votes, parties or candidates throws an IllegalStateException.
+     * The lazily computed state (the vote routing table and the most and least voted candidate of each party)
+     * is computed here, so reading a frozen election never writes to it and is safe from any number of threads.
+     * Freezing an election again does nothing.
+     */
+    public void freeze() {
+        if (frozen) return;
+
+        if (routes == null) compileVoteRoutes();
+        for (Party p : parties.values()) {
+            p.getMostVotedCandidate();
+            p.getLeastVotedCandidate();
+        }
+
+        this.frozen = true;
+    }
+
+    /**
+     * Checks if the election is frozen.
+     *
+     * @return True if the election can no longer change, false otherwise.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Throws an exception if the election is frozen.
+     *
+     * @throws IllegalStateException if the election is frozen.
+     */
+    private void checkMutable() {
+        if (frozen) throw new IllegalStateException("The election (" + officeOption + ") is frozen");
+    }
 }
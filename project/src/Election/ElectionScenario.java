@@ -0,0 +1,390 @@
+/**
+ * A what-if scenario over an election: the same candidates and parties, with some of their vote tallies changed.
+ * Only the changed tallies are stored; everything else is read from the base election, which is frozen so it can be
+ * shared by any number of scenarios. A scenario is a VoteView, so it can be given to Report, RecordReport,
+ * RankIndex or SeatModel in place of the election itself.
+ *
+ * A scenario is changed by one thread and can then be read by any number of threads, since reading it writes nothing.
+ */
+
+package Election;
+
+import java.util.Arrays;
+
+import Election.Domain.Candidate;
+import Election.Domain.IntRegistry;
+import Election.Domain.Party;
+
+public class ElectionScenario implements VoteView {
+    private Election base;
+    private String name;
+
+    // changed tallies, at the index of the candidate or party in changedCandidates or changedParties
+    private IntRegistry<Candidate> changedCandidates;
+    private int[] candidateVotes;
+    private IntRegistry<Party> changedParties;
+    private int[] partyListVotes;
+    private int[] partyNominalVotes;
+    private Candidate[] mostVoted;
+    private Candidate[] leastVoted;
+
+    private int listVotesChange;
+    private int nominalVotesChange;
+
+    /**
+     * Constructor for the ElectionScenario class, with the votes of the base election unchanged.
+     * The base election is frozen.
+     *
+     * @param base The election, with its votes counted.
+     */
+    public ElectionScenario(Election base) {
+        this(base, "");
+    }
+
+    /**
+     * Constructor for the ElectionScenario class, with a name and the votes of the base election unchanged.
+     * The base election is frozen.
+     *
+     * @param base The election, with its votes counted.
+     * @param name The name of the scenario, shown in the reports.
+     */
+    public ElectionScenario(Election base, String name) {
+        base.freeze();
+
+        this.base = base;
+        this.name = name;
+        this.changedCandidates = new IntRegistry<Candidate>(16);
+        this.candidateVotes = new int[16];
+        this.changedParties = new IntRegistry<Party>(16);
+        this.partyListVotes = new int[16];
+        this.partyNominalVotes = new int[16];
+        this.mostVoted = new Candidate[16];
+        this.leastVoted = new Candidate[16];
+    }
+
+    /**
+     * Gets the election the scenario is based on.
+     *
+     * @return The base Election, frozen.
+     */
+    public Election getBase() {
+        return base;
+    }
+
+    /**
+     * Gets the name of the scenario.
+     *
+     * @return The name, or an empty String if the scenario has none.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the nominal votes of a candidate, changing the nominal votes of the candidate's party and of the election.
+     *
+     * @param candidateNumber The number of a candidate whose votes are nominal votes.
+     * @param votes           The votes.
+     * @return This scenario.
+     * @throws IllegalArgumentException if the number is not of a candidate whose votes are nominal votes, or the votes are negative.
+     */
+    public ElectionScenario setNominalVotes(int candidateNumber, int votes) {
+        Candidate c = base.getCandidate(candidateNumber);
+
+        if (c == null || base.getVoteDestination(candidateNumber) != Election.NOMINAL_VOTE) {
+            throw new IllegalArgumentException("Not a candidate with nominal votes: " + candidateNumber);
+        }
+        if (votes < 0) {
+            throw new IllegalArgumentException("Negative votes for candidate " + candidateNumber + ": " + votes);
+        }
+
+        int change = votes - getNominalVotes(c);
+        if (change == 0) return this;
+
+        int index = changedCandidates.indexOf(candidateNumber);
+        if (index < 0) {
+            index = changedCandidates.size();
+            changedCandidates.add(candidateNumber, c);
+            if (index == candidateVotes.length) candidateVotes = Arrays.copyOf(candidateVotes, index * 2);
+        }
+        candidateVotes[index] = votes;
+
+        Party p = base.getParty(c.getPartyNumber());
+        int party = changeParty(p);
+        partyNominalVotes[party] += change;
+        this.nominalVotesChange += change;
+
+        updateRanking(p, party, c, change);
+        return this;
+    }
+
+    /**
+     * Adds nominal votes to a candidate, or removes them if the number is negative.
+     *
+     * @param candidateNumber The number of a candidate whose votes are nominal votes.
+     * @param votes           The votes to be added.
+     * @return This scenario.
+     * @throws IllegalArgumentException if the number is not of a candidate whose votes are nominal votes, or the votes become negative.
+     */
+    public ElectionScenario addNominalVotes(int candidateNumber, int votes) {
+        Candidate c = base.getCandidate(candidateNumber);
+        return setNominalVotes(candidateNumber, (c != null ? getNominalVotes(c) : 0) + votes);
+    }
+
+    /**
+     * Sets the list votes of a party, changing the list votes of the election.
+     *
+     * @param partyNumber The party number.
+     * @param votes       The votes.
+     * @return This scenario.
+     * @throws IllegalArgumentException if there is no such party, or the votes are negative.
+     */
+    public ElectionScenario setListVotes(int partyNumber, int votes) {
+        Party p = partyOf(partyNumber);
+        if (votes < 0) throw new IllegalArgumentException("Negative list votes for party " + partyNumber + ": " + votes);
+
+        int party = changeParty(p);
+
+        this.listVotesChange += votes - partyListVotes[party];
+        partyListVotes[party] = votes;
+        return this;
+    }
+
+    /**
+     * Multiplies the list votes of a party by a factor, rounding to the nearest vote.
+     * For example, a factor of 1.05 gives the party 5% more list votes.
+     *
+     * @param partyNumber The party number.
+     * @param factor      The factor.
+     * @return This scenario.
+     * @throws IllegalArgumentException if there is no such party.
+     */
+    public ElectionScenario scaleListVotes(int partyNumber, double factor) {
+        return setListVotes(partyNumber, scale(getListVotes(partyOf(partyNumber)), factor));
+    }
+
+    /**
+     * Multiplies the nominal votes of every candidate of a party by a factor, rounding to the nearest vote.
+     *
+     * @param partyNumber The party number.
+     * @param factor      The factor.
+     * @return This scenario.
+     * @throws IllegalArgumentException if there is no such party.
+     */
+    public ElectionScenario scaleNominalVotes(int partyNumber, double factor) {
+        for (Candidate c : partyOf(partyNumber).getCandidates()) {
+            if (base.getVoteDestination(c.getCandidateNumber()) != Election.NOMINAL_VOTE) continue;
+
+            setNominalVotes(c.getCandidateNumber(), scale(getNominalVotes(c), factor));
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets a party of the base election.
+     *
+     * @param partyNumber The party number.
+     * @return The Party.
+     * @throws IllegalArgumentException if there is no such party.
+     */
+    private Party partyOf(int partyNumber) {
+        Party p = base.getParty(partyNumber);
+        if (p == null) throw new IllegalArgumentException("No such party: " + partyNumber);
+
+        return p;
+    }
+
+    /**
+     * Gets the index of the changed tallies of a party, copying its tallies from the base election the first time.
+     *
+     * @param p The party.
+     * @return The index of the party in the changed parties.
+     */
+    private int changeParty(Party p) {
+        int index = changedParties.indexOf(p.getPartyNumber());
+        if (index >= 0) return index;
+
+        index = changedParties.size();
+        changedParties.add(p.getPartyNumber(), p);
+
+        if (index == partyListVotes.length) {
+            int capacity = index * 2;
+            partyListVotes = Arrays.copyOf(partyListVotes, capacity);
+            partyNominalVotes = Arrays.copyOf(partyNominalVotes, capacity);
+            mostVoted = Arrays.copyOf(mostVoted, capacity);
+            leastVoted = Arrays.copyOf(leastVoted, capacity);
+        }
+
+        partyListVotes[index] = p.getListVotes();
+        partyNominalVotes[index] = p.getNominalVotes();
+        mostVoted[index] = p.getMostVotedCandidate();
+        leastVoted[index] = p.getLeastVotedCandidate();
+        return index;
+    }
+
+    /**
+     * Updates the most and least voted candidates of a party after the votes of one of its candidates changed.
+     * The party is only scanned again when the change may move a candidate past the current one, or ties with it.
+     *
+     * @param p      The party.
+     * @param party  The index of the party in the changed parties.
+     * @param c      The candidate whose votes changed.
+     * @param change The change of the votes of the candidate, not zero.
+     */
+    private void updateRanking(Party p, int party, Candidate c, int change) {
+        int votes = getNominalVotes(c);
+
+        Candidate most = mostVoted[party];
+        if (most == c) {
+            if (change < 0) mostVoted[party] = scanCandidates(p, true);
+        }
+        else if (change > 0 && votes >= getNominalVotes(most)) {
+            mostVoted[party] = votes > getNominalVotes(most) ? c : scanCandidates(p, true); // ties depend on age and order
+        }
+
+        Candidate least = leastVoted[party];
+        if (least == c) {
+            if (change > 0) leastVoted[party] = scanCandidates(p, false);
+        }
+        else if (change < 0 && votes <= getNominalVotes(least)) {
+            leastVoted[party] = votes < getNominalVotes(least) ? c : scanCandidates(p, false);
+        }
+    }
+
+    /**
+     * Finds the first or the last candidate of a party with the votes of the scenario, breaking ties
+     * like Party does: by age, oldest first, and then by the order in which the candidates were added.
+     *
+     * @param p     The party.
+     * @param first True to find the first candidate, false to find the last one.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    private Candidate scanCandidates(Party p, boolean first) {
+        Candidate found = null;
+
+        for (Candidate c : p.getCandidates()) {
+            if (found == null) {
+                found = c;
+                continue;
+            }
+
+            int result = Integer.compare(getNominalVotes(found), getNominalVotes(c));
+            if (result == 0) result = Integer.compare(found.getAge(), c.getAge());
+
+            // c ranks before found if result < 0; on ties, the candidate added first ranks first
+            if (first ? result < 0 : result >= 0) found = c;
+        }
+
+        return found;
+    }
+
+    /**
+     * Multiplies votes by a factor, rounding to the nearest vote.
+     */
+    private static int scale(int votes, double factor) {
+        return (int) Math.round(votes * factor);
+    }
+
+    /**
+     * Gets the nominal votes of a candidate in the scenario.
+     *
+     * @param c The candidate.
+     * @return The nominal votes.
+     */
+    @Override
+    public int getNominalVotes(Candidate c) {
+        int index = changedCandidates.indexOf(c.getCandidateNumber());
+        return index >= 0 ? candidateVotes[index] : c.getNominalVotes();
+    }
+
+    /**
+     * Gets the list votes of a party in the scenario.
+     *
+     * @param p The party.
+     * @return The list votes.
+     */
+    @Override
+    public int getListVotes(Party p) {
+        int index = changedParties.indexOf(p.getPartyNumber());
+        return index >= 0 ? partyListVotes[index] : p.getListVotes();
+    }
+
+    /**
+     * Gets the nominal votes of the candidates of a party in the scenario.
+     *
+     * @param p The party.
+     * @return The nominal votes.
+     */
+    @Override
+    public int getNominalVotes(Party p) {
+        int index = changedParties.indexOf(p.getPartyNumber());
+        return index >= 0 ? partyNominalVotes[index] : p.getNominalVotes();
+    }
+
+    /**
+     * Gets the total votes of a party in the scenario.
+     *
+     * @param p The party.
+     * @return The total votes.
+     */
+    @Override
+    public int getTotalVotes(Party p) {
+        int index = changedParties.indexOf(p.getPartyNumber());
+        return index >= 0 ? partyListVotes[index] + partyNominalVotes[index] : p.getTotalVotes();
+    }
+
+    /**
+     * Gets the most voted candidate of a party in the scenario.
+     *
+     * @param p The party.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    @Override
+    public Candidate getMostVotedCandidate(Party p) {
+        int index = changedParties.indexOf(p.getPartyNumber());
+        return index >= 0 ? mostVoted[index] : p.getMostVotedCandidate();
+    }
+
+    /**
+     * Gets the least voted candidate of a party in the scenario.
+     *
+     * @param p The party.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    @Override
+    public Candidate getLeastVotedCandidate(Party p) {
+        int index = changedParties.indexOf(p.getPartyNumber());
+        return index >= 0 ? leastVoted[index] : p.getLeastVotedCandidate();
+    }
+
+    /**
+     * Gets the total number of list votes in the scenario.
+     *
+     * @return The total number of list votes.
+     */
+    @Override
+    public int getListVotes() {
+        return base.getListVotes() + listVotesChange;
+    }
+
+    /**
+     * Gets the total number of nominal votes in the scenario.
+     *
+     * @return The total number of nominal votes.
+     */
+    @Override
+    public int getNominalVotes() {
+        return base.getNominalVotes() + nominalVotesChange;
+    }
+
+    /**
+     * Gets the total number of votes (list votes + nominal votes) in the scenario.
+     *
+     * @return The total number of votes.
+     */
+    @Override
+    public int getTotalVotes() {
+        return base.getTotalVotes() + listVotesChange + nominalVotesChange;
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Compact binary snapshot of a loaded Election, so that later runs over the same input files can skip parsing them.
+ * A snapshot holds parties, candidates, dismissed candidates and their vote totals, and is keyed by the
+ * names (including the zip entry) and fingerprints of the candidates and poll files it was built from.
+ */
+
+package Election;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+import Election.Domain.Candidate;
+import Election.Domain.CandidateTable;
+import Election.Domain.PackedDate;
+import Election.Domain.Party;
+import Election.Input.CSVSource;
+import Election.Input.FileFingerprint;
+
+public class ElectionSnapshot {
+    private static final int MAGIC = 0x454C534E; // "ELSN"
+    private static final int VERSION = 3;
+
+    private Path cacheDirectory;
+    private String candidatesName;
+    private String pollName;
+    private FileFingerprint candidatesFingerprint;
+    private FileFingerprint pollFingerprint;
+
+    /**
+     * Constructor for the ElectionSnapshot class, fingerprinting the input files.
+     *
+     * @param cacheDirectory The directory where snapshots are stored.
+     * @param candidates     The candidates file.
+     * @param poll           The poll file.
+     * @throws IOException if an input file cannot be fingerprinted.
+     */
+    public ElectionSnapshot(Path cacheDirectory, CSVSource candidates, CSVSource poll) throws IOException {
+        this.cacheDirectory = cacheDirectory;
+        this.candidatesName = candidates.toString();
+        this.pollName = poll.toString();
+        this.candidatesFingerprint = FileFingerprint.of(candidates);
+        this.pollFingerprint = FileFingerprint.of(poll);
+    }
+
+    /**
+     * Gets the file where the snapshot of an election is stored.
+     *
+     * @param electionDate The date of the election.
+     * @param officeOption The office option of the election.
+     * @return The path of the snapshot file.
+     */
+    public Path getFile(LocalDate electionDate, String officeOption) {
+        String sources = Integer.toHexString((candidatesName + "\n" + pollName).hashCode());
+        String name = officeOption.replace("-", "") + "-" + electionDate + "-" + sources + "-" + candidatesFingerprint.toKey() + "-" + pollFingerprint.toKey() + ".snap";
+        return cacheDirectory.resolve(name);
+    }
+
+    /**
+     * Loads the snapshot of an election, if there is one for the same input files.
+     *
+     * @param electionDate The date of the election.
+     * @param officeOption The office option of the election.
+     * @return The restored Election, with its total votes already set, or null if there is no matching snapshot.
+     * @throws IOException if the snapshot exists but cannot be read.
+     */
+    public Election load(LocalDate electionDate, String officeOption) throws IOException {
+        Path file = getFile(electionDate, officeOption);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (!in.readUTF().equals(officeOption) || in.readLong() != electionDate.toEpochDay()) return null;
+            if (!in.readUTF().equals(candidatesName) || !in.readUTF().equals(pollName)) return null;
+            if (!FileFingerprint.read(in).equals(candidatesFingerprint) || !FileFingerprint.read(in).equals(pollFingerprint)) return null;
+
+            Election poll = new Election(electionDate, officeOption);
+            int packedElectionDate = PackedDate.of(electionDate);
+
+            int parties = in.readInt();
+            for (int i = 0; i < parties; i++) {
+                int number = in.readInt();
+                Party p = new Party(number, in.readUTF(), in.readUTF());
+                p.addVotes(in.readInt());
+                poll.addParty(number, p);
+            }
+
+            int candidates = in.readInt();
+            for (int i = 0; i < candidates; i++) {
+                Candidate c = readCandidate(in, poll.getCandidateTable(), packedElectionDate);
+                int votes = in.readInt();
+                if (!PackedDate.isValid(c.getPackedBirthDate())) poll.countInvalidBirthDate();
+
+                poll.addCandidateToParty(c);
+                poll.addCandidate(c.getCandidateNumber(), c);
+                poll.getParty(c.getPartyNumber()).addCandidateVotes(votes, c.getCandidateNumber());
+            }
+
+            int dismissed = in.readInt();
+            for (int i = 0; i < dismissed; i++) {
+                Candidate c = readCandidate(in, poll.getCandidateTable(), packedElectionDate);
+                poll.addDismissedCandidateToParty(c);
+                if (!PackedDate.isValid(c.getPackedBirthDate())) poll.countInvalidBirthDate();
+            }
+
+            poll.restoreVotes(in.readInt(), in.readInt());
+            poll.setTotalVotes();
+            return poll;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Saves the snapshot of an election. The file is written under a temporary name and then moved into place,
+     * so that a concurrent or interrupted run never sees a partial snapshot.
+     *
+     * @param poll The Election to be saved, after its votes have been read.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void save(Election poll) throws IOException {
+        Files.createDirectories(cacheDirectory);
+
+        Path file = getFile(poll.getElectionDate(), poll.getOfficeOption());
+        Path temporary = Files.createTempFile(cacheDirectory, "snapshot", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(poll.getOfficeOption());
+            out.writeLong(poll.getElectionDate().toEpochDay());
+            out.writeUTF(candidatesName);
+            out.writeUTF(pollName);
+            candidatesFingerprint.write(out);
+            pollFingerprint.write(out);
+
+            out.writeInt(poll.getParties().size());
+            for (Party p : poll.getParties()) {
+                out.writeInt(p.getPartyNumber());
+                out.writeUTF(p.getPartyAcronym());
+                out.writeUTF(p.getPartyName());
+                out.writeInt(p.getListVotes());
+            }
+
+            out.writeInt(poll.getCandidates().size());
+            for (Candidate c : poll.getCandidates()) {
+                writeCandidate(out, c);
+                out.writeInt(c.getNominalVotes());
+            }
+
+            int dismissed = 0;
+            for (Party p : poll.getParties()) {
+                dismissed += p.getDismissedCandidates().size();
+            }
+
+            out.writeInt(dismissed);
+            for (Party p : poll.getParties()) {
+                for (Candidate c : p.getDismissedCandidates()) {
+                    writeCandidate(out, c);
+                }
+            }
+
+            out.writeInt(poll.getListVotes());
+            out.writeInt(poll.getNominalVotes());
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the fields of a candidate read from the candidates file.
+     */
+    private static void writeCandidate(DataOutputStream out, Candidate c) throws IOException {
+        out.writeInt(c.getOfficeOption());
+        out.writeInt(c.getCandidateNumber());
+        out.writeUTF(c.getBallotName());
+        out.writeInt(c.getPartyNumber());
+        out.writeUTF(c.getPartyAcronym());
+        out.writeInt(c.getFederationNumber());
+        out.writeInt(c.getPackedBirthDate());
+        out.writeInt(c.getGender());
+        out.writeInt(c.getTurnStatus());
+        out.writeUTF(c.getVoteDestinationType());
+        out.writeInt(c.getCandidacyCondition());
+    }
+
+    /**
+     * Reads a candidate written by writeCandidate().
+     */
+    private static Candidate readCandidate(DataInputStream in, CandidateTable table, int electionDate) throws IOException {
+        int office = in.readInt();
+        int number = in.readInt();
+        String ballotName = in.readUTF();
+        int partyNumber = in.readInt();
+        String partyAcronym = in.readUTF();
+        int federationNumber = in.readInt();
+        int birthDate = in.readInt();
+        int gender = in.readInt();
+        int status = in.readInt();
+        String voteDestination = in.readUTF();
+        int condition = in.readInt();
+
+        return table.add(office, number, ballotName, partyNumber, partyAcronym, federationNumber, birthDate,
+                         gender, status, voteDestination, condition, electionDate);
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * The votes of an election per place (a municipality and an electoral zone inside it) and per votable number,
+ * kept as a dense matrix of ints in a direct buffer, outside the Java heap, so that the millions of cells of a large
+ * state are neither boxed nor scanned by the garbage collector. Each row holds the votes of a place, with a column
+ * per votable number in the order they were first seen. Rollups sum rows or columns into municipality and zone totals.
+ */
+
+package Election.Geo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import Election.Domain.KeyIndex;
+
+public class VoteCube {
+    private static final int INITIAL_PLACES = 64;
+    private static final int INITIAL_VOTABLES = 256;
+    private static final long MAX_CELLS = Integer.MAX_VALUE / Integer.BYTES;
+
+    private KeyIndex places;          // municipality code * 100000 + zone number
+    private KeyIndex votables;        // "NR_VOTAVEL"
+    private KeyIndex municipalities;  // "CD_MUNICIPIO"
+    private KeyIndex zones;           // "NR_ZONA"
+    private int[] placeMunicipality;  // index of the municipality of each place
+    private int[] placeZone;          // index of the zone of each place
+    private List<String> municipalityNames;
+
+    private IntBuffer cells;          // row-major: the votes of place p for votable v are at p * votableCapacity + v
+    private int placeCapacity;
+    private int votableCapacity;
+
+    private long lastPlaceKey;        // rows of a place come together, so its index is kept between calls
+    private int lastPlace;
+
+    /**
+     * Constructor for the VoteCube class.
+     */
+    public VoteCube() {
+        this.places = new KeyIndex();
+        this.votables = new KeyIndex();
+        this.municipalities = new KeyIndex();
+        this.zones = new KeyIndex();
+        this.placeMunicipality = new int[INITIAL_PLACES];
+        this.placeZone = new int[INITIAL_PLACES];
+        this.municipalityNames = new ArrayList<String>();
+        this.placeCapacity = INITIAL_PLACES;
+        this.votableCapacity = INITIAL_VOTABLES;
+        this.cells = allocate(placeCapacity, votableCapacity);
+        this.lastPlaceKey = -1;
+        this.lastPlace = -1;
+    }
+
+    /**
+     * Allocates a zeroed matrix of cells outside the heap.
+     *
+     * @param rows    The number of places.
+     * @param columns The number of votable numbers.
+     * @return The cells.
+     * @throws IllegalStateException if the matrix does not fit in a single buffer.
+     */
+    private static IntBuffer allocate(int rows, int columns) {
+        if ((long) rows * columns > MAX_CELLS) {
+            throw new IllegalStateException("Vote cube of " + rows + " places and " + columns + " votable numbers is too large");
+        }
+
+        return ByteBuffer.allocateDirect(rows * columns * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Checks if a municipality is already in the cube, so its name does not need to be read again.
+     *
+     * @param municipality The municipality code.
+     * @return True if the municipality has a place in the cube, false otherwise.
+     */
+    public boolean hasMunicipality(int municipality) {
+        return municipalities.indexOf(municipality) >= 0;
+    }
+
+    /**
+     * Adds votes of a votable number in a place.
+     *
+     * @param municipality     The municipality code ("CD_MUNICIPIO").
+     * @param municipalityName The municipality name ("NM_MUNICIPIO"), used if the municipality is new.
+     * @param zone             The electoral zone number ("NR_ZONA").
+     * @param votableNumber    The votable number ("NR_VOTAVEL").
+     * @param votes            The votes to be added ("QT_VOTOS").
+     */
+    public void add(int municipality, String municipalityName, int zone, int votableNumber, int votes) {
+        int place = placeIndex(municipality, municipalityName, zone);
+        int votable = votableIndex(votableNumber);
+        int cell = place * votableCapacity + votable;
+
+        cells.put(cell, cells.get(cell) + votes);
+    }
+
+    /**
+     * Adds every vote of another VoteCube to this one.
+     *
+     * @param other The VoteCube to be merged, which is not changed.
+     */
+    public void merge(VoteCube other) {
+        int[] votableMap = new int[other.votables.size()];
+        for (int v = 0; v < votableMap.length; v++) {
+            votableMap[v] = votableIndex((int) other.votables.keyAt(v));
+        }
+
+        for (int p = 0; p < other.places.size(); p++) {
+            int municipality = (int) other.municipalities.keyAt(other.placeMunicipality[p]);
+            String name = other.municipalityNames.get(other.placeMunicipality[p]);
+            int zone = (int) other.zones.keyAt(other.placeZone[p]);
+
+            int row = placeIndex(municipality, name, zone) * votableCapacity;
+            int otherRow = p * other.votableCapacity;
+
+            for (int v = 0; v < votableMap.length; v++) {
+                int votes = other.cells.get(otherRow + v);
+                if (votes != 0) cells.put(row + votableMap[v], cells.get(row + votableMap[v]) + votes);
+            }
+        }
+    }
+
+    /**
+     * Gets the row of a place, adding the place (and growing the matrix) if it is new.
+     */
+    private int placeIndex(int municipality, String municipalityName, int zone) {
+        long key = (long) municipality * 100000 + zone;
+        if (key == lastPlaceKey) return lastPlace;
+
+        int place = places.indexOf(key);
+
+        if (place < 0) {
+            int municipalityIndex = municipalities.add(municipality);
+            if (municipalityIndex == municipalityNames.size()) municipalityNames.add(municipalityName);
+
+            place = places.add(key);
+            if (place == placeCapacity) grow(placeCapacity * 2, votableCapacity);
+
+            placeMunicipality[place] = municipalityIndex;
+            placeZone[place] = zones.add(zone);
+        }
+
+        this.lastPlaceKey = key;
+        this.lastPlace = place;
+        return place;
+    }
+
+    /**
+     * Gets the column of a votable number, adding it (and growing the matrix) if it is new.
+     */
+    private int votableIndex(int votableNumber) {
+        int votable = votables.indexOf(votableNumber);
+
+        if (votable < 0) {
+            votable = votables.add(votableNumber);
+            if (votable == votableCapacity) grow(placeCapacity, votableCapacity * 2);
+        }
+
+        return votable;
+    }
+
+    /**
+     * Copies the cells to a larger matrix.
+     */
+    private void grow(int newPlaceCapacity, int newVotableCapacity) {
+        IntBuffer grown = allocate(newPlaceCapacity, newVotableCapacity);
+        int rows = Math.min(places.size(), placeCapacity); // a place being added has no cells yet
+
+        if (newVotableCapacity == votableCapacity) {
+            IntBuffer used = cells.duplicate();
+            used.limit(rows * votableCapacity);
+            grown.put(used);
+        }
+        else {
+            for (int p = 0; p < rows; p++) {
+                IntBuffer row = cells.duplicate();
+                row.position(p * votableCapacity).limit(p * votableCapacity + votableCapacity);
+
+                grown.position(p * newVotableCapacity);
+                grown.put(row);
+            }
+        }
+        grown.clear();
+
+        if (newPlaceCapacity > placeMunicipality.length) {
+            placeMunicipality = Arrays.copyOf(placeMunicipality, newPlaceCapacity);
+            placeZone = Arrays.copyOf(placeZone, newPlaceCapacity);
+        }
+
+        this.cells = grown;
+        this.placeCapacity = newPlaceCapacity;
+        this.votableCapacity = newVotableCapacity;
+    }
+
+    /**
+     * Gets the number of places (municipality and zone pairs) with votes.
+     *
+     * @return The number of places.
+     */
+    public int getPlaceCount() {
+        return places.size();
+    }
+
+    /**
+     * Gets the number of municipalities.
+     *
+     * @return The number of municipalities.
+     */
+    public int getMunicipalityCount() {
+        return municipalities.size();
+    }
+
+    /**
+     * Gets the code of a municipality.
+     *
+     * @param municipality The index of the municipality, between 0 and getMunicipalityCount() - 1.
+     * @return The "CD_MUNICIPIO" code.
+     */
+    public int getMunicipalityCode(int municipality) {
+        return (int) municipalities.keyAt(municipality);
+    }
+
+    /**
+     * Gets the name of a municipality.
+     *
+     * @param municipality The index of the municipality, between 0 and getMunicipalityCount() - 1.
+     * @return The "NM_MUNICIPIO" name.
+     */
+    public String getMunicipalityName(int municipality) {
+        return municipalityNames.get(municipality);
+    }
+
+    /**
+     * Gets the number of electoral zones.
+     *
+     * @return The number of zones.
+     */
+    public int getZoneCount() {
+        return zones.size();
+    }
+
+    /**
+     * Gets the number of an electoral zone.
+     *
+     * @param zone The index of the zone, between 0 and getZoneCount() - 1.
+     * @return The "NR_ZONA" number.
+     */
+    public int getZoneNumber(int zone) {
+        return (int) zones.keyAt(zone);
+    }
+
+    /**
+     * Gets the number of votable numbers with votes.
+     *
+     * @return The number of votable numbers.
+     */
+    public int getVotableCount() {
+        return votables.size();
+    }
+
+    /**
+     * Gets a votable number.
+     *
+     * @param votable The index of the votable number, between 0 and getVotableCount() - 1.
+     * @return The "NR_VOTAVEL" number.
+     */
+    public int getVotableNumber(int votable) {
+        return (int) votables.keyAt(votable);
+    }
+
+    /**
+     * Gets the index of a votable number.
+     *
+     * @param votableNumber The votable number.
+     * @return The index, or -1 if the number has no votes in the cube.
+     */
+    public int indexOfVotable(int votableNumber) {
+        return votables.indexOf(votableNumber);
+    }
+
+    /**
+     * Gets the votes of a votable number in a place.
+     *
+     * @param place   The index of the place, between 0 and getPlaceCount() - 1.
+     * @param votable The index of the votable number, between 0 and getVotableCount() - 1.
+     * @return The votes.
+     */
+    public int getVotes(int place, int votable) {
+        return cells.get(place * votableCapacity + votable);
+    }
+
+    /**
+     * Sums the votes of some votable numbers per municipality.
+     *
+     * @param selected Which votable numbers are summed, by index, such as a candidate's number alone.
+     *                 Indexes beyond its length are not summed.
+     * @return The votes per municipality index.
+     */
+    public int[] votesByMunicipality(boolean[] selected) {
+        return rollup(selected, placeMunicipality, municipalities.size());
+    }
+
+    /**
+     * Sums the votes of some votable numbers per electoral zone.
+     *
+     * @param selected Which votable numbers are summed, by index, such as every number whose votes go to a party.
+     *                 Indexes beyond its length are not summed.
+     * @return The votes per zone index.
+     */
+    public int[] votesByZone(boolean[] selected) {
+        return rollup(selected, placeZone, zones.size());
+    }
+
+    /**
+     * Sums the selected columns of every row into the group of its place.
+     */
+    private int[] rollup(boolean[] selected, int[] groupOfPlace, int groups) {
+        int[] selection = new int[Math.min(selected.length, votables.size())];
+        int count = 0;
+
+        for (int v = 0; v < selection.length; v++) {
+            if (selected[v]) selection[count++] = v;
+        }
+
+        int[] totals = new int[groups];
+
+        for (int p = 0; p < places.size(); p++) {
+            int row = p * votableCapacity;
+            int sum = 0;
+
+            for (int i = 0; i < count; i++) {
+                sum += cells.get(row + selection[i]);
+            }
+            totals[groupOfPlace[p]] += sum;
+        }
+
+        return totals;
+    }
+
+    /**
+     * Finds the groups with the most votes, such as a candidate's top municipalities.
+     *
+     * @param totals The votes per group, as returned by a rollup.
+     * @param limit  The maximum number of groups.
+     * @return The indexes of the groups with votes, by descending votes and, on ties, ascending index.
+     */
+    public static int[] top(int[] totals, int limit) {
+        int[] best = new int[Math.min(limit, totals.length)];
+        int size = 0;
+
+        for (int g = 0; g < totals.length; g++) {
+            if (totals[g] <= 0) continue;
+
+            int pos = size < best.length ? size++ : best.length;
+            while (pos > 0 && totals[best[pos - 1]] < totals[g]) {
+                if (pos < best.length) best[pos] = best[pos - 1];
+                pos--;
+            }
+            if (pos < best.length) best[pos] = g;
+        }
+
+        return Arrays.copyOf(best, size);
+    }
+}
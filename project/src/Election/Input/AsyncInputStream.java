@@ -0,0 +1,155 @@
+/**
+ * InputStream that reads another stream on a background thread, so that expensive work done by that stream
+ * (such as decompressing an archive entry) overlaps with the work of whoever consumes it.
+ * Data is handed over in a fixed set of reusable blocks.
+ */
+
+package Election.Input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class AsyncInputStream extends InputStream {
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int BLOCKS = 4;
+
+    private final InputStream source;
+    private final BlockingQueue<Block> filled;
+    private final BlockingQueue<Block> free;
+    private final Thread reader;
+
+    private Block current;
+    private int position;
+    private boolean ended;
+    private volatile boolean closed;
+
+    /**
+     * A block of bytes read from the source stream.
+     */
+    private static class Block {
+        private final byte[] data = new byte[BLOCK_SIZE];
+        private int length;
+        private IOException error;
+        private boolean last;
+    }
+
+    /**
+     * Constructor for the AsyncInputStream class. The background thread starts reading immediately.
+     *
+     * @param source The stream to be read in the background. It is closed with this stream.
+     * @param name   The name of the background thread.
+     */
+    public AsyncInputStream(InputStream source, String name) {
+        this.source = source;
+        this.filled = new ArrayBlockingQueue<Block>(BLOCKS);
+        this.free = new ArrayBlockingQueue<Block>(BLOCKS);
+        this.current = null;
+        this.position = 0;
+        this.ended = false;
+        this.closed = false;
+
+        for (int i = 0; i < BLOCKS; i++) {
+            free.add(new Block());
+        }
+
+        this.reader = new Thread(this::readSource, name);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Body of the background thread: fills free blocks from the source and queues them for the consumer.
+     */
+    private void readSource() {
+        try {
+            boolean last = false;
+
+            while (!last && !closed) {
+                Block block = free.take();
+                block.length = 0;
+                block.error = null;
+
+                try {
+                    while (block.length < BLOCK_SIZE) {
+                        int read = source.read(block.data, block.length, BLOCK_SIZE - block.length);
+                        if (read < 0) {
+                            last = true;
+                            break;
+                        }
+                        block.length += read;
+                    }
+                } catch (IOException e) {
+                    block.error = e;
+                    last = true;
+                }
+
+                block.last = last;
+                filled.put(block);
+            }
+        } catch (InterruptedException e) {
+            // closed by the consumer
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (len == 0) return 0;
+
+        while (current == null || position == current.length) {
+            if (ended) return -1;
+
+            if (current != null) {
+                free.add(current);
+                current = null;
+            }
+
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for " + reader.getName(), e);
+            }
+
+            position = 0;
+            ended = current.last;
+
+            if (current.error != null) {
+                throw new IOException("Error reading in " + reader.getName(), current.error);
+            }
+        }
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    /**
+     * Stops the background thread and closes the source stream.
+     *
+     * @throws IOException if the source stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        source.close();
+    }
+}
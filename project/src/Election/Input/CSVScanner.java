@@ -0,0 +1,636 @@
+/**
+ * Byte-level scanner for the ';'-separated, ISO-8859-1 encoded CSV files published by TSE.
+ * Plain files are memory-mapped, and streams (such as a decompressed archive entry) are read into a reusable buffer.
+ * Each row is tokenized in place: only the offsets of its columns are recorded,
+ * and a column is turned into a String or an int only when the caller asks for it.
+ * Given a ScanSpec, the scanner also stops tokenizing a row after the last column the caller reads,
+ * and skips the rows whose filter column holds a value the caller does not want without returning them.
+ */
+
+package Election.Input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Election.Domain.PackedDate;
+
+public class CSVScanner implements AutoCloseable {
+    private static final int MAX_WINDOW = 1 << 30; // a single mapping cannot exceed 2 GB, so big files are mapped in windows
+    private static final int MAX_COLUMNS = 128;
+    private static final int LINE_SLACK = 1 << 16; // extra bytes mapped past the end of a range to finish its last line
+    private static final int STREAM_BUFFER = 1 << 20;
+
+    private static final byte SEPARATOR = ';';
+    private static final byte QUOTE = '"';
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final long LINE_FEEDS = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private FileChannel channel;
+    private InputStream input;
+    private byte[] inputBuffer;
+    private int inputFilled; // bytes of inputBuffer holding data, complete lines or not
+    private boolean inputEnded;
+    private long fileEnd;
+    private long rangeStart;
+    private long rangeEnd;
+    private long windowStart;
+    private ByteBuffer window;
+    private int windowLimit; // end of the last complete line inside the window
+    private int position;
+    private long rowOffset; // position in the file (or stream) where the current row starts
+
+    private int[] fieldStart;
+    private int[] fieldEnd;
+    private int fieldCount;
+    private long rowNumber;
+    private long rowsRejected;
+    private byte[] scratch;
+
+    private int columnLimit;   // columns tokenized per row
+    private int filterColumn;  // -1 if every row is returned
+    private ScanSpec spec;
+
+    /**
+     * Constructor for the CSVScanner class.
+     *
+     * @param path The path of the CSV file to be scanned.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CSVScanner(Path path) throws IOException {
+        this(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for a CSVScanner that reads only the rows starting inside a byte range of the file.
+     * Scanners over adjacent ranges read every row of the file exactly once, whatever the range boundaries are.
+     *
+     * @param path  The path of the CSV file to be scanned.
+     * @param start The first byte of the range.
+     * @param end   The byte after the last one of the range.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CSVScanner(Path path, long start, long end) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileEnd = channel.size();
+        this.rangeEnd = Math.min(end, fileEnd);
+        this.rangeStart = lineStart(channel, Math.min(start, fileEnd));
+        this.windowStart = rangeStart;
+        this.windowLimit = 0;
+        this.position = 0;
+        this.fieldStart = new int[MAX_COLUMNS];
+        this.fieldEnd = new int[MAX_COLUMNS];
+        this.fieldCount = 0;
+        this.rowNumber = 0;
+        this.scratch = new byte[256];
+        this.columnLimit = MAX_COLUMNS;
+        this.filterColumn = -1;
+    }
+
+    /**
+     * Constructor for a CSVScanner that reads a stream, such as an entry of a compressed archive.
+     * The stream is read sequentially, so it cannot be split into ranges.
+     *
+     * @param input The stream with the contents of the CSV file. It is closed with the scanner.
+     */
+    public CSVScanner(InputStream input) {
+        this.input = input;
+        this.inputBuffer = new byte[STREAM_BUFFER];
+        this.inputFilled = 0;
+        this.inputEnded = false;
+        this.window = ByteBuffer.wrap(inputBuffer);
+        this.fileEnd = Long.MAX_VALUE;
+        this.rangeStart = 0;
+        this.rangeEnd = Long.MAX_VALUE;
+        this.windowStart = 0;
+        this.windowLimit = 0;
+        this.position = 0;
+        this.fieldStart = new int[MAX_COLUMNS];
+        this.fieldEnd = new int[MAX_COLUMNS];
+        this.fieldCount = 0;
+        this.rowNumber = 0;
+        this.scratch = new byte[256];
+        this.columnLimit = MAX_COLUMNS;
+        this.filterColumn = -1;
+    }
+
+    /**
+     * Finds the first line of the file that starts at or after a position.
+     *
+     * @param channel  The file channel.
+     * @param position The position in the file.
+     * @return The position where that line starts, or the size of the file if there is none.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long lineStart(FileChannel channel, long position) throws IOException {
+        if (position == 0) return 0;
+
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long pos = position - 1;
+        long size = channel.size();
+
+        while (pos < size) {
+            buf.clear();
+            int read = channel.read(buf, pos);
+            if (read <= 0) break;
+
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == LINE_FEED) return pos + i + 1;
+            }
+            pos += read;
+        }
+
+        return size;
+    }
+
+    /**
+     * Splits a file into byte ranges of roughly the same size, to be read by separate scanners.
+     *
+     * @param path    The path of the CSV file.
+     * @param ranges  The desired number of ranges.
+     * @param minimum The minimum size of a range, in bytes.
+     * @return The boundaries of the ranges: range i goes from element i to element i + 1.
+     * @throws IOException if the size of the file cannot be read.
+     */
+    public static long[] split(Path path, int ranges, long minimum) throws IOException {
+        return split(0, Files.size(path), ranges, minimum);
+    }
+
+    /**
+     * Splits a byte range of a file into smaller ranges of roughly the same size, to be read by separate scanners.
+     *
+     * @param start   The first byte of the range.
+     * @param end     The byte after the last one of the range.
+     * @param ranges  The desired number of ranges.
+     * @param minimum The minimum size of a range, in bytes.
+     * @return The boundaries of the ranges: range i goes from element i to element i + 1.
+     */
+    public static long[] split(long start, long end, int ranges, long minimum) {
+        long size = Math.max(0, end - start);
+        int count = (int) Math.max(1, Math.min(ranges, size / Math.max(1, minimum)));
+
+        long[] bounds = new long[count + 1];
+        for (int i = 0; i <= count; i++) {
+            bounds[i] = start + size * i / count;
+        }
+
+        return bounds;
+    }
+
+    /**
+     * Finds where the last complete line of a file ends, ignoring a final line that is still being written.
+     *
+     * @param path  The path of the CSV file.
+     * @param limit The position up to which the file is considered, usually its size.
+     * @return The position after the last line feed before the limit, or 0 if there is none.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long completeLinesEnd(Path path, long limit) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            long end = Math.min(limit, channel.size());
+
+            while (end > 0) {
+                long start = Math.max(0, end - buf.capacity());
+                buf.clear();
+                buf.limit((int) (end - start));
+
+                int read = channel.read(buf, start);
+                if (read <= 0) break;
+
+                for (int i = read - 1; i >= 0; i--) {
+                    if (buf.get(i) == LINE_FEED) return start + i + 1;
+                }
+                end = start;
+            }
+
+            return 0;
+        }
+    }
+
+    /**
+     * Sets the columns the caller reads and the rows it wants, so the rest of each row is not tokenized.
+     * It should be set before the first row is read, and a null spec tokenizes every column of every row again.
+     *
+     * @param spec The ScanSpec, or null.
+     */
+    public void setScanSpec(ScanSpec spec) {
+        this.spec = spec;
+        this.columnLimit = spec != null ? Math.max(1, Math.min(spec.getLastColumn() + 1, MAX_COLUMNS)) : MAX_COLUMNS;
+        this.filterColumn = spec != null && spec.getFilterColumn() < columnLimit ? spec.getFilterColumn() : -1;
+    }
+
+    /**
+     * Advances the scanner to the next row of the file, recording where each of its columns starts and ends.
+     * With a ScanSpec, only the columns up to the last one read are recorded, and rejected rows are skipped.
+     *
+     * @return True if a row was read, false if the end of the file was reached.
+     * @throws IOException if the next window of the file cannot be mapped.
+     */
+    public boolean nextRow() throws IOException {
+        while (true) {
+            if (position >= windowLimit && !nextWindow()) {
+                return false;
+            }
+            if (windowStart + position >= rangeEnd) {
+                return false;
+            }
+
+            this.rowOffset = windowStart + this.position;
+            this.rowNumber++;
+
+            if (tokenizeRow()) return true;
+            rowsRejected++;
+        }
+    }
+
+    /**
+     * Records where the columns of the row at the current position start and end, and moves past it.
+     * With a filter column, the columns up to it are tokenized first, and the rest only if the row is kept.
+     *
+     * @return True if the row is kept, false if its filter column holds a value the ScanSpec does not accept.
+     */
+    private boolean tokenizeRow() {
+        ByteBuffer buf = this.window;
+        int limit = this.windowLimit;
+        int i = this.position;
+        this.fieldCount = 0;
+
+        if (filterColumn >= 0) {
+            i = tokenize(buf, i, limit, filterColumn + 1);
+
+            if (fieldCount > filterColumn && !accepted(filterColumn)) {
+                this.position = skipLine(buf, i, limit);
+                return false;
+            }
+        }
+
+        if (fieldCount == 0 || (fieldCount < columnLimit && i < limit && buf.get(i) == SEPARATOR)) {
+            i = tokenize(buf, fieldCount == 0 ? i : i + 1, limit, columnLimit);
+        }
+
+        this.position = skipLine(buf, i, limit);
+        return true;
+    }
+
+    /**
+     * Records the columns of the current row from a position, after the ones already recorded,
+     * until a number of columns is reached or the line ends.
+     *
+     * @param buf   The window.
+     * @param i     The position where the next column starts.
+     * @param limit The end of the window.
+     * @param upTo  The number of columns after which it stops.
+     * @return The position of the separator after the last column recorded, or of the line feed if the line ended.
+     */
+    private int tokenize(ByteBuffer buf, int i, int limit, int upTo) {
+        int count = this.fieldCount;
+        int start = i;
+
+        while (i < limit) {
+            byte b = buf.get(i);
+
+            if (b == SEPARATOR) {
+                fieldStart[count] = start;
+                fieldEnd[count] = i;
+                count++;
+
+                if (count == upTo) {
+                    this.fieldCount = count;
+                    return i;
+                }
+                start = i + 1;
+            }
+            else if (b == LINE_FEED) {
+                break;
+            }
+            i++;
+        }
+
+        int end = i;
+        if (end > start && buf.get(end - 1) == CARRIAGE_RETURN) end--;
+
+        fieldStart[count] = start;
+        fieldEnd[count] = end;
+        this.fieldCount = count + 1;
+
+        return i;
+    }
+
+    /**
+     * Checks the filter column of the row being tokenized against the ScanSpec.
+     *
+     * @param column The filter column, already tokenized.
+     * @return True if the row is kept: its value is accepted, or it is not an integer.
+     */
+    private boolean accepted(int column) {
+        long value = tryGetInt(fieldStart[column], fieldEnd[column]);
+        return !IntParser.isValid(value) || spec.accepts((int) value);
+    }
+
+    /**
+     * Finds where the next line starts, without tokenizing the rest of the current one.
+     * The line feed is searched for eight bytes at a time, since there are no columns to record.
+     *
+     * @return The position after the line feed, or after the limit if there is none.
+     */
+    private static int skipLine(ByteBuffer buf, int i, int limit) {
+        while (i + 8 <= limit) {
+            long word = buf.getLong(i) ^ LINE_FEEDS;
+            long zeros = ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS); // high bit set in bytes that were '\n'
+            if (zeros != 0) {
+                int first = buf.order() == ByteOrder.BIG_ENDIAN ? Long.numberOfLeadingZeros(zeros) : Long.numberOfTrailingZeros(zeros);
+                return i + (first >>> 3) + 1;
+            }
+            i += 8;
+        }
+
+        while (i < limit && buf.get(i) != LINE_FEED) i++;
+        return i + 1;
+    }
+
+    /**
+     * Maps the next window of the file, cutting it after its last complete line.
+     *
+     * @return True if there is a new window to be read, false if the end of the file was reached.
+     * @throws IOException if the window cannot be mapped or a line does not fit in a window.
+     */
+    private boolean nextWindow() throws IOException {
+        if (input != null) return nextStreamWindow();
+
+        long start = windowStart + windowLimit;
+        if (start >= fileEnd || start >= rangeEnd) return false;
+
+        long available = Math.min(fileEnd - start, MAX_WINDOW);
+        long size = Math.min(available, rangeEnd - start + LINE_SLACK);
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        int limit = (int) size;
+
+        if (start + size < fileEnd) {
+            while (limit > 0 && buf.get(limit - 1) != LINE_FEED) limit--;
+
+            if (limit == 0 && size < available) {
+                size = available;
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+                limit = (int) size;
+
+                if (start + size < fileEnd) {
+                    while (limit > 0 && buf.get(limit - 1) != LINE_FEED) limit--;
+                }
+            }
+
+            if (limit == 0) {
+                throw new IOException("Line starting at byte " + start + " is longer than " + MAX_WINDOW + " bytes");
+            }
+        }
+
+        this.window = buf;
+        this.windowStart = start;
+        this.windowLimit = limit;
+        this.position = 0;
+        return true;
+    }
+
+    /**
+     * Reads more of the stream into the buffer, after moving the incomplete line at its end to the beginning.
+     * The buffer grows when a single line does not fit in it.
+     *
+     * @return True if there is a new window to be read, false if the end of the stream was reached.
+     * @throws IOException if the stream cannot be read.
+     */
+    private boolean nextStreamWindow() throws IOException {
+        int carried = inputFilled - windowLimit;
+        System.arraycopy(inputBuffer, windowLimit, inputBuffer, 0, carried);
+        this.windowStart += windowLimit;
+        this.inputFilled = carried;
+
+        int limit = 0;
+        int searched = 0;
+
+        while (limit == 0) {
+            if (inputEnded) {
+                limit = inputFilled;
+                break;
+            }
+
+            if (inputFilled == inputBuffer.length) {
+                inputBuffer = Arrays.copyOf(inputBuffer, inputBuffer.length * 2);
+                window = ByteBuffer.wrap(inputBuffer);
+            }
+
+            int read = input.read(inputBuffer, inputFilled, inputBuffer.length - inputFilled);
+            if (read < 0) {
+                inputEnded = true;
+                continue;
+            }
+            inputFilled += read;
+
+            if (inputFilled < inputBuffer.length) continue; // keep filling the buffer before looking for lines
+
+            for (int i = inputFilled - 1; i >= searched; i--) {
+                if (inputBuffer[i] == LINE_FEED) {
+                    limit = i + 1;
+                    break;
+                }
+            }
+            searched = inputFilled;
+        }
+
+        this.windowLimit = limit;
+        this.position = 0;
+        return limit > 0;
+    }
+
+    /**
+     * Gets the number of columns of the current row, up to the last one read by the ScanSpec, if any.
+     *
+     * @return The number of columns.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Checks if the scanner started at the beginning of the file, so that its first row is the CSV header.
+     *
+     * @return True if the first row read is the header, false otherwise.
+     */
+    public boolean startsAtHeader() {
+        return rangeStart == 0;
+    }
+
+    /**
+     * Gets the number of rows read so far, counting the header.
+     *
+     * @return The number of rows read.
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * Gets the number of rows skipped so far because the ScanSpec did not accept their filter column.
+     * They are counted in the row number, but never returned by nextRow.
+     *
+     * @return The number of rejected rows.
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Gets the position where the current row starts, counted from the beginning of the file
+     * (or of the decompressed stream), whatever range the scanner reads.
+     *
+     * @return The byte offset of the current row.
+     */
+    public long getRowOffset() {
+        return rowOffset;
+    }
+
+    /**
+     * Gets the number of bytes read so far, from the start of the range or stream up to the end of the current row.
+     *
+     * @return The number of bytes read.
+     */
+    public long getBytesRead() {
+        return windowStart + Math.min(position, windowLimit) - rangeStart;
+    }
+
+    /**
+     * Reads a column of the current row as an integer, ignoring quotes.
+     *
+     * @param column The column index.
+     * @return The integer value of the column.
+     * @throws NumberFormatException if the column is missing, empty or not an integer.
+     */
+    public int getInt(int column) {
+        long value = tryGetInt(column);
+
+        if (!IntParser.isValid(value)) {
+            throw new NumberFormatException("For input string: \"" + getString(column) + "\"");
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Reads a column of the current row as an integer, ignoring quotes, without throwing on bad values.
+     *
+     * @param column The column index.
+     * @return The integer value of the column, or IntParser.INVALID if it is missing, empty or not an integer.
+     */
+    public long tryGetInt(int column) {
+        if (column >= fieldCount) return IntParser.INVALID;
+
+        return tryGetInt(fieldStart[column], fieldEnd[column]);
+    }
+
+    /**
+     * Reads a range of the window as an integer, ignoring quotes.
+     *
+     * @return The integer value, or IntParser.INVALID if it is empty or not an integer.
+     */
+    private long tryGetInt(int i, int end) {
+        ByteBuffer buf = this.window;
+
+        while (i < end && buf.get(i) == QUOTE) i++;
+        while (end > i && buf.get(end - 1) == QUOTE) end--;
+
+        return IntParser.parse(buf, i, end);
+    }
+
+    /**
+     * Reads a column of the current row as a date in the fixed-width dd/MM/yyyy format, ignoring quotes.
+     *
+     * @param column The column index.
+     * @return The date packed as yyyyMMdd, PackedDate.NONE if the column is missing or empty,
+     *         or PackedDate.INVALID if it is not a valid date.
+     */
+    public int getDate(int column) {
+        if (column >= fieldCount) return PackedDate.NONE;
+
+        ByteBuffer buf = this.window;
+        int i = fieldStart[column];
+        int end = fieldEnd[column];
+
+        while (i < end && buf.get(i) == QUOTE) i++;
+        while (end > i && buf.get(end - 1) == QUOTE) end--;
+
+        if (i == end) return PackedDate.NONE;
+        if (end - i != 10 || buf.get(i + 2) != '/' || buf.get(i + 5) != '/') return PackedDate.INVALID;
+
+        int day = digits(buf, i, i + 2);
+        int month = digits(buf, i + 3, i + 5);
+        int year = digits(buf, i + 6, i + 10);
+        if (day < 0 || month < 0 || year < 0) return PackedDate.INVALID;
+
+        return PackedDate.of(year, month, day);
+    }
+
+    /**
+     * Reads the decimal digits of a range of the window.
+     *
+     * @return The value of the digits, or -1 if there is a byte that is not a digit.
+     */
+    private static int digits(ByteBuffer buf, int from, int to) {
+        int value = 0;
+
+        for (int i = from; i < to; i++) {
+            int digit = buf.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads a column of the current row as an ISO-8859-1 String, removing every quote from it.
+     *
+     * @param column The column index.
+     * @return The value of the column, or an empty String if the row does not have that column.
+     */
+    public String getString(int column) {
+        if (column >= fieldCount) return "";
+
+        ByteBuffer buf = this.window;
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+
+        if (scratch.length < end - start) {
+            scratch = new byte[end - start];
+        }
+
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b != QUOTE) scratch[length++] = b;
+        }
+
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Closes the underlying file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+
+        if (channel != null) channel.close();
+        if (input != null) input.close();
+    }
+}
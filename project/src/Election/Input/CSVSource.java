@@ -0,0 +1,171 @@
+/**
+ * Location of a CSV file to be scanned: a plain file, a gzip file (".gz"), or an entry of a zip archive (".zip").
+ * An entry is chosen with "archive.zip!entry.csv"; it can only be left out when the archive holds a single ".csv" entry,
+ * since TSE archives hold one file per state and reading the wrong one would go unnoticed.
+ * Compressed sources are decompressed on a background thread while the scanner parses them.
+ */
+
+package Election.Input;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class CSVSource {
+    private static final String ENTRY_SEPARATOR = "!";
+
+    private Path path;
+    private String entryName;
+
+    /**
+     * Constructor for the CSVSource class.
+     *
+     * @param location The path of the file, optionally followed by "!" and the name of an entry of a zip archive.
+     */
+    public CSVSource(String location) {
+        int separator = location.indexOf(ENTRY_SEPARATOR);
+
+        if (separator > 0 && location.substring(0, separator).toLowerCase().endsWith(".zip")) {
+            this.path = Paths.get(location.substring(0, separator));
+            this.entryName = location.substring(separator + 1);
+        } else {
+            this.path = Paths.get(location);
+            this.entryName = null;
+        }
+    }
+
+    /**
+     * Gets the path of the file (the archive itself, for compressed sources).
+     *
+     * @return The path of the file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Checks if the file exists.
+     *
+     * @return True if the file exists, false otherwise.
+     */
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    /**
+     * Checks if the source is compressed. Compressed sources can only be read sequentially.
+     *
+     * @return True if the file is a zip or gzip archive, false otherwise.
+     */
+    public boolean isCompressed() {
+        return isZip() || isGzip();
+    }
+
+    /**
+     * Finds the entry of a zip archive that would be read, without reading it.
+     *
+     * @return The entry, or null if the source is not a zip archive.
+     * @throws IOException if the archive cannot be opened or has no suitable entry.
+     */
+    public ZipEntry getEntry() throws IOException {
+        if (!isZip()) return null;
+
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            return findEntry(zip);
+        }
+    }
+
+    /**
+     * Opens a scanner over the whole CSV file.
+     *
+     * @return A new CSVScanner positioned before the header.
+     * @throws IOException if the file cannot be opened or the archive has no suitable entry.
+     */
+    public CSVScanner open() throws IOException {
+        if (isGzip()) {
+            InputStream in = new GZIPInputStream(Files.newInputStream(path), 1 << 16);
+            return new CSVScanner(new AsyncInputStream(in, "gunzip " + path.getFileName()));
+        }
+        else if (isZip()) {
+            ZipFile zip = new ZipFile(path.toFile());
+
+            try {
+                ZipEntry entry = findEntry(zip);
+                InputStream in = new FilterInputStream(zip.getInputStream(entry)) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            zip.close();
+                        }
+                    }
+                };
+
+                return new CSVScanner(new AsyncInputStream(in, "unzip " + entry.getName()));
+            } catch (IOException e) {
+                zip.close();
+                throw e;
+            }
+        }
+
+        return new CSVScanner(path);
+    }
+
+    /**
+     * Finds the entry of the zip archive to be read.
+     *
+     * @param zip The zip archive.
+     * @return The requested entry, or the only ".csv" entry if none was requested.
+     * @throws IOException if the requested entry does not exist or, when none was requested,
+     *                     if the archive does not hold exactly one ".csv" entry.
+     */
+    private ZipEntry findEntry(ZipFile zip) throws IOException {
+        if (entryName != null) {
+            ZipEntry entry = zip.getEntry(entryName);
+            if (entry == null) throw new IOException("Entry " + entryName + " not found in " + path);
+            return entry;
+        }
+
+        List<ZipEntry> csvEntries = new ArrayList<ZipEntry>();
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(".csv")) csvEntries.add(entry);
+        }
+
+        if (csvEntries.isEmpty()) throw new IOException("No .csv entry found in " + path);
+        if (csvEntries.size() == 1) return csvEntries.get(0);
+
+        StringBuilder names = new StringBuilder();
+        for (ZipEntry entry : csvEntries) {
+            names.append("\n  ").append(entry.getName());
+        }
+
+        throw new IOException(path + " holds " + csvEntries.size() + " .csv entries; choose one with " + path
+                              + ENTRY_SEPARATOR + "<entry>:" + names);
+    }
+
+    private boolean isZip() {
+        return path.toString().toLowerCase().endsWith(".zip");
+    }
+
+    private boolean isGzip() {
+        return path.toString().toLowerCase().endsWith(".gz");
+    }
+
+    @Override
+    public String toString() {
+        return entryName == null ? path.toString() : path + ENTRY_SEPARATOR + entryName;
+    }
+}
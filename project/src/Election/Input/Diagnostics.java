@@ -0,0 +1,145 @@
+/**
+ * Collects the problems found in the rows of the input files, such as numeric columns that are not numbers
+ * or missing birth dates, instead of printing each one as it is found. Problems are counted per file, column and
+ * kind, and a bounded sample of the bad rows is kept: the ones that come first in each file, whatever the order
+ * the chunks of a file were read in. Rows are located by their byte offset, which, unlike the line number, is known
+ * to every chunk. The summary is printed once, when the files have been read.
+ */
+
+package Election.Input;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class Diagnostics {
+    private static final int DEFAULT_SAMPLES = 10;
+
+    private int maxSamples;
+    private TreeMap<String, Long> counts; // by file, column and problem
+    private TreeSet<Sample> samples;
+    private long total;
+
+    /**
+     * A bad row kept in the sample.
+     */
+    private static class Sample implements Comparable<Sample> {
+        private String file;
+        private long offset;
+        private String column;
+        private String problem;
+        private String value;
+
+        @Override
+        public int compareTo(Sample o) {
+            int fileResult = file.compareTo(o.file);
+            if (fileResult != 0) return fileResult;
+
+            int offsetResult = Long.compare(offset, o.offset);
+            if (offsetResult != 0) return offsetResult;
+
+            return column.compareTo(o.column);
+        }
+    }
+
+    /**
+     * Constructor for the Diagnostics class, keeping a sample of 10 bad rows.
+     */
+    public Diagnostics() {
+        this(DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Constructor for the Diagnostics class.
+     *
+     * @param maxSamples The number of bad rows kept in the sample.
+     */
+    public Diagnostics(int maxSamples) {
+        this.maxSamples = maxSamples;
+        this.counts = new TreeMap<String, Long>();
+        this.samples = new TreeSet<Sample>();
+        this.total = 0;
+    }
+
+    /**
+     * Records a problem in a column of the current row of a scanner.
+     *
+     * @param file    The name of the file, such as "candidates" or "poll".
+     * @param scanner The scanner positioned on the bad row.
+     * @param column  The column index.
+     * @param name    The name of the column, or null if it is not known.
+     * @param problem What is wrong with the value, such as "not an integer".
+     */
+    public void report(String file, CSVScanner scanner, int column, String name, String problem) {
+        report(file, scanner.getRowOffset(), name != null ? name : "column " + column, problem, scanner.getString(column));
+    }
+
+    /**
+     * Records a problem in a value.
+     *
+     * @param file    The name of the file, such as "candidates" or "poll".
+     * @param offset  The byte offset of the row in the file, or -1 if it is not known.
+     * @param column  The name of the column.
+     * @param problem What is wrong with the value.
+     * @param value   The bad value.
+     */
+    public synchronized void report(String file, long offset, String column, String problem, String value) {
+        counts.merge(file + "\t" + column + "\t" + problem, 1L, Long::sum);
+        total++;
+
+        if (maxSamples <= 0) return;
+
+        Sample sample = new Sample();
+        sample.file = file;
+        sample.offset = offset;
+        sample.column = column;
+        sample.problem = problem;
+        sample.value = value;
+
+        samples.add(sample);
+        if (samples.size() > maxSamples) samples.pollLast();
+    }
+
+    /**
+     * Gets the number of problems recorded.
+     *
+     * @return The number of problems.
+     */
+    public synchronized long getProblemCount() {
+        return total;
+    }
+
+    /**
+     * Forgets every problem recorded, such as after printing them.
+     */
+    public synchronized void clear() {
+        counts.clear();
+        samples.clear();
+        total = 0;
+    }
+
+    /**
+     * Prints the number of problems per file, column and kind, and the sample of bad rows.
+     * Nothing is printed if there were no problems.
+     *
+     * @param out The stream the summary is printed to.
+     */
+    public synchronized void print(PrintStream out) {
+        if (total == 0) return;
+
+        out.println("Problems found in the input files (" + total + "):");
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            String[] key = entry.getKey().split("\t");
+            out.printf("  %-10s %-26s %10d %s%n", key[0], key[1], entry.getValue(), key[2]);
+        }
+
+        if (samples.isEmpty()) return;
+
+        out.println("First rows with problems:");
+        for (Sample sample : samples) {
+            String position = sample.offset >= 0 ? "byte " + sample.offset : "-";
+            out.printf("  %-10s %-14s %-26s \"%s\" (%s)%n", sample.file, position, sample.column, sample.value, sample.problem);
+        }
+    }
+}
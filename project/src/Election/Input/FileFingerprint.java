@@ -0,0 +1,152 @@
+/**
+ * Identifies the contents of an input file by its size, its last modification time and a CRC32C hash.
+ * The hash is computed over sampled blocks at the start, middle and end of the file, so fingerprinting
+ * a multi-GB file costs a few reads instead of a full scan. An entry of a zip archive is identified by the
+ * size, time and CRC32 its archive records for it, so the other entries of the archive do not affect it.
+ */
+
+package Election.Input;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.ZipEntry;
+
+public class FileFingerprint {
+    private static final int SAMPLE_SIZE = 1 << 16;
+    private static final int SAMPLES = 16;
+
+    private long size;
+    private long lastModified;
+    private long hash;
+
+    /**
+     * Constructor for the FileFingerprint class.
+     *
+     * @param size         The size of the file, in bytes.
+     * @param lastModified The last modification time of the file, in milliseconds since the epoch.
+     * @param hash         The hash of the file contents.
+     */
+    public FileFingerprint(long size, long lastModified, long hash) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    /**
+     * Computes the fingerprint of the CSV file of a source: the entry it reads from a zip archive, or the whole file.
+     *
+     * @param source The source.
+     * @return The fingerprint of the CSV file.
+     * @throws IOException if the file cannot be read or the archive has no suitable entry.
+     */
+    public static FileFingerprint of(CSVSource source) throws IOException {
+        ZipEntry entry = source.getEntry();
+        if (entry == null) return of(source.getPath());
+
+        return new FileFingerprint(entry.getSize(), entry.getTime(), entry.getCrc());
+    }
+
+    /**
+     * Computes the fingerprint of a file.
+     *
+     * @param path The path of the file.
+     * @return The fingerprint of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static FileFingerprint of(Path path) throws IOException {
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        CRC32C crc = new CRC32C();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buf = ByteBuffer.allocate(SAMPLE_SIZE);
+
+            if (size <= (long) SAMPLE_SIZE * SAMPLES) {
+                hashRange(channel, 0, size, buf, crc);
+            }
+            else {
+                long step = (size - SAMPLE_SIZE) / (SAMPLES - 1);
+
+                for (int i = 0; i < SAMPLES; i++) {
+                    hashRange(channel, i * step, SAMPLE_SIZE, buf, crc);
+                }
+            }
+
+            return new FileFingerprint(size, lastModified, crc.getValue());
+        }
+    }
+
+    /**
+     * Adds a range of a file to a hash.
+     */
+    private static void hashRange(FileChannel channel, long start, long length, ByteBuffer buf, CRC32C crc) throws IOException {
+        long pos = start;
+        long end = start + length;
+
+        while (pos < end) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), end - pos));
+
+            int read = channel.read(buf, pos);
+            if (read <= 0) break;
+
+            buf.flip();
+            crc.update(buf);
+            pos += read;
+        }
+    }
+
+    /**
+     * Writes the fingerprint to a stream.
+     *
+     * @param out The stream.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeLong(size);
+        out.writeLong(lastModified);
+        out.writeLong(hash);
+    }
+
+    /**
+     * Reads a fingerprint written by write().
+     *
+     * @param in The stream.
+     * @return The fingerprint read.
+     * @throws IOException if the stream cannot be read.
+     */
+    public static FileFingerprint read(DataInputStream in) throws IOException {
+        return new FileFingerprint(in.readLong(), in.readLong(), in.readLong());
+    }
+
+    /**
+     * Gets a short hexadecimal key that summarizes the fingerprint, suitable for a file name.
+     *
+     * @return The key.
+     */
+    public String toKey() {
+        long mixed = hash * 0x9E3779B97F4A7C15L ^ size * 31 ^ lastModified;
+        return Long.toHexString(mixed);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FileFingerprint)) return false;
+
+        FileFingerprint f = (FileFingerprint) o;
+        return size == f.size && lastModified == f.lastModified && hash == f.hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(size) * 31 * 31 + Long.hashCode(lastModified) * 31 + Long.hashCode(hash);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Parses decimal integers without throwing: a failure is returned as the INVALID value, which is outside
+ * the int range, so dirty fields such as "#NULO#" or empty ones cost no exception on the hot path.
+ * It accepts what Integer.parseInt does for decimal numbers: an optional sign followed by digits.
+ */
+
+package Election.Input;
+
+import java.nio.ByteBuffer;
+
+public class IntParser {
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * Parses a text as an integer.
+     *
+     * @param text The text.
+     * @return The value, or INVALID if the text is null, empty, not an integer or out of the int range.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) return INVALID;
+
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == length) return INVALID;
+
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return INVALID;
+
+            value = value * 10 + digit;
+            if (value > -(long) Integer.MIN_VALUE) return INVALID;
+        }
+
+        return fit(negative ? -value : value);
+    }
+
+    /**
+     * Parses a range of ISO-8859-1 (or ASCII) bytes as an integer.
+     *
+     * @param buf  The buffer.
+     * @param from The first byte of the range.
+     * @param to   The byte after the last one of the range.
+     * @return The value, or INVALID if the range is empty, not an integer or out of the int range.
+     */
+    public static long parse(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        if (i == to) return INVALID;
+
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buf.get(i) - '0';
+            if (digit < 0 || digit > 9) return INVALID;
+
+            value = value * 10 + digit;
+            if (value > -(long) Integer.MIN_VALUE) return INVALID;
+        }
+
+        return fit(negative ? -value : value);
+    }
+
+    /**
+     * Checks if a parsed value is an actual integer.
+     *
+     * @param value The result of parse().
+     * @return True if it is an int, false if it is INVALID.
+     */
+    public static boolean isValid(long value) {
+        return value != INVALID;
+    }
+
+    /**
+     * Returns a value if it fits in an int, or INVALID otherwise.
+     */
+    private static long fit(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? value : INVALID;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * What a reader needs from the rows of a CSV file: the columns it reads and, optionally, the integer values accepted
+ * in a filter column, such as the office codes in "CD_CARGO". A CSVScanner given a ScanSpec stops tokenizing a row
+ * after the last column needed, and skips the rest of a row as soon as its filter column holds another value.
+ */
+
+package Election.Input;
+
+public class ScanSpec {
+    private int lastColumn;
+    private int filterColumn;
+    private int[] acceptedValues;
+
+    /**
+     * Constructor for a ScanSpec that reads some columns of every row.
+     *
+     * @param columns The indexes of the columns read.
+     */
+    public ScanSpec(int... columns) {
+        this.lastColumn = -1;
+        for (int column : columns) {
+            this.lastColumn = Math.max(lastColumn, column);
+        }
+
+        this.filterColumn = -1;
+        this.acceptedValues = new int[0];
+    }
+
+    /**
+     * Creates a ScanSpec with the same columns that only keeps the rows whose filter column holds one of some values.
+     * Rows whose filter column is missing or not an integer, such as the header, are kept, so the reader can check them.
+     *
+     * @param column The index of the filter column, which is also read.
+     * @param values The accepted values.
+     * @return The new ScanSpec.
+     */
+    public ScanSpec where(int column, int... values) {
+        ScanSpec spec = new ScanSpec(lastColumn, column);
+        spec.filterColumn = column;
+        spec.acceptedValues = values.clone();
+        return spec;
+    }
+
+    /**
+     * Gets the index of the last column read, after which the rest of a row is skipped.
+     *
+     * @return The column index, or -1 if no column is read.
+     */
+    public int getLastColumn() {
+        return lastColumn;
+    }
+
+    /**
+     * Gets the index of the filter column.
+     *
+     * @return The column index, or -1 if every row is kept.
+     */
+    public int getFilterColumn() {
+        return filterColumn;
+    }
+
+    /**
+     * Checks if a value of the filter column is one of the accepted ones.
+     *
+     * @param value The value of the filter column.
+     * @return True if the row is kept, false otherwise.
+     */
+    public boolean accepts(int value) {
+        for (int accepted : acceptedValues) {
+            if (accepted == value) return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Accumulates "QT_VOTOS", and the number of rows, per "NR_VOTAVEL" in primitive arrays, so that a scan over the poll file can sum
+ * its rows without touching the Election until all of them have been read.
+ * A tally may also carry a VoteCube, with the same votes per municipality and zone.
+ */
+
+package Election.Input;
+
+import java.util.Arrays;
+
+import Election.Domain.KeyIndex;
+import Election.Geo.VoteCube;
+
+public class VoteTally {
+    private KeyIndex numbers; // in the order they were first seen
+    private int[] votes;      // at the index of the number
+    private int[] rows;
+    private VoteCube cube; // null unless the votes are also counted per place
+
+    /**
+     * Constructor for the VoteTally class.
+     */
+    public VoteTally() {
+        this.numbers = new KeyIndex(1024);
+        this.votes = new int[1024];
+        this.rows = new int[1024];
+    }
+
+    /**
+     * Constructor for a VoteTally that also counts the votes per municipality and zone, in a VoteCube.
+     *
+     * @param withCube True to count the votes per place too, false for the totals only.
+     */
+    public VoteTally(boolean withCube) {
+        this();
+        if (withCube) this.cube = new VoteCube();
+    }
+
+    /**
+     * Gets the votes per municipality and zone of the tally.
+     *
+     * @return The VoteCube, or null if the tally only has the totals.
+     */
+    public VoteCube getCube() {
+        return cube;
+    }
+
+    /**
+     * Adds votes to a votable number.
+     *
+     * @param votableNumber The number associated with the votable entity.
+     * @param votes         The number of votes to be added.
+     */
+    public void add(int votableNumber, int votes) {
+        add(votableNumber, votes, 1);
+    }
+
+    /**
+     * Adds votes from some rows to a votable number.
+     *
+     * @param votableNumber The number associated with the votable entity.
+     * @param votes         The number of votes to be added.
+     * @param rows          The number of rows the votes came from.
+     */
+    private void add(int votableNumber, int votes, int rows) {
+        int index = numbers.add(votableNumber);
+
+        if (index == this.votes.length) {
+            this.votes = Arrays.copyOf(this.votes, index * 2);
+            this.rows = Arrays.copyOf(this.rows, index * 2);
+        }
+
+        this.votes[index] += votes;
+        this.rows[index] += rows;
+    }
+
+    /**
+     * Adds every tally of another VoteTally to this one, and its votes per place if both tallies count them.
+     *
+     * @param other The VoteTally to be merged.
+     */
+    public void merge(VoteTally other) {
+        for (int i = 0; i < other.size(); i++) {
+            add(other.getNumber(i), other.votes[i], other.rows[i]);
+        }
+
+        if (cube != null && other.cube != null) cube.merge(other.cube);
+    }
+
+    /**
+     * Gets the number of distinct votable numbers in the tally.
+     *
+     * @return The number of distinct votable numbers.
+     */
+    public int size() {
+        return numbers.size();
+    }
+
+    /**
+     * Gets the i-th votable number of the tally, in the order they were first seen.
+     *
+     * @param i The position of the votable number, between 0 and size() - 1.
+     * @return The votable number.
+     */
+    public int getNumber(int i) {
+        return (int) numbers.keyAt(i);
+    }
+
+    /**
+     * Gets the votes summed for the i-th votable number of the tally.
+     *
+     * @param i The position of the votable number, between 0 and size() - 1.
+     * @return The number of votes.
+     */
+    public int getVotes(int i) {
+        return votes[i];
+    }
+
+    /**
+     * Gets the number of rows summed for the i-th votable number of the tally.
+     *
+     * @param i The position of the votable number, between 0 and size() - 1.
+     * @return The number of rows.
+     */
+    public int getRows(int i) {
+        return rows[i];
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * RecordWriter in the CSV format (RFC 4180). Each section starts with a header line naming its columns,
+ * with "section" as the first one, and sections are separated by a blank line.
+ */
+
+package Election.Report;
+
+import java.io.OutputStream;
+
+public class CsvRecordWriter extends RecordWriter {
+    private boolean firstSection = true;
+
+    /**
+     * Constructor for the CsvRecordWriter class.
+     *
+     * @param sink The stream the records are written to, in UTF-8.
+     */
+    public CsvRecordWriter(OutputStream sink) {
+        super(sink);
+    }
+
+    @Override
+    public void beginSection(String section, String... columns) {
+        super.beginSection(section, columns);
+
+        if (!firstSection) out.print("\r\n");
+        firstSection = false;
+
+        out.print("section");
+        for (String c : columns) {
+            out.print(',');
+            writeString(c);
+        }
+        out.print("\r\n");
+    }
+
+    @Override
+    public void beginRecord() {
+        super.beginRecord();
+        writeString(section);
+    }
+
+    @Override
+    public void endRecord() {
+        out.print("\r\n");
+    }
+
+    @Override
+    public RecordWriter value(int value) {
+        nextValue();
+        out.print(value);
+        return this;
+    }
+
+    @Override
+    public RecordWriter value(String value) {
+        nextValue();
+        if (value != null) writeString(value);
+        return this;
+    }
+
+    @Override
+    public RecordWriter value(boolean value) {
+        nextValue();
+        out.print(value ? "true" : "false");
+        return this;
+    }
+
+    @Override
+    public RecordWriter nullValue() {
+        nextValue();
+        return this;
+    }
+
+    /**
+     * Moves to the next column and writes the separator.
+     */
+    private void nextValue() {
+        nextColumn();
+        out.print(',');
+    }
+
+    /**
+     * Writes a CSV field, quoting it only if it contains a separator, a quote or a line break.
+     */
+    private void writeString(String s) {
+        boolean quoted = false;
+
+        for (int i = 0; i < s.length() && !quoted; i++) {
+            char c = s.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quoted) {
+            out.print(s);
+            return;
+        }
+
+        out.print('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') out.print('"');
+            out.print(c);
+        }
+        out.print('"');
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Computes, in a single pass over the ranked candidates, every statistic used by the reports:
+ * elected candidates, the majoritarian top of the ranking, the beneficiaries of the proportional system,
+ * age groups, gender counts and the number of elected candidates per party.
+ */
+
+package Election.Report;
+
+import java.util.Arrays;
+import java.util.List;
+
+import Election.Domain.Candidate;
+import Election.Domain.IntRegistry;
+import Election.Domain.Party;
+
+public class ElectionStatistics {
+    public static final int AGE_GROUPS = 5; // < 30, 30-39, 40-49, 50-59, >= 60
+
+    private RankIndex<Candidate> ranking;
+    private int seats;
+
+    private int[] electedRanks;
+    private int electedCount;
+    private int[] notElectedByMajorityRanks;
+    private int notElectedByMajorityCount;
+    private int[] proportionalBeneficiaryRanks;
+    private int proportionalBeneficiaryCount;
+
+    private int[] ageGroups;
+    private int maleElecteds;
+    private int femaleElecteds;
+
+    private IntRegistry<Party> partyIndex;
+    private int[] electedPerParty;
+
+    /**
+     * Constructor for the ElectionStatistics class.
+     *
+     * @param ranking The ranking of the candidates, from the most to the least voted.
+     * @param parties The parties of the election.
+     * @param seats   The number of available seats.
+     */
+    public ElectionStatistics(RankIndex<Candidate> ranking, List<Party> parties, int seats) {
+        this.ranking = ranking;
+        this.seats = seats;
+
+        this.electedRanks = new int[Math.max(seats, 4)];
+        this.notElectedByMajorityRanks = new int[Math.max(seats, 4)];
+        this.proportionalBeneficiaryRanks = new int[4];
+        this.ageGroups = new int[AGE_GROUPS];
+
+        this.partyIndex = new IntRegistry<Party>(parties.size());
+        for (Party p : parties) {
+            partyIndex.add(p.getPartyNumber(), p);
+        }
+        this.electedPerParty = new int[partyIndex.size()];
+
+        for (int rank = 1; rank <= ranking.size(); rank++) {
+            Candidate c = ranking.get(rank);
+            boolean elected = c.isElected();
+
+            if (elected) {
+                electedRanks = append(electedRanks, electedCount++, rank);
+
+                if (rank > seats) {
+                    proportionalBeneficiaryRanks = append(proportionalBeneficiaryRanks, proportionalBeneficiaryCount++, rank);
+                }
+
+                ageGroups[ageGroup(c.getAge())]++;
+
+                if (c.getGender() == 2) maleElecteds++;
+                else if (c.getGender() == 4) femaleElecteds++;
+
+                int party = partyIndex.indexOf(c.getPartyNumber());
+                if (party >= 0) electedPerParty[party]++;
+            }
+            else if (rank <= seats) {
+                notElectedByMajorityRanks = append(notElectedByMajorityRanks, notElectedByMajorityCount++, rank);
+            }
+        }
+    }
+
+    /**
+     * Stores a value at a position of an array, growing it if needed.
+     */
+    private static int[] append(int[] array, int position, int value) {
+        if (position == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+
+        array[position] = value;
+        return array;
+    }
+
+    /**
+     * Gets the age group of an age.
+     *
+     * @param age The age of the candidate.
+     * @return The index of the age group, from 0 (under 30) to 4 (60 or older).
+     */
+    public static int ageGroup(int age) {
+        if (age < 30) return 0;
+        else if (age < 40) return 1;
+        else if (age < 50) return 2;
+        else if (age < 60) return 3;
+        else return 4;
+    }
+
+    /**
+     * Gets the candidate at a position of the ranking of most voted candidates.
+     *
+     * @param rank The position, starting at 1.
+     * @return The candidate.
+     */
+    public Candidate getCandidate(int rank) {
+        return ranking.get(rank);
+    }
+
+    /**
+     * Gets the number of ranked candidates.
+     *
+     * @return The number of candidates.
+     */
+    public int getNumberOfCandidates() {
+        return ranking.size();
+    }
+
+    /**
+     * Gets the number of candidates in the majoritarian top of the ranking, that is, the number of seats or fewer.
+     *
+     * @return The number of candidates that would be elected in a majoritarian system.
+     */
+    public int getMajoritarianCount() {
+        return Math.min(seats, ranking.size());
+    }
+
+    /**
+     * Gets the number of elected candidates.
+     *
+     * @return The number of elected candidates.
+     */
+    public int getElectedCount() {
+        return electedCount;
+    }
+
+    /**
+     * Gets the ranking position of the i-th elected candidate.
+     *
+     * @param i The index of the elected candidate, from 0 to getElectedCount() - 1.
+     * @return The position in the ranking of most voted candidates.
+     */
+    public int getElectedRank(int i) {
+        return electedRanks[i];
+    }
+
+    /**
+     * Gets the number of candidates who would have been elected in a majoritarian system but weren't.
+     *
+     * @return The number of such candidates.
+     */
+    public int getNotElectedByMajorityCount() {
+        return notElectedByMajorityCount;
+    }
+
+    /**
+     * Gets the ranking position of the i-th candidate who would have been elected in a majoritarian system but wasn't.
+     *
+     * @param i The index of the candidate, from 0 to getNotElectedByMajorityCount() - 1.
+     * @return The position in the ranking of most voted candidates.
+     */
+    public int getNotElectedByMajorityRank(int i) {
+        return notElectedByMajorityRanks[i];
+    }
+
+    /**
+     * Gets the number of elected candidates who benefited from the proportional system.
+     *
+     * @return The number of such candidates.
+     */
+    public int getProportionalBeneficiaryCount() {
+        return proportionalBeneficiaryCount;
+    }
+
+    /**
+     * Gets the ranking position of the i-th elected candidate who benefited from the proportional system.
+     *
+     * @param i The index of the candidate, from 0 to getProportionalBeneficiaryCount() - 1.
+     * @return The position in the ranking of most voted candidates.
+     */
+    public int getProportionalBeneficiaryRank(int i) {
+        return proportionalBeneficiaryRanks[i];
+    }
+
+    /**
+     * Gets the number of elected candidates in an age group.
+     *
+     * @param group The index of the age group, from 0 (under 30) to 4 (60 or older).
+     * @return The number of elected candidates.
+     */
+    public int getAgeGroup(int group) {
+        return ageGroups[group];
+    }
+
+    /**
+     * Gets the number of elected male candidates.
+     *
+     * @return The number of elected male candidates.
+     */
+    public int getMaleElecteds() {
+        return maleElecteds;
+    }
+
+    /**
+     * Gets the number of elected female candidates.
+     *
+     * @return The number of elected female candidates.
+     */
+    public int getFemaleElecteds() {
+        return femaleElecteds;
+    }
+
+    /**
+     * Gets the number of elected candidates of a party.
+     *
+     * @param partyNumber The party number.
+     * @return The number of elected candidates.
+     */
+    public int getElectedsOfParty(int partyNumber) {
+        int party = partyIndex.indexOf(partyNumber);
+        return party >= 0 ? electedPerParty[party] : 0;
+    }
+}
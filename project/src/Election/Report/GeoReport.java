@@ -0,0 +1,199 @@
+/**
+ * Generates the geographic reports of an election from its VoteCube: the municipalities where each elected candidate
+ * got the most votes, and the electoral zones where each party got the largest share of the valid votes.
+ * Both are rollups of the cube, written as text through a ReportWriter or as records through a RecordWriter.
+ */
+
+package Election.Report;
+
+import java.util.List;
+
+import Election.Election;
+import Election.Domain.Candidate;
+import Election.Domain.Party;
+import Election.Geo.VoteCube;
+
+public class GeoReport {
+    private String office;
+    private VoteCube cube;
+    private int limit;
+    private List<Party> sortParties;
+    private ElectionStatistics statistics;
+    private Party[] votableParty; // the party receiving the votes of each votable number of the cube, or null
+    private int[] zoneValidVotes;
+
+    /**
+     * Constructor for the GeoReport class.
+     *
+     * @param poll  The Election object to generate reports for, with its VoteCube.
+     * @param limit The number of municipalities or zones listed per candidate or party.
+     * @throws IllegalArgumentException if the votes of the election were not counted per place.
+     */
+    public GeoReport(Election poll, int limit) {
+        if (poll.getVoteCube() == null) {
+            throw new IllegalArgumentException("The votes of the election (" + poll.getOfficeOption() + ") were not counted per place");
+        }
+
+        this.office = poll.getOfficeOption().replace("-", "");
+        this.cube = poll.getVoteCube();
+        this.limit = limit;
+
+        RankIndex<Candidate> candidateRanking = RankIndex.ofCandidates(poll.getCandidates());
+        this.sortParties = RankIndex.ofParties(poll.getParties()).asList();
+        this.statistics = new ElectionStatistics(candidateRanking, sortParties, poll.getSeats());
+
+        this.votableParty = new Party[cube.getVotableCount()];
+        boolean[] valid = new boolean[cube.getVotableCount()];
+
+        for (int v = 0; v < votableParty.length; v++) {
+            votableParty[v] = poll.getVoteParty(cube.getVotableNumber(v));
+            valid[v] = votableParty[v] != null;
+        }
+
+        this.zoneValidVotes = cube.votesByZone(valid);
+    }
+
+    /**
+     * Generates a report listing, for each elected candidate, the municipalities with the most votes for them.
+     *
+     * @param out The writer the report is written to.
+     */
+    public void printMunicipalities(ReportWriter out) {
+        out.println("Municípios com mais votos de cada eleito:");
+
+        for (int i = 0; i < statistics.getElectedCount(); i++) {
+            Candidate c = statistics.getCandidate(statistics.getElectedRank(i));
+            int[] votes = municipalityVotes(c);
+
+            out.print(i + 1).print(" - ").print(c.changeName()).print(" (").print(c.getPartyAcronym()).print(", ").printNumber(c.getNominalVotes()).println(" votos)");
+
+            for (int m : VoteCube.top(votes, limit)) {
+                double percentage = (double) votes[m] / (double) c.getNominalVotes() * 100;
+                out.print("    ").print(cube.getMunicipalityName(m)).print(": ").printNumber(votes[m]);
+                out.print(votes[m] > 1 ? " votos (" : " voto (").printDecimal(percentage).println("%)");
+            }
+        }
+
+        out.print("\n");
+    }
+
+    /**
+     * Generates a report listing, for each party with votes, the electoral zones where it got the largest share of the valid votes.
+     *
+     * @param out The writer the report is written to.
+     */
+    public void printZones(ReportWriter out) {
+        out.println("Zonas eleitorais com a maior participação de cada partido:");
+
+        for (Party p : sortParties) {
+            if (p.getTotalVotes() == 0) continue;
+
+            int[] votes = zoneVotes(p);
+
+            out.print(p.getPartyAcronym()).print(" - ").print(p.getPartyNumber()).print(", ").printNumber(p.getTotalVotes());
+            out.println(p.getTotalVotes() > 1 ? " votos" : " voto");
+
+            for (int z : VoteCube.top(zoneShares(votes), limit)) {
+                double percentage = (double) votes[z] / (double) zoneValidVotes[z] * 100;
+                out.print("    Zona ").print(cube.getZoneNumber(z)).print(": ").printNumber(votes[z]);
+                out.print(votes[z] > 1 ? " votos (" : " voto (").printDecimal(percentage).println("% dos votos válidos da zona)");
+            }
+        }
+
+        out.print("\n");
+    }
+
+    /**
+     * Writes the section "candidate_municipalities": the municipalities with the most votes for each elected candidate.
+     *
+     * @param out The writer the records are written to.
+     */
+    public void writeMunicipalities(RecordWriter out) {
+        out.beginSection("candidate_municipalities", "office", "position", "candidate_number", "ballot_name", "rank",
+                         "municipality_code", "municipality_name", "votes", "nominal_votes");
+
+        for (int i = 0; i < statistics.getElectedCount(); i++) {
+            Candidate c = statistics.getCandidate(statistics.getElectedRank(i));
+            int[] votes = municipalityVotes(c);
+            int rank = 1;
+
+            for (int m : VoteCube.top(votes, limit)) {
+                out.beginRecord();
+                out.value(office).value(i + 1).value(c.getCandidateNumber()).value(c.getBallotName()).value(rank++)
+                   .value(cube.getMunicipalityCode(m)).value(cube.getMunicipalityName(m)).value(votes[m]).value(c.getNominalVotes());
+                out.endRecord();
+            }
+        }
+    }
+
+    /**
+     * Writes the section "party_zones": the electoral zones where each party got the largest share of the valid votes.
+     *
+     * @param out The writer the records are written to.
+     */
+    public void writeZones(RecordWriter out) {
+        out.beginSection("party_zones", "office", "party_number", "party_acronym", "rank", "zone", "votes", "zone_valid_votes");
+
+        for (Party p : sortParties) {
+            if (p.getTotalVotes() == 0) continue;
+
+            int[] votes = zoneVotes(p);
+            int rank = 1;
+
+            for (int z : VoteCube.top(zoneShares(votes), limit)) {
+                out.beginRecord();
+                out.value(office).value(p.getPartyNumber()).value(p.getPartyAcronym()).value(rank++)
+                   .value(cube.getZoneNumber(z)).value(votes[z]).value(zoneValidVotes[z]);
+                out.endRecord();
+            }
+        }
+    }
+
+    /**
+     * Sums the votes of a candidate per municipality.
+     *
+     * @param c The candidate.
+     * @return The votes per municipality index of the cube.
+     */
+    private int[] municipalityVotes(Candidate c) {
+        boolean[] selected = new boolean[cube.getVotableCount()];
+
+        int votable = cube.indexOfVotable(c.getCandidateNumber());
+        if (votable >= 0) selected[votable] = true;
+
+        return cube.votesByMunicipality(selected);
+    }
+
+    /**
+     * Sums the votes of a party per zone: its list votes and the votes of its candidates.
+     *
+     * @param p The party.
+     * @return The votes per zone index of the cube.
+     */
+    private int[] zoneVotes(Party p) {
+        boolean[] selected = new boolean[votableParty.length];
+
+        for (int v = 0; v < votableParty.length; v++) {
+            selected[v] = votableParty[v] == p;
+        }
+
+        return cube.votesByZone(selected);
+    }
+
+    /**
+     * Turns the votes of a party per zone into its share of each zone's valid votes, in parts per million,
+     * so the zones can be ranked by share with VoteCube.top.
+     *
+     * @param votes The votes of the party per zone.
+     * @return The share per zone index.
+     */
+    private int[] zoneShares(int[] votes) {
+        int[] shares = new int[votes.length];
+
+        for (int z = 0; z < votes.length; z++) {
+            if (zoneValidVotes[z] > 0) shares[z] = (int) ((long) votes[z] * 1000000 / zoneValidVotes[z]);
+        }
+
+        return shares;
+    }
+}
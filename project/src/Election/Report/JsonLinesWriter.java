@@ -0,0 +1,92 @@
+/**
+ * RecordWriter in the JSON Lines format: one JSON object per record and per line, holding the section name
+ * followed by the columns of the record, as in {"section":"seats","office":"federal","seats":70}.
+ */
+
+package Election.Report;
+
+import java.io.OutputStream;
+
+public class JsonLinesWriter extends RecordWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Constructor for the JsonLinesWriter class.
+     *
+     * @param sink The stream the records are written to, in UTF-8.
+     */
+    public JsonLinesWriter(OutputStream sink) {
+        super(sink);
+    }
+
+    @Override
+    public void beginRecord() {
+        super.beginRecord();
+        out.print("{\"section\":");
+        writeString(section);
+    }
+
+    @Override
+    public void endRecord() {
+        out.print('}').print('\n');
+    }
+
+    @Override
+    public RecordWriter value(int value) {
+        writeName();
+        out.print(value);
+        return this;
+    }
+
+    @Override
+    public RecordWriter value(String value) {
+        if (value == null) return nullValue();
+
+        writeName();
+        writeString(value);
+        return this;
+    }
+
+    @Override
+    public RecordWriter value(boolean value) {
+        writeName();
+        out.print(value ? "true" : "false");
+        return this;
+    }
+
+    @Override
+    public RecordWriter nullValue() {
+        writeName();
+        out.print("null");
+        return this;
+    }
+
+    /**
+     * Writes the name of the next column, preceded by the separator.
+     */
+    private void writeName() {
+        out.print(',');
+        writeString(nextColumn());
+        out.print(':');
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control characters.
+     */
+    private void writeString(String s) {
+        out.print('"');
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (c == '"' || c == '\\') out.print('\\').print(c);
+            else if (c == '\n') out.print("\\n");
+            else if (c == '\r') out.print("\\r");
+            else if (c == '\t') out.print("\\t");
+            else if (c < 0x20) out.print("\\u00").print(HEX[c >> 4]).print(HEX[c & 0xF]);
+            else out.print(c);
+        }
+
+        out.print('"');
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Aggregates the results of the same office over several states into national totals: seats, valid, nominal and
+ * list votes, and the votes and elected candidates of each party, matched across states by party number.
+ */
+
+package Election.Report;
+
+import java.util.Arrays;
+
+import Election.Election;
+import Election.Domain.IntRegistry;
+import Election.Domain.Party;
+
+public class NationalReport {
+    private String officeOption;
+    private int states;
+    private int seats;
+    private int listVotes;
+    private int nominalVotes;
+    private IntRegistry<PartyTotals> parties;
+
+    /**
+     * Totals of a party over every state.
+     */
+    private static class PartyTotals {
+        private int number;
+        private String acronym;
+        private int listVotes;
+        private int nominalVotes;
+        private int electeds;
+
+        private int getTotalVotes() {
+            return listVotes + nominalVotes;
+        }
+    }
+
+    /**
+     * Constructor for the NationalReport class.
+     *
+     * @param officeOption The office option of the aggregated elections.
+     */
+    public NationalReport(String officeOption) {
+        this.officeOption = officeOption;
+        this.parties = new IntRegistry<PartyTotals>(64);
+    }
+
+    /**
+     * Adds the results of a state to the national totals.
+     *
+     * @param poll The Election of the state, after its votes have been read.
+     */
+    public void add(Election poll) {
+        states++;
+        seats += poll.getSeats();
+        listVotes += poll.getListVotes();
+        nominalVotes += poll.getNominalVotes();
+
+        for (Party p : poll.getParties()) {
+            PartyTotals totals = parties.get(p.getPartyNumber());
+
+            if (totals == null) {
+                totals = new PartyTotals();
+                totals.number = p.getPartyNumber();
+                totals.acronym = p.getPartyAcronym();
+                parties.add(totals.number, totals);
+            }
+
+            totals.listVotes += p.getListVotes();
+            totals.nominalVotes += p.getNominalVotes();
+            totals.electeds += p.getNumberOfElecteds();
+        }
+    }
+
+    /**
+     * Gets the parties sorted by total votes and, on ties, by party number, as in the state reports.
+     */
+    private PartyTotals[] sortedParties() {
+        PartyTotals[] sorted = parties.values().toArray(new PartyTotals[0]);
+
+        Arrays.sort(sorted, (a, b) -> {
+            int voteResult = Integer.compare(b.getTotalVotes(), a.getTotalVotes());
+            if (voteResult != 0) return voteResult;
+
+            return Integer.compare(a.number, b.number);
+        });
+
+        return sorted;
+    }
+
+    /**
+     * Writes the national results as text.
+     *
+     * @param out The writer the report is written to.
+     */
+    public void print(ReportWriter out) {
+        int totalVotes = listVotes + nominalVotes;
+
+        if (officeOption.equals("--federal")) out.print("Resultado nacional, deputados federais (");
+        else out.print("Resultado nacional, deputados estaduais (");
+        out.print(states).println(states == 1 ? " estado):" : " estados):");
+
+        out.print("Número de vagas: ").printNumber(seats).print("\n").println();
+
+        out.println("Votação dos partidos e número de candidatos eleitos:");
+
+        int pos = 1;
+        for (PartyTotals p : sortedParties()) {
+            out.print(pos++).print(" - ").print(p.acronym).print(" - ").print(p.number).print(", ");
+            out.printNumber(p.getTotalVotes()).print(p.getTotalVotes() == 0 ? " voto (" : " votos (");
+            out.printNumber(p.nominalVotes).print(p.nominalVotes == 0 ? " nominal e " : " nominais e ");
+            out.printNumber(p.listVotes).print(" de legenda), ").print(p.electeds);
+            out.println(p.electeds > 1 ? " candidatos eleitos" : " candidato eleito");
+        }
+        out.print("\n");
+
+        out.print("Total de votos válidos:\t").printNumber(totalVotes);
+        out.print("\nTotal de votos nominais:\t").printNumber(nominalVotes).print(" (").printDecimal((double) nominalVotes / (double) totalVotes * 100).print("%)");
+        out.print("\nTotal de votos de legenda:\t").printNumber(listVotes).print(" (").printDecimal((double) listVotes / (double) totalVotes * 100).print("%)");
+        out.println();
+    }
+
+    /**
+     * Writes the national results as machine-readable records, in the sections "national_party_votes"
+     * and "national_vote_totals".
+     *
+     * @param out The writer the records are written to.
+     */
+    public void write(RecordWriter out) {
+        String office = officeOption.replace("-", "");
+
+        out.beginSection("national_party_votes", "office", "position", "party_number", "party_acronym", "total_votes", "nominal_votes", "list_votes", "elected");
+
+        int pos = 1;
+        for (PartyTotals p : sortedParties()) {
+            out.beginRecord();
+            out.value(office).value(pos++).value(p.number).value(p.acronym)
+               .value(p.getTotalVotes()).value(p.nominalVotes).value(p.listVotes).value(p.electeds);
+            out.endRecord();
+        }
+
+        out.beginSection("national_vote_totals", "office", "states", "seats", "valid_votes", "nominal_votes", "list_votes");
+        out.beginRecord();
+        out.value(office).value(states).value(seats).value(listVotes + nominalVotes).value(nominalVotes).value(listVotes);
+        out.endRecord();
+    }
+}
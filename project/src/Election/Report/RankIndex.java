@@ -0,0 +1,256 @@
+/**
+ * Ranking of candidates or parties, built by packing each element's ordering key into a primitive long and
+ * radix-sorting the keys, instead of sorting object lists with a comparator.
+ * The lowest bits of every key hold the element's original index, so ties keep the original order,
+ * just like the stable Collections.sort did.
+ *
+ * @param <T> The type of the ranked elements.
+ */
+
+package Election.Report;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import Election.VoteView;
+import Election.Domain.Candidate;
+import Election.Domain.IntRegistry;
+import Election.Domain.Party;
+
+public class RankIndex<T> {
+    private static final int INDEX_BITS = 22;
+    private static final int TIE_BITS = 10;
+    private static final int MAX_ELEMENTS = 1 << INDEX_BITS;
+    private static final int MAX_TIE = (1 << TIE_BITS) - 1;
+    private static final long INDEX_MASK = MAX_ELEMENTS - 1;
+    private static final int RADIX_BITS = 16;
+    private static final int SMALL_SORT = 64; // below this size a plain sort is faster than radix passes
+
+    private Object[] ranked;
+    private int[] rankByIndex;
+    private IntRegistry<T> byId;
+
+    /**
+     * Builds the ranking of the candidates of an election: most nominal votes first and, on ties, the oldest first.
+     * Negative vote counts are ranked as zero.
+     *
+     * @param candidates The candidates to be ranked.
+     * @return The ranking of the candidates, searchable by candidate number.
+     */
+    public static RankIndex<Candidate> ofCandidates(Collection<Candidate> candidates) {
+        return new RankIndex<Candidate>(candidates, Candidate::getNominalVotes, Candidate::getAge, Candidate::getCandidateNumber, true);
+    }
+
+    /**
+     * Builds the ranking of the candidates of an election with the votes of a view, such as a scenario over it.
+     *
+     * @param candidates The candidates to be ranked.
+     * @param votes      The votes of the candidates.
+     * @return The ranking of the candidates, searchable by candidate number.
+     */
+    public static RankIndex<Candidate> ofCandidates(Collection<Candidate> candidates, VoteView votes) {
+        return new RankIndex<Candidate>(candidates, votes::getNominalVotes, Candidate::getAge, Candidate::getCandidateNumber, true);
+    }
+
+    /**
+     * Builds the ranking of the parties of an election: most total votes first and, on ties, the lowest party number first.
+     *
+     * @param parties The parties to be ranked.
+     * @return The ranking of the parties, searchable by party number.
+     */
+    public static RankIndex<Party> ofParties(Collection<Party> parties) {
+        return new RankIndex<Party>(parties, Party::getTotalVotes, Party::getPartyNumber, Party::getPartyNumber, false);
+    }
+
+    /**
+     * Builds the ranking of the parties of an election with the votes of a view, such as a scenario over it.
+     *
+     * @param parties The parties to be ranked.
+     * @param votes   The votes of the parties.
+     * @return The ranking of the parties, searchable by party number.
+     */
+    public static RankIndex<Party> ofParties(Collection<Party> parties, VoteView votes) {
+        return new RankIndex<Party>(parties, votes::getTotalVotes, Party::getPartyNumber, Party::getPartyNumber, false);
+    }
+
+    /**
+     * Constructor for the RankIndex class.
+     *
+     * @param elements      The elements to be ranked.
+     * @param votes         The votes of an element; more votes rank first.
+     * @param tieBreak      The tie-break value of an element, between 0 and 1023 (values outside are clamped).
+     * @param id            The number that identifies an element, for rankOf().
+     * @param tieDescending True if a greater tie-break value ranks first, false if a smaller one does.
+     */
+    private RankIndex(Collection<T> elements, ToIntFunction<T> votes, ToIntFunction<T> tieBreak, ToIntFunction<T> id, boolean tieDescending) {
+        int n = elements.size();
+        if (n > MAX_ELEMENTS) {
+            throw new IllegalArgumentException("Cannot rank more than " + MAX_ELEMENTS + " elements: " + n);
+        }
+
+        Object[] original = elements.toArray();
+        long[] keys = new long[n];
+        this.byId = new IntRegistry<T>(n);
+
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            T element = (T) original[i];
+
+            long voteKey = Integer.MAX_VALUE - Math.max(0, votes.applyAsInt(element));
+            int tie = Math.min(MAX_TIE, Math.max(0, tieBreak.applyAsInt(element)));
+            long tieKey = tieDescending ? MAX_TIE - tie : tie;
+
+            keys[i] = voteKey << (TIE_BITS + INDEX_BITS) | tieKey << INDEX_BITS | i;
+            byId.add(id.applyAsInt(element), element);
+        }
+
+        sort(keys);
+
+        this.ranked = new Object[n];
+        this.rankByIndex = new int[n];
+
+        for (int r = 0; r < n; r++) {
+            int index = (int) (keys[r] & INDEX_MASK);
+            ranked[r] = original[index];
+            rankByIndex[index] = r + 1;
+        }
+    }
+
+    /**
+     * Sorts packed keys in ascending order, with a least significant digit radix sort that skips the digits
+     * shared by every key (such as the high bits of the vote counts).
+     *
+     * @param keys The non-negative keys to be sorted.
+     */
+    static void sort(long[] keys) {
+        int n = keys.length;
+        if (n < SMALL_SORT) {
+            Arrays.sort(keys);
+            return;
+        }
+
+        long[] source = keys;
+        long[] target = new long[n];
+        int[] counts = new int[1 << RADIX_BITS];
+        int mask = (1 << RADIX_BITS) - 1;
+
+        for (int shift = 0; shift < Long.SIZE - 1; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+
+            for (int i = 0; i < n; i++) {
+                counts[(int) (source[i] >>> shift) & mask]++;
+            }
+
+            if (counts[(int) (source[0] >>> shift) & mask] == n) continue; // every key has the same digit
+
+            int sum = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int count = counts[d];
+                counts[d] = sum;
+                sum += count;
+            }
+
+            for (int i = 0; i < n; i++) {
+                long key = source[i];
+                target[counts[(int) (key >>> shift) & mask]++] = key;
+            }
+
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != keys) {
+            System.arraycopy(source, 0, keys, 0, n);
+        }
+    }
+
+    /**
+     * Gets the number of ranked elements.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        return ranked.length;
+    }
+
+    /**
+     * Gets the element at a position of the ranking.
+     *
+     * @param rank The position, starting at 1.
+     * @return The element.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int rank) {
+        return (T) ranked[rank - 1];
+    }
+
+    /**
+     * Gets the position of an element in the ranking.
+     *
+     * @param id The number that identifies the element (candidate or party number).
+     * @return The position, starting at 1, or 0 if there is no such element.
+     */
+    public int rankOf(int id) {
+        int index = byId.indexOf(id);
+        return index >= 0 ? rankByIndex[index] : 0;
+    }
+
+    /**
+     * Gets a read-only view of the first elements of the ranking.
+     *
+     * @param k The number of elements.
+     * @return The top k elements (or all of them, if there are fewer), in ranking order.
+     */
+    public List<T> top(int k) {
+        int size = Math.max(0, Math.min(k, ranked.length));
+
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                return RankIndex.this.get(index + 1);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Gets a read-only view of the whole ranking.
+     *
+     * @return Every element, in ranking order.
+     */
+    public List<T> asList() {
+        return top(ranked.length);
+    }
+
+    /**
+     * Finds the positions of the elements that satisfy a condition, inside a range of the ranking.
+     * For example, select(Candidate::isElected, seats + 1, size()) gives the elected candidates ranked below the number of seats.
+     *
+     * @param condition The condition.
+     * @param fromRank  The first position of the range, starting at 1.
+     * @param toRank    The last position of the range, inclusive.
+     * @return The positions of the matching elements, in ranking order.
+     */
+    public int[] select(Predicate<? super T> condition, int fromRank, int toRank) {
+        int from = Math.max(1, fromRank);
+        int to = Math.min(ranked.length, toRank);
+        int[] ranks = new int[Math.max(0, to - from + 1)];
+        int count = 0;
+
+        for (int r = from; r <= to; r++) {
+            if (condition.test(get(r))) ranks[count++] = r;
+        }
+
+        return Arrays.copyOf(ranks, count);
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Writes the same sections as Report, in a machine-readable format, through a RecordWriter.
+ * Values are taken directly from the domain getters and the VoteView: raw integers instead of pt-BR formatted numbers,
+ * and counts with their totals instead of percentages.
+ */
+
+package Election.Report;
+
+import java.util.List;
+
+import Election.Election;
+import Election.VoteView;
+import Election.Domain.Candidate;
+import Election.Domain.Party;
+
+public class RecordReport {
+    private static final String[] CANDIDATE_COLUMNS = {
+        "office", "position", "rank", "candidate_number", "ballot_name", "federated", "party_number", "party_acronym", "nominal_votes", "elected"
+    };
+
+    private Election poll;
+    private VoteView votes;
+    private String office;
+    private List<Party> sortParties;
+    private ElectionStatistics statistics;
+    private RecordWriter out;
+
+    /**
+     * Constructor for the RecordReport class.
+     *
+     * @param poll The Election object to generate reports for.
+     * @param out  The writer the records are written to. It is not flushed by the reports.
+     */
+    public RecordReport(Election poll, RecordWriter out) {
+        this(poll, poll, out);
+    }
+
+    /**
+     * Constructor for the RecordReport class, with the votes of a scenario.
+     *
+     * @param poll  The Election object to generate reports for.
+     * @param votes The votes to be reported: the election itself or a scenario over it.
+     * @param out   The writer the records are written to. It is not flushed by the reports.
+     */
+    public RecordReport(Election poll, VoteView votes, RecordWriter out) {
+        this.poll = poll;
+        this.votes = votes;
+        this.office = poll.getOfficeOption().replace("-", "");
+        this.out = out;
+
+        RankIndex<Candidate> candidateRanking = RankIndex.ofCandidates(poll.getCandidates(), votes);
+        this.sortParties = RankIndex.ofParties(poll.getParties(), votes).asList();
+        this.statistics = new ElectionStatistics(candidateRanking, sortParties, poll.getSeats());
+    }
+
+    /**
+     * Writes the section "seats": the number of available seats.
+     */
+    public void report1() {
+        out.beginSection("seats", "office", "seats");
+        out.beginRecord();
+        out.value(office).value(poll.getSeats());
+        out.endRecord();
+    }
+
+    /**
+     * Writes the section "elected": the elected candidates, in ranking order.
+     */
+    public void report2() {
+        out.beginSection("elected", CANDIDATE_COLUMNS);
+
+        for (int i = 0; i < statistics.getElectedCount(); i++) {
+            writeCandidate(i + 1, statistics.getElectedRank(i));
+        }
+    }
+
+    /**
+     * Writes the section "most_voted": the most voted candidates, up to the number of seats.
+     */
+    public void report3() {
+        out.beginSection("most_voted", CANDIDATE_COLUMNS);
+
+        for (int pos = 1; pos <= statistics.getMajoritarianCount(); pos++) {
+            writeCandidate(pos, pos);
+        }
+    }
+
+    /**
+     * Writes the section "not_elected_by_majority": the candidates who would have been elected in a majoritarian system but weren't.
+     */
+    public void report4() {
+        out.beginSection("not_elected_by_majority", CANDIDATE_COLUMNS);
+
+        for (int i = 0; i < statistics.getNotElectedByMajorityCount(); i++) {
+            writeCandidate(i + 1, statistics.getNotElectedByMajorityRank(i));
+        }
+    }
+
+    /**
+     * Writes the section "proportional_beneficiaries": the elected candidates who benefited from the proportional system.
+     */
+    public void report5() {
+        out.beginSection("proportional_beneficiaries", CANDIDATE_COLUMNS);
+
+        for (int i = 0; i < statistics.getProportionalBeneficiaryCount(); i++) {
+            writeCandidate(i + 1, statistics.getProportionalBeneficiaryRank(i));
+        }
+    }
+
+    /**
+     * Writes the section "party_votes": the votes and elected candidates of each party, most voted first.
+     */
+    public void report6() {
+        out.beginSection("party_votes", "office", "position", "party_number", "party_acronym", "total_votes", "nominal_votes", "list_votes", "elected");
+
+        int pos = 1;
+        for (Party p : sortParties) {
+            out.beginRecord();
+            out.value(office).value(pos++).value(p.getPartyNumber()).value(p.getPartyAcronym())
+               .value(votes.getTotalVotes(p)).value(votes.getNominalVotes(p)).value(votes.getListVotes(p))
+               .value(statistics.getElectedsOfParty(p.getPartyNumber()));
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Writes the section "party_first_last": the most and least voted candidates of each party.
+     */
+    public void report7() {
+        out.beginSection("party_first_last", "office", "position", "party_number", "party_acronym",
+                         "first_candidate_number", "first_ballot_name", "first_nominal_votes",
+                         "last_candidate_number", "last_ballot_name", "last_nominal_votes");
+
+        Party[] parties = Report.sortByMostVotedCandidate(sortParties, votes);
+
+        for (int idx = 0; idx < parties.length; idx++) {
+            Candidate first = votes.getMostVotedCandidate(parties[idx]);
+            Candidate last = votes.getLeastVotedCandidate(parties[idx]);
+
+            out.beginRecord();
+            out.value(office).value(idx + 1).value(parties[idx].getPartyNumber()).value(parties[idx].getPartyAcronym())
+               .value(first.getCandidateNumber()).value(first.getBallotName()).value(votes.getNominalVotes(first))
+               .value(last.getCandidateNumber()).value(last.getBallotName()).value(votes.getNominalVotes(last));
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Writes the section "age_groups": the elected candidates per age group, at the date of the election.
+     * The bounds are inclusive, and the last group has no maximum age.
+     */
+    public void report8() {
+        out.beginSection("age_groups", "office", "min_age", "max_age", "elected", "total_elected");
+
+        for (int group = 0; group < ElectionStatistics.AGE_GROUPS; group++) {
+            out.beginRecord();
+            out.value(office);
+
+            if (group == 0) out.nullValue();
+            else out.value(20 + group * 10);
+
+            if (group == ElectionStatistics.AGE_GROUPS - 1) out.nullValue();
+            else out.value(29 + group * 10);
+
+            out.value(statistics.getAgeGroup(group)).value(statistics.getElectedCount());
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Writes the section "gender": the elected candidates per gender.
+     */
+    public void report9() {
+        out.beginSection("gender", "office", "gender", "elected", "seats");
+
+        out.beginRecord();
+        out.value(office).value("feminino").value(statistics.getFemaleElecteds()).value(poll.getSeats());
+        out.endRecord();
+
+        out.beginRecord();
+        out.value(office).value("masculino").value(statistics.getMaleElecteds()).value(poll.getSeats());
+        out.endRecord();
+    }
+
+    /**
+     * Writes the section "vote_totals": the valid, nominal and list votes of the election.
+     */
+    public void report10() {
+        out.beginSection("vote_totals", "office", "valid_votes", "nominal_votes", "list_votes");
+
+        out.beginRecord();
+        out.value(office).value(votes.getTotalVotes()).value(votes.getNominalVotes()).value(votes.getListVotes());
+        out.endRecord();
+    }
+
+    /**
+     * Writes the record of a ranked candidate.
+     *
+     * @param pos  The position of the candidate in the section.
+     * @param rank The position of the candidate in the ranking of most voted candidates.
+     */
+    private void writeCandidate(int pos, int rank) {
+        Candidate c = statistics.getCandidate(rank);
+
+        out.beginRecord();
+        out.value(office).value(pos).value(rank).value(c.getCandidateNumber()).value(c.getBallotName())
+           .value(c.getFederationNumber() != -1).value(c.getPartyNumber()).value(c.getPartyAcronym())
+           .value(votes.getNominalVotes(c)).value(c.isElected());
+        out.endRecord();
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Streaming writer of machine-readable report records. Each report section declares its columns once and then
+ * writes its records value by value, straight from the domain getters into a buffered ReportWriter,
+ * without building intermediate objects or strings.
+ */
+
+package Election.Report;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public abstract class RecordWriter {
+    protected ReportWriter out;
+    protected String section;
+    protected String[] columns;
+    protected int column;
+
+    /**
+     * Constructor for the RecordWriter class.
+     *
+     * @param sink The stream the records are written to, in UTF-8.
+     */
+    protected RecordWriter(OutputStream sink) {
+        this.out = new ReportWriter(sink, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates the RecordWriter of a format.
+     *
+     * @param format The format: "jsonl" (JSON Lines) or "csv".
+     * @param sink   The stream the records are written to.
+     * @return The RecordWriter, or null if the format is unknown.
+     */
+    public static RecordWriter of(String format, OutputStream sink) {
+        if (format.equals("jsonl")) return new JsonLinesWriter(sink);
+        else if (format.equals("csv")) return new CsvRecordWriter(sink);
+        else return null;
+    }
+
+    /**
+     * Starts a section of records. Every record of the section has the given columns, in this order.
+     *
+     * @param section The name of the section.
+     * @param columns The names of the columns.
+     */
+    public void beginSection(String section, String... columns) {
+        this.section = section;
+        this.columns = columns;
+    }
+
+    /**
+     * Starts a record of the current section.
+     */
+    public void beginRecord() {
+        column = 0;
+    }
+
+    /**
+     * Ends the current record.
+     */
+    public abstract void endRecord();
+
+    /**
+     * Writes the next value of the current record as an integer.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public abstract RecordWriter value(int value);
+
+    /**
+     * Writes the next value of the current record as text.
+     *
+     * @param value The value, or null if there is none.
+     * @return This writer.
+     */
+    public abstract RecordWriter value(String value);
+
+    /**
+     * Writes the next value of the current record as a boolean.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public abstract RecordWriter value(boolean value);
+
+    /**
+     * Writes an empty next value of the current record.
+     *
+     * @return This writer.
+     */
+    public abstract RecordWriter nullValue();
+
+    /**
+     * Writes every buffered record to the sink.
+     */
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Gets the name of the next column of the current record and moves past it.
+     *
+     * @return The name of the column.
+     */
+    protected String nextColumn() {
+        if (column >= columns.length) {
+            throw new IllegalStateException("Too many values in a record of section " + section);
+        }
+
+        return columns[column++];
+    }
+}
@@ -1,357 +1,284 @@
 /**
  * This class generates various reports based on the provided Election data.
+ * The reports are written through a ReportWriter, which buffers the text and formats the numbers in pt-BR.
+ * The votes are read through a VoteView, which is the election itself or a what-if ElectionScenario over it.
  */
 
 package Election.Report;
 
-import java.text.NumberFormat;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 
 import Election.Election;
+import Election.VoteView;
 import Election.Domain.Candidate;
 import Election.Domain.Party;
 
 public class Report {
     private Election poll;
-    private List<Candidate> sortCandidates;
+    private VoteView votes;
+    private RankIndex<Candidate> candidateRanking;
     private List<Party> sortParties;
+    private ElectionStatistics statistics;
     private int seats;
+    private ReportWriter out;
 
     /**
-     * Constructor for the Report class.
+     * Constructor for the Report class, writing to standard output.
      *
      * @param poll The Election object to generate reports for.
      */
     public Report(Election poll) {
+        this(poll, new ReportWriter());
+    }
+
+    /**
+     * Constructor for the Report class.
+     *
+     * @param poll The Election object to generate reports for.
+     * @param out  The writer the reports are written to. It is not flushed by the reports.
+     */
+    public Report(Election poll, ReportWriter out) {
+        this(poll, poll, out);
+    }
+
+    /**
+     * Constructor for the Report class, with the votes of a scenario.
+     *
+     * @param poll  The Election object to generate reports for.
+     * @param votes The votes to be reported: the election itself or a scenario over it.
+     * @param out   The writer the reports are written to. It is not flushed by the reports.
+     */
+    public Report(Election poll, VoteView votes, ReportWriter out) {
         this.poll = poll;
+        this.votes = votes;
         this.seats = poll.getSeats();
+        this.out = out;
 
-        this.sortCandidates = poll.getCandidates();
-        Collections.sort(this.sortCandidates);
+        this.candidateRanking = RankIndex.ofCandidates(poll.getCandidates(), votes);
+        this.sortParties = RankIndex.ofParties(poll.getParties(), votes).asList();
 
-        this.sortParties = poll.getParties();
-        Collections.sort(this.sortParties);
+        this.statistics = new ElectionStatistics(this.candidateRanking, this.sortParties, this.seats);
+    }
 
+    /**
+     * Gets the writer the reports are written to.
+     *
+     * @return The ReportWriter.
+     */
+    public ReportWriter getWriter() {
+        return out;
     }
 
     /**
      * Generates a report showing the number of available seats in the election.
      */
     public void report1() {
-        NumberFormat n = portugueseFormat();
-
-        System.out.println("Número de vagas: " + n.format(poll.getSeats()) + "\n");
+        out.print("Número de vagas: ").printNumber(poll.getSeats()).print("\n").println();
     }
 
     /**
      * Generates a report listing elected candidates for a specified office option.
      */
     public void report2() {
-        NumberFormat n = portugueseFormat();
-
         if (poll.getOfficeOption().equals("--federal")) 
-            System.out.println("Deputados federais eleitos:");
+            out.println("Deputados federais eleitos:");
 
         else if (poll.getOfficeOption().equals("--estadual")) 
-            System.out.println("Deputados estaduais eleitos:");
+            out.println("Deputados estaduais eleitos:");
 
-        int pos = 1;
-        for (Candidate c : sortCandidates) {
-            if (c.isElected()) {
-                System.out.println(pos + " - " + c.changeName() + " (" + c.getPartyAcronym() + ", " + n.format(c.getNominalVotes()) + " votos)");
-                pos++;
-            }
+        for (int i = 0; i < statistics.getElectedCount(); i++) {
+            printCandidateLine(i + 1, statistics.getCandidate(statistics.getElectedRank(i)));
         }
-        System.out.print("\n");
+        out.print("\n");
     }
 
     /**
      * Generates a report listing the most voted candidates, respecting the number of available seats.
      */
     public void report3() {
-        NumberFormat n = portugueseFormat();
-
-        System.out.println("Candidatos mais votados (em ordem decrescente de votação e respeitando número de vagas):");
+        out.println("Candidatos mais votados (em ordem decrescente de votação e respeitando número de vagas):");
 
-        int pos = 1; 
-        for (Candidate c : sortCandidates) {
-            if (pos > this.seats) break;
-            System.out.println(pos + " - " + c.changeName() + " (" + c.getPartyAcronym() + ", " + n.format(c.getNominalVotes()) + " votos)");
-            pos++;
+        for (int pos = 1; pos <= statistics.getMajoritarianCount(); pos++) {
+            printCandidateLine(pos, statistics.getCandidate(pos));
         }
 
-        System.out.print("\n");
+        out.print("\n");
     }
 
     /**
      * Generates a report listing candidates who would have been elected in a majoritarian system but weren't.
      */
     public void report4() {
-        NumberFormat n = portugueseFormat();
-
-        System.out.println("Teriam sido eleitos se a votação fosse majoritária, e não foram eleitos:\n(com sua posição no ranking de mais votados)");
+        out.println("Teriam sido eleitos se a votação fosse majoritária, e não foram eleitos:\n(com sua posição no ranking de mais votados)");
 
-        int pos = 1; 
-        for (Candidate c : sortCandidates) {
-            if (pos > this.seats) break;
-
-            if (!c.isElected()) {
-                System.out.println(pos + " - " + c.changeName() + " (" + c.getPartyAcronym() + ", " + n.format(c.getNominalVotes()) + " votos)");  
-            }
-            pos++;
-            
+        for (int i = 0; i < statistics.getNotElectedByMajorityCount(); i++) {
+            int pos = statistics.getNotElectedByMajorityRank(i);
+            printCandidateLine(pos, statistics.getCandidate(pos));
         }
 
-        System.out.print("\n");
+        out.print("\n");
     }
 
     /**
      * Generates a report listing elected candidates who benefited from the proportional system.
      */
     public void report5() {
-        NumberFormat n = portugueseFormat();
+        out.println("Eleitos, que se beneficiaram do sistema proporcional:\n(com sua posição no ranking de mais votados)");
 
-        System.out.println("Eleitos, que se beneficiaram do sistema proporcional:\n(com sua posição no ranking de mais votados)");
-
-        int pos = 1; 
-        for (Candidate c : sortCandidates) {
-            if (c.isElected() && pos > this.seats) {
-                System.out.println(pos + " - " + c.changeName() + " (" + c.getPartyAcronym() + ", " + n.format(c.getNominalVotes()) + " votos)");
-            }
-            pos++;
+        for (int i = 0; i < statistics.getProportionalBeneficiaryCount(); i++) {
+            int pos = statistics.getProportionalBeneficiaryRank(i);
+            printCandidateLine(pos, statistics.getCandidate(pos));
         }
 
-        System.out.print("\n");
+        out.print("\n");
     }
 
     /**
      * Generates a report showing the total votes and elected candidates for each party.
      */
     public void report6() {
-        NumberFormat n = portugueseFormat();
-
-        System.out.println("Votação dos partidos e número de candidatos eleitos:");
+        out.println("Votação dos partidos e número de candidatos eleitos:");
 
         int pos = 1;
         for (Party p : sortParties) {
-            String votes = n.format(p.getNominalVotes());
-            String qtdVotes =  n.format(p.getTotalVotes());
+            int electeds = statistics.getElectedsOfParty(p.getPartyNumber());
 
-            System.out.print(pos + " - " + p.getPartyAcronym() + " - " + p.getPartyNumber() + ", " + n.format(p.getTotalVotes()));
+            out.print(pos).print(" - ").print(p.getPartyAcronym()).print(" - ").print(p.getPartyNumber()).print(", ").printNumber(votes.getTotalVotes(p));
 
-            if (qtdVotes.equals("0")) System.out.print (" voto (" + votes);
-            else System.out.print (" votos (" + votes);
+            if (votes.getTotalVotes(p) == 0) out.print(" voto (");
+            else out.print(" votos (");
+            out.printNumber(votes.getNominalVotes(p));
 
-            if (votes.equals("0")) System.out.print(" nominal e " + n.format(p.getListVotes()) + " de legenda), " + p.getNumberOfElecteds());
-            else System.out.print(" nominais e " + n.format(p.getListVotes()) + " de legenda), " + p.getNumberOfElecteds());
-            
+            if (votes.getNominalVotes(p) == 0) out.print(" nominal e ");
+            else out.print(" nominais e ");
+            out.printNumber(votes.getListVotes(p)).print(" de legenda), ").print(electeds);
             
-            if (p.getNumberOfElecteds() > 1) System.out.println(" candidatos eleitos");
-            else System.out.println(" candidato eleito");
+            if (electeds > 1) out.println(" candidatos eleitos");
+            else out.println(" candidato eleito");
 
             pos++;
         }
 
-        System.out.print("\n");
+        out.print("\n");
     }
 
     /**
      * Generates a report listing the first and last placed candidates in each party.
      */
     public void report7() {
-        NumberFormat n = portugueseFormat();
-
-        System.out.println("Primeiro e último colocados de cada partido:");
-
-        Candidate[] mostVoted = new Candidate[sortParties.size()];
-        Candidate[] leastVoted = new Candidate[sortParties.size()];
-
-        int i = 0;
-        for (Party p : sortParties) {
-            List<Candidate> partyCandidates = p.getCandidates();
+        out.println("Primeiro e último colocados de cada partido:");
 
-            if (partyCandidates.size() >= 1 ) {
-                Collections.sort(partyCandidates);
+        Party[] parties = sortByMostVotedCandidate(sortParties, votes);
 
-                if (partyCandidates.contains(partyCandidates.get(0)) && partyCandidates.contains(partyCandidates.get(partyCandidates.size() - 1))) {
-                    Candidate first = partyCandidates.get(0);
-                    Candidate last = partyCandidates.get(partyCandidates.size() - 1);
+        for (int idx = 0; idx < parties.length; idx++) {
+            Candidate mostVoted = votes.getMostVotedCandidate(parties[idx]);
+            Candidate leastVoted = votes.getLeastVotedCandidate(parties[idx]);
 
-                    mostVoted[i] = first;
-                    leastVoted[i] = last;
-                    i++;
-                }   
-            }
-        }
-        int size = i;
-
-        for (int j = 0; j < size; j++) {
-            for (int k = j; k < size; k++) {
-                if (mostVoted[k].getNominalVotes() > mostVoted[j].getNominalVotes()) {
-                    Candidate aux = mostVoted[j];
-                    Candidate aux2 = leastVoted[j];
-
-                    mostVoted[j] = mostVoted[k];
-                    leastVoted[j] = leastVoted[k];
-
-                    mostVoted[k] = aux;
-                    leastVoted[k] = aux2;
-                }
-                else if (mostVoted[k].getNominalVotes() == mostVoted[j].getNominalVotes()) {
-                    if (mostVoted[k].getPartyNumber() < mostVoted[j].getPartyNumber()) {
-                        Candidate aux = mostVoted[j];
-                        Candidate aux2 = leastVoted[j];
-
-                        mostVoted[j] = mostVoted[k];
-                        leastVoted[j] = leastVoted[k];
-
-                        mostVoted[k] = aux;
-                        leastVoted[k] = aux2;
-                    }
-                }
-            }
+            out.print(idx + 1).print(" - ").print(mostVoted.getPartyAcronym()).print(" - ").print(mostVoted.getPartyNumber()).print(", ");
+            printPlacedCandidate(mostVoted);
+            out.print(" / ");
+            printPlacedCandidate(leastVoted);
+            out.println();
         }
 
-        int pos = 1;
-        String mostVotesString="";
-        String leastVotesString="";
-
-        for (int idx = 0; idx < size; idx++) {
-
-            if (mostVoted[idx].getNominalVotes() > 1) {
-                mostVotesString = "votos";
-            }
-            else mostVotesString = "voto";
-
-            if (leastVoted[idx].getNominalVotes() > 1) {
-                leastVotesString = "votos";
-            }
-            else leastVotesString = "voto";
-
-            System.out.println(pos + " - " + mostVoted[idx].getPartyAcronym() + " - " + mostVoted[idx].getPartyNumber() + ", " + mostVoted[idx].getBallotName() + " (" + mostVoted[idx].getCandidateNumber() + 
-                                ", " + n.format(mostVoted[idx].getNominalVotes()) + " " + mostVotesString +")" + " / " + leastVoted[idx].getBallotName() + 
-                                " (" + leastVoted[idx].getCandidateNumber() + ", " + n.format(leastVoted[idx].getNominalVotes()) + " " + leastVotesString + ")");
-
-            pos+=1;
-        }
-
-        System.out.print("\n");
+        out.print("\n");
     }
 
     /**
      * Generates a report showing the age groups of elected candidates.
      */
     public void report8() {
-        NumberFormat nf = portugueseFormat();
-        doubleFormat(nf);
-
-        int[] ageGroup = new int[5];
-        int sum = 0;
-
-        System.out.println("Eleitos, por faixa etária (na data da eleição):");
-
-        for (Candidate c : sortCandidates) {
-            if (c.isElected()) {
-                int age = c.getAge();
-
-                if (age < 30) {
-                    ageGroup[0] += 1;
-                }
-                else if (age >= 30 && age < 40) {
-                    ageGroup[1] += 1;
-                }
-                else if (age >= 40 && age < 50) {
-                    ageGroup[2] += 1;
-                }
-                else if (age >= 50 && age < 60) {
-                    ageGroup[3] += 1;
-                }
-                else if (age >= 60) {
-                    ageGroup[4] += 1;
-                }
-
-                sum += 1;
+        int sum = statistics.getElectedCount();
 
-            }
-        }
-
-        double[] ageGroupPercentage = new double[5];
-        for (int i = 0; i < 5; i++) {
-            ageGroupPercentage[i] = ((double)ageGroup[i]) / ((double) sum) * 100;
-        }
-
-        System.out.println("      Idade < 30: " + ageGroup[0] + " (" + nf.format(ageGroupPercentage[0]) + "%)");
-        System.out.println("30 <= Idade < 40: " + ageGroup[1] + " (" + nf.format(ageGroupPercentage[1]) + "%)");
-        System.out.println("40 <= Idade < 50: " + ageGroup[2] + " (" + nf.format(ageGroupPercentage[2]) + "%)");
-        System.out.println("50 <= Idade < 60: " + ageGroup[3] + " (" + nf.format(ageGroupPercentage[3]) + "%)");
-        System.out.println("60 <= Idade     : " + ageGroup[4] + " (" + nf.format(ageGroupPercentage[4]) + "%)\n");
+        out.println("Eleitos, por faixa etária (na data da eleição):");
 
+        printShare("      Idade < 30: ", statistics.getAgeGroup(0), sum).println();
+        printShare("30 <= Idade < 40: ", statistics.getAgeGroup(1), sum).println();
+        printShare("40 <= Idade < 50: ", statistics.getAgeGroup(2), sum).println();
+        printShare("50 <= Idade < 60: ", statistics.getAgeGroup(3), sum).println();
+        printShare("60 <= Idade     : ", statistics.getAgeGroup(4), sum).print("\n").println();
     }
 
     /**
      * Generates a report showing the gender distribution of elected candidates.
      */
     public void report9() {
-        NumberFormat nf = portugueseFormat();
-        doubleFormat(nf);
-
-        int male = 0;
-        int female = 0;
-
-        for (Candidate c : sortCandidates) {
-            if (c.isElected()) {
-                if (c.getGender() == 2) {
-                    male++;
-                }
-                else if (c.getGender() == 4) {
-                    female++;
-                }
+        out.print("Eleitos, por gênero:\n");
+        printShare("Feminino:\t", statistics.getFemaleElecteds(), poll.getSeats()).print("\n");
+        printShare("Masculino:\t", statistics.getMaleElecteds(), poll.getSeats()).print("\n").println();
+    }
+
+    /**
+     * Generates a report summarizing the total votes, nominal votes, and list votes.
+     */
+    public void report10() {
+        double nominalPercentage = (double)votes.getNominalVotes() / (double)votes.getTotalVotes() * 100;
+        double listPercentage = (double)votes.getListVotes() / (double)votes.getTotalVotes() * 100;
+
+        out.print("Total de votos válidos:\t").printNumber(votes.getTotalVotes());
+        out.print("\nTotal de votos nominais:\t").printNumber(votes.getNominalVotes()).print(" (").printDecimal(nominalPercentage).print("%)");
+        out.print("\nTotal de votos de legenda:\t").printNumber(votes.getListVotes()).print(" (").printDecimal(listPercentage).print("%)");
+        out.println();
+    }
+
+    /**
+     * Sorts the parties that have candidates by the votes of their most voted candidate and, on ties, by party number.
+     *
+     * @param parties The parties of the election.
+     * @param votes   The votes of the election or of a scenario.
+     * @return The parties with at least one candidate, in report order.
+     */
+    static Party[] sortByMostVotedCandidate(List<Party> parties, VoteView votes) {
+        Party[] sorted = new Party[parties.size()];
+        int size = 0;
+
+        for (Party p : parties) {
+            if (p.getNumberOfCandidates() >= 1) {
+                sorted[size++] = p;
             }
         }
 
-        double malePercentage = (double)male / (double)poll.getSeats() * 100;
-        double femalePercentage = (double)female / (double)poll.getSeats() * 100;
+        Arrays.sort(sorted, 0, size, (a, b) -> {
+            int voteResult = Integer.compare(votes.getNominalVotes(votes.getMostVotedCandidate(b)), votes.getNominalVotes(votes.getMostVotedCandidate(a)));
+            if (voteResult != 0) return voteResult;
 
-        System.out.println("Eleitos, por gênero:\n" + 
-                            "Feminino:\t" + female + " (" + nf.format(femalePercentage) + "%)\n" + 
-                            "Masculino:\t" + male + " (" + nf.format(malePercentage) + "%)\n");
+            return Integer.compare(a.getPartyNumber(), b.getPartyNumber());
+        });
 
+        return Arrays.copyOf(sorted, size);
     }
 
     /**
-     * Generates a report summarizing the total votes, nominal votes, and list votes.
+     * Writes a line with a candidate's position, name, party and votes, as in "1 - *NAME (PARTY, 1.234 votos)".
+     *
+     * @param pos The position to be shown.
+     * @param c   The candidate.
      */
-    public void report10() {
-        double nominalPercentage = (double)poll.getNominalVotes() / (double)poll.getTotalVotes() * 100;
-        double listPercentage = (double)poll.getListVotes() / (double)poll.getTotalVotes() * 100;
-
-        NumberFormat n = portugueseFormat();
-        NumberFormat nf = portugueseFormat();
-        doubleFormat(nf);
-
-        System.out.println("Total de votos válidos:\t" + n.format(poll.getTotalVotes()) + 
-                        "\nTotal de votos nominais:\t" + n.format(poll.getNominalVotes()) + " (" + nf.format(nominalPercentage) + "%)" + 
-                        "\nTotal de votos de legenda:\t" + n.format(poll.getListVotes()) + " (" + nf.format(listPercentage) + "%)");
+    private void printCandidateLine(int pos, Candidate c) {
+        out.print(pos).print(" - ").print(c.changeName()).print(" (").print(c.getPartyAcronym()).print(", ").printNumber(votes.getNominalVotes(c)).println(" votos)");
     }
 
     /**
-     * Returns a NumberFormat instance for the Portuguese locale.
+     * Writes a candidate's name, number and votes, as in "NAME (1234, 5.678 votos)".
      *
-     * @return A NumberFormat instance for Portuguese formatting.
+     * @param c The candidate.
      */
-    public NumberFormat portugueseFormat() {
-        return NumberFormat.getInstance(Locale.forLanguageTag("pt-BR"));
+    private void printPlacedCandidate(Candidate c) {
+        out.print(c.getBallotName()).print(" (").print(c.getCandidateNumber()).print(", ").printNumber(votes.getNominalVotes(c));
+        out.print(votes.getNominalVotes(c) > 1 ? " votos)" : " voto)");
     }
 
     /**
-     * Sets the minimum and maximum fraction digits for a NumberFormat instance.
+     * Writes a count and its percentage of a total, as in "label12 (34,56%)", without ending the line.
      *
-     * @param nf The NumberFormat instance to be formatted.
+     * @param label The text before the count.
+     * @param count The count.
+     * @param total The total the percentage refers to.
+     * @return The writer, to end the line.
      */
-    public void doubleFormat(NumberFormat nf) {
-        nf.setMinimumFractionDigits(2); 
-        nf.setMaximumFractionDigits(2);
-    }   
+    private ReportWriter printShare(String label, int count, int total) {
+        double percentage = (double) count / (double) total * 100;
+        return out.print(label).print(count).print(" (").printDecimal(percentage).print("%)");
+    }
 }
@@ -0,0 +1,284 @@
+/**
+ * Buffered writer for the text reports. Text is collected in a reusable char buffer, encoded into a reusable
+ * byte buffer and written to the sink (standard output, a file or an in-memory stream) only when the buffer fills up
+ * or the writer is flushed. Integers and percentages are formatted in pt-BR ("." for thousands, "," for decimals)
+ * straight into the buffer, without allocating.
+ */
+
+package Election.Report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+public class ReportWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final double MAX_EXACT_DECIMAL = 1e13; // above this, two decimals no longer fit in 17 significant digits
+
+    private OutputStream sink;
+    private CharsetEncoder encoder;
+    private char[] chars;
+    private CharBuffer charView;
+    private ByteBuffer bytes;
+    private int length;
+    private char[] digits;
+    private NumberFormat largeDecimalFormat;
+
+    /**
+     * Constructor for a ReportWriter that writes to standard output.
+     */
+    public ReportWriter() {
+        this(System.out, Charset.defaultCharset());
+    }
+
+    /**
+     * Constructor for the ReportWriter class.
+     *
+     * @param sink    The stream the reports are written to.
+     * @param charset The charset of the written text.
+     */
+    public ReportWriter(OutputStream sink, Charset charset) {
+        this.sink = sink;
+        this.encoder = charset.newEncoder()
+                              .onMalformedInput(CodingErrorAction.REPLACE)
+                              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = new char[BUFFER_SIZE];
+        this.charView = CharBuffer.wrap(chars);
+        this.bytes = ByteBuffer.allocate((int) (BUFFER_SIZE * encoder.maxBytesPerChar()) + 16);
+        this.length = 0;
+        this.digits = new char[16];
+    }
+
+    /**
+     * Writes a String.
+     *
+     * @param s The String to be written.
+     * @return This writer.
+     */
+    public ReportWriter print(String s) {
+        int n = s.length();
+        int from = 0;
+
+        while (from < n) {
+            if (length == chars.length) flushBuffer();
+
+            int count = Math.min(n - from, chars.length - length);
+            s.getChars(from, from + count, chars, length);
+            length += count;
+            from += count;
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes a character.
+     *
+     * @param c The character to be written.
+     * @return This writer.
+     */
+    public ReportWriter print(char c) {
+        if (length == chars.length) flushBuffer();
+
+        chars[length++] = c;
+        return this;
+    }
+
+    /**
+     * Writes an integer without grouping, as String concatenation would.
+     *
+     * @param value The integer to be written.
+     * @return This writer.
+     */
+    public ReportWriter print(int value) {
+        return printInteger(value, false);
+    }
+
+    /**
+     * Writes an integer in pt-BR format, with "." as thousands separator (1.234.567).
+     *
+     * @param value The integer to be written.
+     * @return This writer.
+     */
+    public ReportWriter printNumber(int value) {
+        return printInteger(value, true);
+    }
+
+    /**
+     * Writes a number in pt-BR format with exactly two decimal places (1.234,57), rounding half to even
+     * on the exact value of the double, as NumberFormat does.
+     *
+     * @param value The number to be written.
+     * @return This writer.
+     */
+    public ReportWriter printDecimal(double value) {
+        if (Double.isNaN(value)) return print("NaN");
+
+        boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+        double v = Math.abs(value);
+
+        if (Double.isInfinite(v)) {
+            if (negative) print('-');
+            return print('∞');
+        }
+
+        if (v >= MAX_EXACT_DECIMAL) return print(largeDecimalFormat().format(value));
+
+        long hundredths = roundHalfEven(v);
+        long units = hundredths / 100;
+        int cents = (int) (hundredths % 100);
+
+        if (negative) print('-');
+        printGrouped(units);
+        print(',');
+        print((char) ('0' + cents / 10));
+        print((char) ('0' + cents % 10));
+        return this;
+    }
+
+    /**
+     * Ends the current line.
+     *
+     * @return This writer.
+     */
+    public ReportWriter println() {
+        return print(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a String and ends the line.
+     *
+     * @param s The String to be written.
+     * @return This writer.
+     */
+    public ReportWriter println(String s) {
+        return print(s).println();
+    }
+
+    /**
+     * Writes everything buffered so far to the sink and flushes it.
+     */
+    public void flush() {
+        flushBuffer();
+
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the NumberFormat used for decimals too large to be formatted digit by digit, where NumberFormat
+     * only keeps the shortest representation of the double.
+     */
+    private NumberFormat largeDecimalFormat() {
+        if (largeDecimalFormat == null) {
+            largeDecimalFormat = NumberFormat.getInstance(Locale.forLanguageTag("pt-BR"));
+            largeDecimalFormat.setMinimumFractionDigits(2);
+            largeDecimalFormat.setMaximumFractionDigits(2);
+        }
+
+        return largeDecimalFormat;
+    }
+
+    /**
+     * Rounds a non-negative double to hundredths, half to even, comparing against the exact product v * 100
+     * (recovered with a fused multiply-add) so that values like 1.015, stored as 1.01499..., round down.
+     *
+     * @param v The non-negative number.
+     * @return The number of hundredths.
+     */
+    private static long roundHalfEven(double v) {
+        double product = v * 100;
+        double error = Math.fma(v, 100, -product); // v * 100 == product + error, exactly
+        double floor = Math.floor(product);
+        double diff = (product - floor - 0.5) + error;
+
+        long result = (long) floor;
+        if (diff > 0 || (diff == 0 && (result & 1) == 1)) result++;
+
+        return result;
+    }
+
+    /**
+     * Writes an integer, optionally grouping its digits in thousands.
+     */
+    private ReportWriter printInteger(int value, boolean grouped) {
+        if (value < 0) {
+            print('-');
+            long magnitude = -(long) value;
+            if (grouped) printGrouped(magnitude);
+            else printDigits(magnitude);
+        }
+        else {
+            if (grouped) printGrouped(value);
+            else printDigits(value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the digits of a non-negative number.
+     */
+    private void printDigits(long value) {
+        int n = 0;
+
+        do {
+            digits[n++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        while (n > 0) print(digits[--n]);
+    }
+
+    /**
+     * Writes the digits of a non-negative number with "." between groups of thousands.
+     */
+    private void printGrouped(long value) {
+        int n = 0;
+
+        do {
+            digits[n++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        while (n > 0) {
+            print(digits[--n]);
+            if (n > 0 && n % 3 == 0) print('.');
+        }
+    }
+
+    /**
+     * Encodes the buffered characters and writes them to the sink.
+     */
+    private void flushBuffer() {
+        if (length == 0) return;
+
+        charView.clear().limit(length);
+        bytes.clear();
+        encoder.reset();
+
+        CoderResult result = encoder.encode(charView, bytes, true);
+        if (result.isError()) throw new IllegalStateException("Cannot encode report: " + result);
+        encoder.flush(bytes);
+
+        try {
+            sink.write(bytes.array(), 0, bytes.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        length = 0;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Generates the seat reports of an election: the seats computed from the votes by a SeatAllocator, compared with
+ * the candidates elected according to the input file, and, when a SeatSimulation was run, the probability of each
+ * seat outcome. Both are written as text through a ReportWriter or as records through a RecordWriter.
+ */
+
+package Election.Report;
+
+import Election.Election;
+import Election.Domain.Candidate;
+import Election.Seats.SeatAllocator;
+import Election.Seats.SeatModel;
+import Election.Seats.SeatSimulation;
+
+public class SeatReport {
+    private String office;
+    private SeatModel model;
+    private SeatAllocator allocator;
+    private SeatSimulation simulation;
+    private int[] candidateVotes;  // votes of each candidate in the model
+    private int[] electedSeats; // seats of each list according to the input file
+
+    /**
+     * Constructor for the SeatReport class, allocating the seats from the votes of the model.
+     *
+     * @param poll       The Election object to generate reports for.
+     * @param model      The lists and candidates of the election, with the votes of the election or of a scenario over it.
+     * @param simulation The simulation of the seats, already run, or null to report only the allocation.
+     */
+    public SeatReport(Election poll, SeatModel model, SeatSimulation simulation) {
+        this.office = poll.getOfficeOption().replace("-", "");
+        this.model = model;
+        this.simulation = simulation;
+
+        int[] listVotes = new int[model.getListCount()];
+        this.candidateVotes = new int[model.getCandidateCount()];
+        model.copyListVotes(listVotes);
+        model.copyCandidateVotes(candidateVotes);
+
+        this.allocator = new SeatAllocator(model);
+        allocator.allocate(listVotes, candidateVotes);
+
+        this.electedSeats = new int[model.getListCount()];
+        for (int c = 0; c < model.getCandidateCount(); c++) {
+            if (model.getCandidate(c).isElected()) electedSeats[model.getCandidateList(c)]++;
+        }
+    }
+
+    /**
+     * Generates a report with the seats computed for each list, and the candidates whose result differs from the input file.
+     *
+     * @param out The writer the report is written to.
+     */
+    public void printAllocation(ReportWriter out) {
+        out.print("Quociente eleitoral: ").printNumber(allocator.getElectoralQuotient()).println();
+        out.println("Cadeiras calculadas por partido ou federação (quociente + sobras, eleitos segundo o arquivo):");
+
+        for (int l = 0; l < model.getListCount(); l++) {
+            if (allocator.getListTotal(l) == 0) continue;
+
+            int leftover = allocator.getSeats(l) - allocator.getQuotientSeats(l);
+
+            out.print(model.getListName(l)).print(", ").printNumber(allocator.getListTotal(l)).print(" votos: ");
+            out.print(allocator.getQuotientSeats(l)).print(" + ").print(leftover).print(" = ").print(allocator.getSeats(l));
+            out.print(" (").print(electedSeats[l]).println(electedSeats[l] > 1 ? " eleitos)" : " eleito)");
+        }
+
+        out.println("\nEleitos pelo cálculo e não pelo arquivo:");
+        printDifferences(out, true);
+
+        out.println("\nEleitos pelo arquivo e não pelo cálculo:");
+        printDifferences(out, false);
+
+        out.print("\n");
+    }
+
+    /**
+     * Lists the candidates elected by the allocation but not by the input file, or the other way around.
+     *
+     * @param out       The writer the report is written to.
+     * @param allocated True for the candidates elected only by the allocation, false for the ones elected only by the file.
+     */
+    private void printDifferences(ReportWriter out, boolean allocated) {
+        boolean any = false;
+
+        for (int c = 0; c < model.getCandidateCount(); c++) {
+            Candidate candidate = model.getCandidate(c);
+            if (allocator.isElected(c) != allocated || candidate.isElected() == allocated) continue;
+
+            out.print(candidate.changeName()).print(" (").print(candidate.getPartyAcronym()).print(", ").printNumber(candidateVotes[c]);
+            out.println(candidateVotes[c] > 1 ? " votos)" : " voto)");
+            any = true;
+        }
+
+        if (!any) out.println("Nenhum");
+    }
+
+    /**
+     * Generates a report with the probability of each number of seats per list, and the candidates whose election
+     * is uncertain (between 1% and 99% of the runs). Does nothing if no simulation was run.
+     *
+     * @param out The writer the report is written to.
+     */
+    public void printSimulation(ReportWriter out) {
+        if (simulation == null) return;
+
+        int runs = simulation.getRuns();
+        out.print("Simulação de ").printNumber(runs).println(" cenários de votação:");
+
+        for (int l = 0; l < model.getListCount(); l++) {
+            if (allocator.getListTotal(l) == 0) continue;
+
+            out.print(model.getListName(l)).print(": média de ").printDecimal(simulation.getAverageSeats(l)).print(" cadeiras");
+
+            for (int s = 0; s <= model.getSeats(); s++) {
+                long count = simulation.getSeatCount(l, s);
+                if (count * 100 < runs) continue; // less than 1%
+
+                out.print(", ").print(s).print(" (").printDecimal((double) count / runs * 100).print("%)");
+            }
+            out.println();
+        }
+
+        out.println("\nCandidatos com eleição incerta:");
+        boolean any = false;
+
+        for (int c = 0; c < model.getCandidateCount(); c++) {
+            if (!isUncertain(c, runs)) continue;
+
+            Candidate candidate = model.getCandidate(c);
+            out.print(candidate.changeName()).print(" (").print(candidate.getPartyAcronym()).print("): ");
+            out.printDecimal((double) simulation.getElectedCount(c) / runs * 100).println("% de chance de eleição");
+            any = true;
+        }
+
+        if (!any) out.println("Nenhum");
+        out.print("\n");
+    }
+
+    /**
+     * Writes the section "seat_allocation": the seats computed for each list.
+     *
+     * @param out The writer the records are written to.
+     */
+    public void writeAllocation(RecordWriter out) {
+        out.beginSection("seat_allocation", "office", "list", "votes", "electoral_quotient", "quotient_seats", "seats", "elected");
+
+        for (int l = 0; l < model.getListCount(); l++) {
+            out.beginRecord();
+            out.value(office).value(model.getListName(l)).value(allocator.getListTotal(l)).value(allocator.getElectoralQuotient())
+               .value(allocator.getQuotientSeats(l)).value(allocator.getSeats(l)).value(electedSeats[l]);
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Writes the sections "seat_probabilities" (the runs in which each list got each number of seats) and
+     * "candidate_probabilities" (the runs in which each uncertain candidate was elected). Does nothing if no simulation was run.
+     *
+     * @param out The writer the records are written to.
+     */
+    public void writeSimulation(RecordWriter out) {
+        if (simulation == null) return;
+
+        int runs = simulation.getRuns();
+        out.beginSection("seat_probabilities", "office", "list", "seats", "count", "runs");
+
+        for (int l = 0; l < model.getListCount(); l++) {
+            for (int s = 0; s <= model.getSeats(); s++) {
+                long count = simulation.getSeatCount(l, s);
+                if (count == 0) continue;
+
+                out.beginRecord();
+                out.value(office).value(model.getListName(l)).value(s).value((int) count).value(runs);
+                out.endRecord();
+            }
+        }
+
+        out.beginSection("candidate_probabilities", "office", "candidate_number", "ballot_name", "list", "count", "runs");
+
+        for (int c = 0; c < model.getCandidateCount(); c++) {
+            if (!isUncertain(c, runs)) continue;
+
+            Candidate candidate = model.getCandidate(c);
+            out.beginRecord();
+            out.value(office).value(candidate.getCandidateNumber()).value(candidate.getBallotName())
+               .value(model.getListName(model.getCandidateList(c))).value((int) simulation.getElectedCount(c)).value(runs);
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Checks if a candidate was elected in at least 1% and at most 99% of the runs.
+     */
+    private boolean isUncertain(int candidate, int runs) {
+        long count = simulation.getElectedCount(candidate);
+        return count * 100 >= runs && count * 100 <= (long) runs * 99;
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * A file of what-if scenarios over an election, given to App with --scenario=<file>. Each scenario starts with a
+ * line "scenario <name>" and is followed by its changes, one per line:
+ *
+ *   nominal <candidate> <votes>     sets the nominal votes of a candidate
+ *   add-nominal <candidate> <votes> adds nominal votes to a candidate (a negative number removes them)
+ *   list <party> <votes>            sets the list votes of a party
+ *   scale-list <party> <factor>     multiplies the list votes of a party, such as 1.05 for 5% more
+ *   scale-nominal <party> <factor>  multiplies the nominal votes of every candidate of a party
+ *
+ * Blank lines and lines starting with "#" are ignored. The file is checked line by line when it is read, but the
+ * candidate and party numbers only when the scenarios are built, since they depend on the office of the election.
+ */
+
+package Election;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScenarioFile {
+    private String path;
+    private List<String> names;
+    private List<List<Change>> changes; // changes of each scenario, in the order of the file
+
+    /**
+     * A change of a scenario, as read from a line of the file.
+     */
+    private static class Change {
+        private int line;
+        private String command;
+        private int number;
+        private double value; // votes or factor
+
+        /**
+         * Constructor for the Change class.
+         */
+        Change(int line, String command, int number, double value) {
+            this.line = line;
+            this.command = command;
+            this.number = number;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Constructor for the ScenarioFile class.
+     */
+    private ScenarioFile(String path) {
+        this.path = path;
+        this.names = new ArrayList<String>();
+        this.changes = new ArrayList<List<Change>>();
+    }
+
+    /**
+     * Reads a scenario file, in UTF-8.
+     *
+     * @param path The path of the file.
+     * @return The ScenarioFile, with at least one scenario.
+     * @throws IOException if the file cannot be read, a line is not a valid change, or the file has no scenario.
+     */
+    public static ScenarioFile read(String path) throws IOException {
+        ScenarioFile file = new ScenarioFile(path);
+        List<String> lines;
+
+        try {
+            lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw new IOException(path + ": no such file", e);
+        }
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] fields = line.split("\\s+");
+
+            if (fields[0].equals("scenario")) {
+                String name = line.substring("scenario".length()).trim();
+                if (name.isEmpty()) throw file.error(i + 1, "a scenario needs a name");
+
+                file.names.add(name);
+                file.changes.add(new ArrayList<Change>());
+            }
+            else if (file.names.isEmpty()) {
+                throw file.error(i + 1, "expected \"scenario <name>\" before the first change");
+            }
+            else {
+                file.changes.get(file.changes.size() - 1).add(file.parseChange(i + 1, fields));
+            }
+        }
+
+        if (file.names.isEmpty()) throw new IOException(path + ": no scenario found");
+
+        return file;
+    }
+
+    /**
+     * Parses a change.
+     *
+     * @param line   The line number, starting at 1.
+     * @param fields The fields of the line.
+     * @return The Change.
+     * @throws IOException if the line is not a valid change.
+     */
+    private Change parseChange(int line, String[] fields) throws IOException {
+        String command = fields[0];
+        boolean factor = command.equals("scale-list") || command.equals("scale-nominal");
+
+        if (!factor && !command.equals("nominal") && !command.equals("add-nominal") && !command.equals("list")) {
+            throw error(line, "unknown change \"" + command + "\"");
+        }
+
+        String usage = factor ? "<party> <factor>" : command.equals("list") ? "<party> <votes>" : "<candidate> <votes>";
+        if (fields.length != 3) throw error(line, "use \"" + command + " " + usage + "\"");
+
+        try {
+            int number = Integer.parseInt(fields[1]);
+            double value = factor ? Double.parseDouble(fields[2]) : Integer.parseInt(fields[2]);
+
+            if (factor && !(value >= 0)) throw error(line, "the factor must be a number >= 0");
+            if (!factor && value < 0 && !command.equals("add-nominal")) throw error(line, "the votes must be >= 0");
+
+            return new Change(line, command, number, value);
+        } catch (NumberFormatException e) {
+            throw error(line, "not a number: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the exception of an invalid line.
+     */
+    private IOException error(int line, String message) {
+        return new IOException(path + ":" + line + ": " + message);
+    }
+
+    /**
+     * Gets the number of scenarios in the file.
+     *
+     * @return The number of scenarios.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Gets the name of a scenario.
+     *
+     * @param index The index of the scenario, in the order of the file.
+     * @return The name.
+     */
+    public String getName(int index) {
+        return names.get(index);
+    }
+
+    /**
+     * Builds a scenario over an election, applying its changes in the order of the file. The election is frozen.
+     *
+     * @param index The index of the scenario, in the order of the file.
+     * @param poll  The election, with its votes counted.
+     * @return The ElectionScenario.
+     * @throws IllegalArgumentException if a change names a candidate or party the election does not have, or leaves negative votes.
+     */
+    public ElectionScenario build(int index, Election poll) {
+        ElectionScenario scenario = new ElectionScenario(poll, names.get(index));
+
+        for (Change change : changes.get(index)) {
+            try {
+                if (change.command.equals("nominal")) scenario.setNominalVotes(change.number, (int) change.value);
+                else if (change.command.equals("add-nominal")) scenario.addNominalVotes(change.number, (int) change.value);
+                else if (change.command.equals("list")) scenario.setListVotes(change.number, (int) change.value);
+                else if (change.command.equals("scale-list")) scenario.scaleListVotes(change.number, change.value);
+                else scenario.scaleNominalVotes(change.number, change.value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(path + ":" + change.line + ": " + e.getMessage(), e);
+            }
+        }
+
+        return scenario;
+    }
+}
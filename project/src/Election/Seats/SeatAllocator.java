@@ -0,0 +1,275 @@
+/**
+ * Allocates the seats of a proportional election from the votes of its lists and candidates, as in the Brazilian
+ * electoral code for the 2022 elections. The electoral quotient is the valid votes divided by the seats, rounded half
+ * down, and each list first gets as many seats as its party quotient, filled by candidates with at least 10% of the
+ * electoral quotient. The remaining seats go, one at a time, to the list with the largest average (votes divided by
+ * its seats plus one), among the lists with at least 80% of the quotient whose next candidate has at least 20% of it;
+ * when there are no such lists, to the largest averages among the lists with at least 80% of the quotient and
+ * candidates left, as the electoral court applied it in 2022 (only the later reading of the constitutional court opens
+ * this last phase to every list). If no list reaches the quotient, the most voted candidates are elected.
+ *
+ * An allocator keeps its working arrays between calls, so it can be run millions of times without allocating.
+ * It is not thread-safe: each thread needs its own.
+ */
+
+package Election.Seats;
+
+public class SeatAllocator {
+    private SeatModel model;
+    private int electoralQuotient;
+    private int[] listTotals;       // list votes plus the nominal votes of the list's candidates
+    private int[] quotientSeats;
+    private int[] seats;
+    private int[] leftoverCandidates; // candidates with at least 20% of the quotient, per list
+    private boolean[] elected;
+    private int[] best;             // the most voted candidates of a list, while they are elected
+
+    /**
+     * Constructor for the SeatAllocator class.
+     *
+     * @param model The lists and candidates of the election.
+     */
+    public SeatAllocator(SeatModel model) {
+        int lists = model.getListCount();
+
+        this.model = model;
+        this.listTotals = new int[lists];
+        this.quotientSeats = new int[lists];
+        this.seats = new int[lists];
+        this.leftoverCandidates = new int[lists];
+        this.elected = new boolean[model.getCandidateCount()];
+        this.best = new int[Math.max(1, model.getSeats())];
+    }
+
+    /**
+     * Allocates the seats for some votes.
+     *
+     * @param listVotes      The list votes of each list.
+     * @param candidateVotes The nominal votes of each candidate of the model.
+     */
+    public void allocate(int[] listVotes, int[] candidateVotes) {
+        int lists = model.getListCount();
+        int totalSeats = model.getSeats();
+        long valid = 0;
+
+        for (int l = 0; l < lists; l++) {
+            long total = listVotes[l];
+            for (int c = model.getListStart(l); c < model.getListStart(l + 1); c++) {
+                total += candidateVotes[c];
+            }
+
+            listTotals[l] = (int) Math.min(total, Integer.MAX_VALUE);
+            valid += total;
+        }
+
+        this.electoralQuotient = totalSeats > 0 ? quotient(valid, totalSeats) : 0;
+        int quotient = electoralQuotient;
+        int remaining = totalSeats;
+        boolean reached = false;
+
+        for (int l = 0; l < lists; l++) {
+            int minimum = 0;
+            int leftover = 0;
+
+            for (int c = model.getListStart(l); c < model.getListStart(l + 1); c++) {
+                long votes = candidateVotes[c];
+                if (votes * 10 >= quotient) minimum++;
+                if (votes * 5 >= quotient) leftover++;
+            }
+
+            leftoverCandidates[l] = leftover;
+
+            int partyQuotient = quotient > 0 ? listTotals[l] / quotient : 0;
+            if (partyQuotient > 0) reached = true;
+
+            quotientSeats[l] = Math.min(partyQuotient, minimum);
+            seats[l] = quotientSeats[l];
+            remaining -= seats[l];
+        }
+
+        if (!reached) {
+            electMostVoted(candidateVotes, totalSeats);
+            return;
+        }
+
+        // leftover seats: lists with 80% of the quotient and a next candidate with 20% of it
+        while (remaining > 0) {
+            int list = largestAverage(true);
+            if (list < 0) break;
+
+            seats[list]++;
+            remaining--;
+        }
+
+        // then the lists with 80% of the quotient and candidates left
+        while (remaining > 0) {
+            int list = largestAverage(false);
+            if (list < 0) break;
+
+            seats[list]++;
+            remaining--;
+        }
+
+        for (int l = 0; l < lists; l++) {
+            electMostVotedOfList(l, candidateVotes);
+        }
+    }
+
+    /**
+     * Divides the valid votes by the seats, rounding half down, as the electoral quotient is defined.
+     *
+     * @param valid The valid votes.
+     * @param seats The number of seats.
+     * @return The quotient.
+     */
+    static int quotient(long valid, int seats) {
+        long quotient = valid / seats;
+        if ((valid % seats) * 2 > seats) quotient++;
+
+        return (int) quotient;
+    }
+
+    /**
+     * Finds the list with the largest average of votes per seat, if it got one more seat.
+     * Only the lists with at least 80% of the quotient are considered. Ties go to the list with more votes, and then
+     * to the first list.
+     *
+     * @param candidateThreshold True to require a next candidate with 20% of the quotient, false to require only
+     *                           a candidate left.
+     * @return The index of the list, or -1 if no list can get another seat.
+     */
+    private int largestAverage(boolean candidateThreshold) {
+        int chosen = -1;
+
+        for (int l = 0; l < listTotals.length; l++) {
+            if ((long) listTotals[l] * 10 < (long) electoralQuotient * 8) continue;
+
+            if (candidateThreshold) {
+                if (seats[l] >= leftoverCandidates[l]) continue;
+            }
+            else if (seats[l] >= model.getListStart(l + 1) - model.getListStart(l)) continue;
+
+            if (chosen < 0) {
+                chosen = l;
+                continue;
+            }
+
+            long average = (long) listTotals[l] * (seats[chosen] + 1);
+            long bestAverage = (long) listTotals[chosen] * (seats[l] + 1);
+
+            if (average > bestAverage || (average == bestAverage && listTotals[l] > listTotals[chosen])) chosen = l;
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Elects the most voted candidates of a list, as many as its seats. Ties go to the candidate first in the model.
+     */
+    private void electMostVotedOfList(int list, int[] candidateVotes) {
+        int start = model.getListStart(list);
+        int end = model.getListStart(list + 1);
+
+        for (int c = start; c < end; c++) {
+            elected[c] = false;
+        }
+
+        int count = top(candidateVotes, start, end, seats[list]);
+        for (int i = 0; i < count; i++) {
+            elected[best[i]] = true;
+        }
+    }
+
+    /**
+     * Elects the most voted candidates of every list, as many as the seats, when no list reached the quotient.
+     */
+    private void electMostVoted(int[] candidateVotes, int totalSeats) {
+        int lists = model.getListCount();
+        int candidates = model.getCandidateCount();
+
+        for (int l = 0; l < lists; l++) {
+            quotientSeats[l] = 0;
+            seats[l] = 0;
+        }
+        for (int c = 0; c < candidates; c++) {
+            elected[c] = false;
+        }
+
+        int count = top(candidateVotes, 0, candidates, totalSeats);
+        for (int i = 0; i < count; i++) {
+            elected[best[i]] = true;
+            seats[model.getCandidateList(best[i])]++;
+        }
+    }
+
+    /**
+     * Finds the most voted candidates in a range, keeping them in order in the best array.
+     *
+     * @return The number of candidates found: the limit, or fewer if the range is smaller.
+     */
+    private int top(int[] candidateVotes, int start, int end, int limit) {
+        limit = Math.min(limit, Math.min(best.length, end - start));
+        int size = 0;
+
+        for (int c = start; c < end && limit > 0; c++) {
+            int pos = size < limit ? size++ : limit;
+
+            while (pos > 0 && candidateVotes[best[pos - 1]] < candidateVotes[c]) {
+                if (pos < limit) best[pos] = best[pos - 1];
+                pos--;
+            }
+            if (pos < limit) best[pos] = c;
+        }
+
+        return size;
+    }
+
+    /**
+     * Gets the electoral quotient of the last allocation.
+     *
+     * @return The valid votes divided by the seats, rounded half down.
+     */
+    public int getElectoralQuotient() {
+        return electoralQuotient;
+    }
+
+    /**
+     * Gets the votes of a list in the last allocation: its list votes plus the nominal votes of its candidates.
+     *
+     * @param list The index of the list.
+     * @return The votes.
+     */
+    public int getListTotal(int list) {
+        return listTotals[list];
+    }
+
+    /**
+     * Gets the seats a list got from its party quotient in the last allocation.
+     *
+     * @param list The index of the list.
+     * @return The seats, before the leftover ones.
+     */
+    public int getQuotientSeats(int list) {
+        return quotientSeats[list];
+    }
+
+    /**
+     * Gets the seats a list got in the last allocation.
+     *
+     * @param list The index of the list.
+     * @return The seats, including the leftover ones.
+     */
+    public int getSeats(int list) {
+        return seats[list];
+    }
+
+    /**
+     * Checks if a candidate was elected in the last allocation.
+     *
+     * @param candidate The index of the candidate in the model.
+     * @return True if the candidate was elected, false otherwise.
+     */
+    public boolean isElected(int candidate) {
+        return elected[candidate];
+    }
+}
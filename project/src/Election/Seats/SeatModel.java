@@ -0,0 +1,221 @@
+/**
+ * The inputs of the proportional seat allocation of an election, compiled into primitive arrays so they can be
+ * allocated again and again without touching the domain objects. Parties in the same federation form a single list,
+ * as they do in the quotient calculation. The candidates that receive nominal votes are grouped by list, most voted
+ * first, so the candidates of list l are the ones from getListStart(l) to getListStart(l + 1) - 1.
+ */
+
+package Election.Seats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Election.Election;
+import Election.VoteView;
+import Election.Domain.Candidate;
+import Election.Domain.Party;
+
+public class SeatModel {
+    private int seats;
+    private String[] listNames;
+    private int[] listVotes;      // list votes ("votos de legenda") of the parties of each list
+    private int[] listStart;      // first candidate of each list, and the number of candidates at the end
+    private int[] candidateVotes; // nominal votes
+    private int[] candidateList;
+    private Candidate[] candidates;
+
+    /**
+     * Constructor for the SeatModel class, with the votes counted in an election.
+     *
+     * @param poll The Election, with its votes and the number of seats.
+     */
+    public SeatModel(Election poll) {
+        this(poll, poll);
+    }
+
+    /**
+     * Constructor for the SeatModel class, with the votes of a view of an election, such as a scenario over it.
+     *
+     * @param poll  The Election, with the number of seats.
+     * @param votes The votes of the election or of the scenario.
+     */
+    public SeatModel(Election poll, VoteView votes) {
+        this.seats = poll.getSeats();
+
+        // parties of a federation form a single list, in the order their first party appears
+        Map<Integer, Integer> federationList = new HashMap<Integer, Integer>();
+        List<List<Party>> lists = new ArrayList<List<Party>>();
+
+        for (Party p : poll.getParties()) {
+            int federation = federationOf(p);
+            Integer list = federation != -1 ? federationList.get(federation) : null;
+
+            if (list == null) {
+                list = lists.size();
+                lists.add(new ArrayList<Party>());
+                if (federation != -1) federationList.put(federation, list);
+            }
+            lists.get(list).add(p);
+        }
+
+        List<Candidate> nominal = new ArrayList<Candidate>();
+        int listCount = lists.size();
+
+        this.listNames = new String[listCount];
+        this.listVotes = new int[listCount];
+        this.listStart = new int[listCount + 1];
+
+        for (int l = 0; l < listCount; l++) {
+            StringBuilder name = new StringBuilder();
+            List<Candidate> listCandidates = new ArrayList<Candidate>();
+
+            for (Party p : lists.get(l)) {
+                if (name.length() > 0) name.append('/');
+                name.append(p.getPartyAcronym());
+                listVotes[l] += votes.getListVotes(p);
+
+                for (Candidate c : p.getCandidates()) {
+                    if (poll.getVoteDestination(c.getCandidateNumber()) == Election.NOMINAL_VOTE) listCandidates.add(c);
+                }
+            }
+
+            // most voted first and, on ties, the oldest first, as in Candidate.compareTo
+            listCandidates.sort((a, b) -> {
+                int voteResult = Integer.compare(votes.getNominalVotes(b), votes.getNominalVotes(a));
+                if (voteResult != 0) return voteResult;
+
+                return Integer.compare(b.getAge(), a.getAge());
+            });
+
+            listNames[l] = name.toString();
+            listStart[l] = nominal.size();
+            nominal.addAll(listCandidates);
+        }
+        listStart[listCount] = nominal.size();
+
+        this.candidates = nominal.toArray(new Candidate[0]);
+        this.candidateVotes = new int[candidates.length];
+        this.candidateList = new int[candidates.length];
+
+        for (int l = 0; l < listCount; l++) {
+            for (int c = listStart[l]; c < listStart[l + 1]; c++) {
+                candidateVotes[c] = votes.getNominalVotes(candidates[c]);
+                candidateList[c] = l;
+            }
+        }
+    }
+
+    /**
+     * Gets the federation of a party, from its candidates.
+     *
+     * @param p The party.
+     * @return The federation number, or -1 if the party is not in a federation.
+     */
+    private static int federationOf(Party p) {
+        for (Candidate c : p.getCandidates()) {
+            if (c.getFederationNumber() != -1) return c.getFederationNumber();
+        }
+        for (Candidate c : p.getDismissedCandidates()) {
+            if (c.getFederationNumber() != -1) return c.getFederationNumber();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the number of seats to be allocated.
+     *
+     * @return The number of seats.
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * Gets the number of lists (isolated parties and federations).
+     *
+     * @return The number of lists.
+     */
+    public int getListCount() {
+        return listNames.length;
+    }
+
+    /**
+     * Gets the name of a list: the acronyms of its parties, separated by "/".
+     *
+     * @param list The index of the list.
+     * @return The name.
+     */
+    public String getListName(int list) {
+        return listNames[list];
+    }
+
+    /**
+     * Gets the list votes of the parties of a list, without the nominal votes of their candidates.
+     *
+     * @param list The index of the list.
+     * @return The list votes.
+     */
+    public int getListVotes(int list) {
+        return listVotes[list];
+    }
+
+    /**
+     * Gets the index of the first candidate of a list.
+     *
+     * @param list The index of the list, or getListCount() for the number of candidates.
+     * @return The index of the candidate.
+     */
+    public int getListStart(int list) {
+        return listStart[list];
+    }
+
+    /**
+     * Gets the number of candidates that receive nominal votes.
+     *
+     * @return The number of candidates.
+     */
+    public int getCandidateCount() {
+        return candidates.length;
+    }
+
+    /**
+     * Gets a candidate.
+     *
+     * @param candidate The index of the candidate.
+     * @return The Candidate.
+     */
+    public Candidate getCandidate(int candidate) {
+        return candidates[candidate];
+    }
+
+    /**
+     * Gets the list of a candidate.
+     *
+     * @param candidate The index of the candidate.
+     * @return The index of the list.
+     */
+    public int getCandidateList(int candidate) {
+        return candidateList[candidate];
+    }
+
+    /**
+     * Copies the list votes of every list, as counted, into an array.
+     *
+     * @param votes The array, of getListCount() elements.
+     */
+    public void copyListVotes(int[] votes) {
+        System.arraycopy(listVotes, 0, votes, 0, listVotes.length);
+    }
+
+    /**
+     * Copies the nominal votes of every candidate, as counted, into an array.
+     *
+     * @param votes The array, of getCandidateCount() elements.
+     */
+    public void copyCandidateVotes(int[] votes) {
+        System.arraycopy(candidateVotes, 0, votes, 0, candidateVotes.length);
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Estimates how likely each seat outcome is by allocating the seats again for many random variations of the votes
+ * (a Monte Carlo simulation). In each run, the votes of every list are scaled by a normal factor around 1, shared by
+ * its candidates, and each candidate's votes get a further normal variation of their own.
+ *
+ * The runs are split into a fixed number of chunks, each with its own random generator split from the seed and its own
+ * allocator and vote arrays, so a chunk runs without allocating and the results are the same for any number of threads.
+ */
+
+package Election.Seats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SeatSimulation {
+    public static final double LIST_DEVIATION = 0.05;
+    public static final double CANDIDATE_DEVIATION = 0.1;
+    public static final long SEED = 2022;
+
+    private static final int CHUNKS = 64;
+
+    private SeatModel model;
+    private double listDeviation;
+    private double candidateDeviation;
+    private long seed;
+
+    private int runs;
+    private long[][] seatCounts;  // runs in which each list got each number of seats
+    private long[] electedCounts; // runs in which each candidate was elected
+
+    /**
+     * A chunk of runs, with the working arrays and the counts of its thread.
+     */
+    private class Chunk {
+        private SplittableRandom random;
+        private int runs;
+        private SeatAllocator allocator;
+        private int[] listVotes;
+        private int[] candidateVotes;
+        private long[][] seatCounts;
+        private long[] electedCounts;
+        private double spare; // the second normal value of the last Box-Muller pair
+        private boolean hasSpare;
+
+        /**
+         * Constructor for the Chunk class.
+         */
+        Chunk(SplittableRandom random, int runs) {
+            this.random = random;
+            this.runs = runs;
+            this.allocator = new SeatAllocator(model);
+            this.listVotes = new int[model.getListCount()];
+            this.candidateVotes = new int[model.getCandidateCount()];
+            this.seatCounts = new long[model.getListCount()][model.getSeats() + 1];
+            this.electedCounts = new long[model.getCandidateCount()];
+        }
+
+        /**
+         * Runs the chunk.
+         *
+         * @return The chunk itself, with its counts.
+         */
+        Chunk run() {
+            for (int r = 0; r < runs; r++) {
+                vary();
+                allocator.allocate(listVotes, candidateVotes);
+
+                for (int l = 0; l < listVotes.length; l++) {
+                    seatCounts[l][Math.min(allocator.getSeats(l), model.getSeats())]++;
+                }
+                for (int c = 0; c < candidateVotes.length; c++) {
+                    if (allocator.isElected(c)) electedCounts[c]++;
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Sets the votes of a run: the counted votes, scaled by the normal factors of each list and candidate.
+         */
+        private void vary() {
+            model.copyListVotes(listVotes);
+            model.copyCandidateVotes(candidateVotes);
+
+            for (int l = 0; l < listVotes.length; l++) {
+                double listFactor = 1 + listDeviation * nextGaussian();
+                listVotes[l] = scale(listVotes[l], listFactor);
+
+                for (int c = model.getListStart(l); c < model.getListStart(l + 1); c++) {
+                    candidateVotes[c] = scale(candidateVotes[c], listFactor + candidateDeviation * nextGaussian());
+                }
+            }
+        }
+
+        /**
+         * Gets a standard normal value, generating them in pairs with the Box-Muller transform.
+         */
+        private double nextGaussian() {
+            if (hasSpare) {
+                hasSpare = false;
+                return spare;
+            }
+
+            double radius = Math.sqrt(-2 * Math.log(1 - random.nextDouble())); // 1 - u is never 0
+            double angle = 2 * Math.PI * random.nextDouble();
+
+            this.spare = radius * Math.sin(angle);
+            this.hasSpare = true;
+            return radius * Math.cos(angle);
+        }
+    }
+
+    /**
+     * Constructor for the SeatSimulation class.
+     *
+     * @param model              The lists and candidates of the election, with the counted votes.
+     * @param listDeviation      The standard deviation of the factor applied to the votes of each list, such as 0.05.
+     * @param candidateDeviation The standard deviation of the further factor of each candidate, such as 0.1.
+     * @param seed               The seed of the random variations.
+     */
+    public SeatSimulation(SeatModel model, double listDeviation, double candidateDeviation, long seed) {
+        this.model = model;
+        this.listDeviation = listDeviation;
+        this.candidateDeviation = candidateDeviation;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the simulation, replacing the results of any previous one.
+     *
+     * @param runs    The number of runs.
+     * @param threads The number of threads.
+     * @throws Exception if a chunk fails or the thread is interrupted.
+     */
+    public void run(int runs, int threads) throws Exception {
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Chunk> chunks = new ArrayList<Chunk>();
+
+        for (int i = 0; i < CHUNKS; i++) {
+            int chunkRuns = runs / CHUNKS + (i < runs % CHUNKS ? 1 : 0);
+            chunks.add(new Chunk(root.split(), chunkRuns));
+        }
+
+        this.runs = runs;
+        this.seatCounts = new long[model.getListCount()][model.getSeats() + 1];
+        this.electedCounts = new long[model.getCandidateCount()];
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Chunk>> results = new ArrayList<Future<Chunk>>();
+            for (Chunk chunk : chunks) {
+                results.add(executor.submit(chunk::run));
+            }
+
+            for (Future<Chunk> result : results) {
+                Chunk chunk = result.get();
+
+                for (int l = 0; l < seatCounts.length; l++) {
+                    for (int s = 0; s < seatCounts[l].length; s++) {
+                        seatCounts[l][s] += chunk.seatCounts[l][s];
+                    }
+                }
+                for (int c = 0; c < electedCounts.length; c++) {
+                    electedCounts[c] += chunk.electedCounts[c];
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Scales votes by a factor, rounding to the nearest vote and never below zero.
+     *
+     * @param votes  The votes.
+     * @param factor The factor.
+     * @return The scaled votes.
+     */
+    static int scale(int votes, double factor) {
+        if (factor <= 0) return 0;
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(votes * factor));
+    }
+
+    /**
+     * Gets the lists and candidates of the simulation.
+     *
+     * @return The SeatModel.
+     */
+    public SeatModel getModel() {
+        return model;
+    }
+
+    /**
+     * Gets the number of runs of the last simulation.
+     *
+     * @return The number of runs.
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the number of runs in which a list got a number of seats.
+     *
+     * @param list  The index of the list.
+     * @param seats The number of seats, up to the seats of the election.
+     * @return The number of runs.
+     */
+    public long getSeatCount(int list, int seats) {
+        return seatCounts[list][seats];
+    }
+
+    /**
+     * Gets the average number of seats of a list over the runs.
+     *
+     * @param list The index of the list.
+     * @return The average number of seats.
+     */
+    public double getAverageSeats(int list) {
+        long sum = 0;
+        for (int s = 0; s < seatCounts[list].length; s++) {
+            sum += seatCounts[list][s] * s;
+        }
+
+        return runs > 0 ? (double) sum / runs : 0;
+    }
+
+    /**
+     * Gets the number of runs in which a candidate was elected.
+     *
+     * @param candidate The index of the candidate in the model.
+     * @return The number of runs.
+     */
+    public long getElectedCount(int candidate) {
+        return electedCounts[candidate];
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * A timed phase of a run, such as reading the poll file or writing a report. Besides its wall time and the memory
+ * allocated by the threads working on it, a phase counts the rows it scanned and where their votes went.
+ * Counters may be added from several threads, such as the ones reading the chunks of a file.
+ */
+
+package Election.Stats;
+
+public class Phase implements AutoCloseable {
+    private PipelineStats owner;
+    private String name;
+    private int depth;
+    private long startNanos;
+    private long wallNanos;
+    private long startAllocated;
+    private long allocatedBytes;
+    private long rowsScanned;
+    private long rowsFiltered;
+    private long rowsSkipped;
+    private long bytesRead;
+    private long[] destinationRows;    // indexed by Election.IGNORED_VOTE, LIST_VOTE and NOMINAL_VOTE
+    private long[] destinationNumbers;
+    private long[] destinationVotes;
+    private PhaseEvent event;
+
+    /**
+     * Constructor for the Phase class, which starts timing it.
+     *
+     * @param owner The stats of the run.
+     * @param name  The name of the phase.
+     * @param depth The number of phases it is nested in.
+     */
+    Phase(PipelineStats owner, String name, int depth) {
+        this.owner = owner;
+        this.name = name;
+        this.depth = depth;
+        this.destinationRows = new long[3];
+        this.destinationNumbers = new long[3];
+        this.destinationVotes = new long[3];
+        this.wallNanos = -1;
+
+        this.event = new PhaseEvent();
+        event.begin();
+
+        this.startAllocated = PipelineStats.threadAllocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Adds the counters of a scan over a file, or over a chunk of it.
+     *
+     * @param scanned   The rows read, without the header.
+     * @param filtered  The rows skipped because their "CD_CARGO" is not one of the offices read.
+     * @param skipped   The rows of blank, null and annulled votes (95 to 98), which are not counted.
+     * @param bytes     The bytes read.
+     * @param allocated The bytes allocated by the thread that scanned them, if it is not the one running the phase,
+     *                  or 0.
+     */
+    public synchronized void addScan(long scanned, long filtered, long skipped, long bytes, long allocated) {
+        this.rowsScanned += scanned;
+        this.rowsFiltered += filtered;
+        this.rowsSkipped += skipped;
+        this.bytesRead += bytes;
+        this.allocatedBytes += Math.max(0, allocated);
+    }
+
+    /**
+     * Counts the votes of a votable number by where addVotes sent them.
+     *
+     * @param destination The destination: Election.IGNORED_VOTE, LIST_VOTE or NOMINAL_VOTE.
+     * @param rows        The rows with the number.
+     * @param votes       The votes of the number.
+     */
+    public synchronized void addDestination(int destination, long rows, long votes) {
+        destinationRows[destination] += rows;
+        destinationNumbers[destination]++;
+        destinationVotes[destination] += votes;
+    }
+
+    /**
+     * Ends the phase, committing its Flight Recorder event.
+     */
+    @Override
+    public void close() {
+        if (wallNanos >= 0) return;
+
+        long allocated = PipelineStats.threadAllocatedBytes();
+
+        synchronized (this) {
+            this.wallNanos = System.nanoTime() - startNanos;
+            if (allocated >= 0 && startAllocated >= 0) this.allocatedBytes += allocated - startAllocated;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = name;
+            event.rowsScanned = rowsScanned;
+            event.rowsFiltered = rowsFiltered;
+            event.rowsSkipped = rowsSkipped;
+            event.ignoredRows = destinationRows[0];
+            event.listRows = destinationRows[1];
+            event.nominalRows = destinationRows[2];
+            event.bytesRead = bytesRead;
+            event.allocatedBytes = allocatedBytes;
+            event.commit();
+        }
+
+        owner.end(this);
+    }
+
+    /**
+     * Gets the name of the phase.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of phases this one is nested in.
+     *
+     * @return The depth, 0 for a top-level phase.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the wall time of the phase.
+     *
+     * @return The time in nanoseconds, or -1 if the phase has not ended.
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Gets the memory allocated during the phase by the threads working on it.
+     *
+     * @return The allocated bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Gets the number of rows scanned.
+     *
+     * @return The rows scanned.
+     */
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    /**
+     * Gets the number of rows skipped because of their office.
+     *
+     * @return The rows filtered by "CD_CARGO".
+     */
+    public long getRowsFiltered() {
+        return rowsFiltered;
+    }
+
+    /**
+     * Gets the number of blank, null and annulled vote rows.
+     *
+     * @return The rows with votable numbers 95 to 98.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Gets the number of bytes read.
+     *
+     * @return The bytes read.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Gets the number of rows whose votes went to a destination.
+     *
+     * @param destination Election.IGNORED_VOTE, LIST_VOTE or NOMINAL_VOTE.
+     * @return The rows.
+     */
+    public long getDestinationRows(int destination) {
+        return destinationRows[destination];
+    }
+
+    /**
+     * Gets the number of distinct votable numbers whose votes went to a destination.
+     *
+     * @param destination Election.IGNORED_VOTE, LIST_VOTE or NOMINAL_VOTE.
+     * @return The votable numbers.
+     */
+    public long getDestinationNumbers(int destination) {
+        return destinationNumbers[destination];
+    }
+
+    /**
+     * Gets the number of votes that went to a destination.
+     *
+     * @param destination Election.IGNORED_VOTE, LIST_VOTE or NOMINAL_VOTE.
+     * @return The votes.
+     */
+    public long getDestinationVotes(int destination) {
+        return destinationVotes[destination];
+    }
+}
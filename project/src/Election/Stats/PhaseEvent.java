@@ -0,0 +1,47 @@
+/**
+ * Flight Recorder event for a phase of a run, committed when the phase ends. It is only recorded while a JFR
+ * recording with the "election.Phase" event enabled is running, such as one started with -XX:StartFlightRecording.
+ */
+
+package Election.Stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("election.Phase")
+@Label("Election Phase")
+@Category("Election")
+@Description("A phase of reading the election files or writing the reports")
+class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Rows Scanned")
+    long rowsScanned;
+
+    @Label("Rows Filtered by Office")
+    long rowsFiltered;
+
+    @Label("Blank, Null and Annulled Rows")
+    long rowsSkipped;
+
+    @Label("Nominal Vote Rows")
+    long nominalRows;
+
+    @Label("List Vote Rows")
+    long listRows;
+
+    @Label("Ignored Vote Rows")
+    long ignoredRows;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,146 @@
+/**
+ * Timing and counters of the phases of a run: reading the candidates and the votes, setting the total votes,
+ * building each Report and writing each of its reports. Phases may be nested, and every phase is also recorded
+ * as a Flight Recorder event, so a slow run can be broken down with or without the summary table.
+ */
+
+package Election.Stats;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PipelineStats {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private List<Phase> phases;  // in the order they started
+    private ArrayDeque<Phase> open;
+
+    /**
+     * Constructor for the PipelineStats class.
+     */
+    public PipelineStats() {
+        this.phases = new ArrayList<Phase>();
+        this.open = new ArrayDeque<Phase>();
+    }
+
+    /**
+     * Starts a phase, nested in the phase currently open, if any. It ends when closed.
+     *
+     * @param name The name of the phase.
+     * @return The Phase.
+     */
+    public synchronized Phase begin(String name) {
+        Phase phase = new Phase(this, name, open.size());
+        phases.add(phase);
+        open.push(phase);
+        return phase;
+    }
+
+    /**
+     * Gets the innermost phase currently open, where counters are added.
+     *
+     * @return The Phase, or null if no phase is open.
+     */
+    public synchronized Phase current() {
+        return open.peek();
+    }
+
+    /**
+     * Removes an ended phase from the open ones.
+     *
+     * @param phase The Phase.
+     */
+    synchronized void end(Phase phase) {
+        open.remove(phase);
+    }
+
+    /**
+     * Gets every phase, in the order they started.
+     *
+     * @return The phases.
+     */
+    public synchronized List<Phase> getPhases() {
+        return new ArrayList<Phase>(phases);
+    }
+
+    /**
+     * Prints a table with the wall time, rows, throughput and allocation of each phase, and then where the votes
+     * of the phases that counted them went.
+     *
+     * @param out The stream the table is printed to.
+     */
+    public void print(PrintStream out) {
+        List<Phase> ended = getPhases();
+
+        out.printf("%-36s %10s %12s %12s %10s %12s%n", "Phase", "Wall ms", "Rows", "Filtered", "MB/s", "Alloc MB");
+
+        for (Phase p : ended) {
+            double millis = p.getWallNanos() / 1e6;
+            String throughput = p.getBytesRead() > 0 && p.getWallNanos() > 0 ? String.format("%.1f", p.getBytesRead() / 1e6 / (p.getWallNanos() / 1e9)) : "-";
+            String allocated = PipelineStats.threadAllocatedBytes() >= 0 ? String.format("%.1f", p.getAllocatedBytes() / 1e6) : "-";
+            String name = "  ".repeat(p.getDepth()) + p.getName();
+
+            out.printf("%-36s %10.1f %12s %12s %10s %12s%n", name, millis, count(p.getRowsScanned()), count(p.getRowsFiltered()), throughput, allocated);
+        }
+
+        for (Phase p : ended) {
+            long routed = p.getDestinationNumbers(0) + p.getDestinationNumbers(1) + p.getDestinationNumbers(2);
+            if (routed == 0 && p.getRowsSkipped() == 0) continue;
+
+            out.println();
+            out.println("addVotes branches in \"" + p.getName() + "\":");
+            printDestination(out, "nominal", p, 2);
+            printDestination(out, "list", p, 1);
+            printDestination(out, "ignored", p, 0);
+            out.printf("  %-8s %12d rows (blank, null and annulled, 95 to 98)%n", "skipped", p.getRowsSkipped());
+        }
+    }
+
+    /**
+     * Prints the rows, votable numbers and votes of a destination of the votes.
+     */
+    private static void printDestination(PrintStream out, String label, Phase p, int destination) {
+        out.printf("  %-8s %12d rows %8d numbers %12d votes%n", label, p.getDestinationRows(destination),
+                   p.getDestinationNumbers(destination), p.getDestinationVotes(destination));
+    }
+
+    /**
+     * Formats a counter, or "-" if it is zero.
+     */
+    private static String count(long value) {
+        return value == 0 ? "-" : Long.toString(value);
+    }
+
+    /**
+     * Gets the bytes allocated so far by the current thread.
+     *
+     * @return The allocated bytes, or -1 if the JVM cannot measure them.
+     */
+    public static long threadAllocatedBytes() {
+        if (THREADS == null) return -1;
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Gets the thread bean that measures allocation, enabling it if needed.
+     *
+     * @return The bean, or null if this JVM does not support it.
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported()) return null;
+            if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+
+            return threads;
+        } catch (UnsupportedOperationException | SecurityException | LinkageError e) {
+            return null;
+        }
+    }
+}
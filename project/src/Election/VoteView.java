@@ -0,0 +1,80 @@
+/**
+ * The vote tallies of an election, as read by the reports and the rankings. An Election is a view of the votes it
+ * counted; an ElectionScenario is a view of the same election with some of its tallies changed.
+ */
+
+package Election;
+
+import Election.Domain.Candidate;
+import Election.Domain.Party;
+
+public interface VoteView {
+    /**
+     * Gets the nominal votes of a candidate.
+     *
+     * @param c The candidate.
+     * @return The nominal votes.
+     */
+    int getNominalVotes(Candidate c);
+
+    /**
+     * Gets the list votes ("votos de legenda") of a party.
+     *
+     * @param p The party.
+     * @return The list votes.
+     */
+    int getListVotes(Party p);
+
+    /**
+     * Gets the nominal votes of the candidates of a party.
+     *
+     * @param p The party.
+     * @return The nominal votes.
+     */
+    int getNominalVotes(Party p);
+
+    /**
+     * Gets the total votes of a party, list votes plus nominal votes.
+     *
+     * @param p The party.
+     * @return The total votes.
+     */
+    int getTotalVotes(Party p);
+
+    /**
+     * Gets the most voted candidate of a party, with the same tie-breaks as Party.getMostVotedCandidate().
+     *
+     * @param p The party.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    Candidate getMostVotedCandidate(Party p);
+
+    /**
+     * Gets the least voted candidate of a party, with the same tie-breaks as Party.getLeastVotedCandidate().
+     *
+     * @param p The party.
+     * @return The candidate, or null if the party has no candidates.
+     */
+    Candidate getLeastVotedCandidate(Party p);
+
+    /**
+     * Gets the total number of list votes in the election.
+     *
+     * @return The total number of list votes.
+     */
+    int getListVotes();
+
+    /**
+     * Gets the total number of nominal votes in the election.
+     *
+     * @return The total number of nominal votes.
+     */
+    int getNominalVotes();
+
+    /**
+     * Gets the total number of votes (list votes + nominal votes) in the election.
+     *
+     * @return The total number of votes.
+     */
+    int getTotalVotes();
+}
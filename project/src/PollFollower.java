@@ -0,0 +1,200 @@
+/**
+ * Follows a poll file that keeps growing or being replaced during the totalization, keeping the elections in memory.
+ * Rows appended to the file are the only ones read on each update. When the file is replaced instead,
+ * it is read again and only the difference of each votable number's total is applied to the elections.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import Election.Election;
+import Election.Input.CSVScanner;
+import Election.Input.VoteTally;
+
+public class PollFollower {
+    private static final int ANCHOR_SIZE = 1 << 12; // bytes before the read offset checked to detect a replaced file
+
+    private CSVReader reader;
+    private Election[] polls;
+    private int threads;
+
+    private VoteTally[] applied; // the total votes per votable number already added to each election
+    private long offset;         // the end of the last complete line read
+    private long size;
+    private long lastModified;
+    private long anchor;         // the hash of the bytes just before the offset
+
+    /**
+     * Constructor for the PollFollower class. The candidates must already have been read into the elections,
+     * and their votes must not: they are all read by the first update().
+     *
+     * @param reader  The CSVReader of the candidates and poll files.
+     * @param polls   The Election objects, with their candidates and no votes.
+     * @param threads The number of threads reading the poll file.
+     */
+    public PollFollower(CSVReader reader, Election[] polls, int threads) {
+        this.reader = reader;
+        this.polls = polls;
+        this.threads = threads;
+        this.applied = CSVReader.newTallies(polls.length);
+        this.offset = 0;
+        this.size = -1;
+        this.lastModified = -1;
+    }
+
+    /**
+     * Checks the poll file and adds its new votes to the elections. Appended rows are read from the previous offset;
+     * a replaced (or compressed) file is read again, and the difference from the votes already added is applied.
+     * The total votes of the elections are set again after any change.
+     *
+     * @return True if the elections changed, false if the file did not change.
+     * @throws Exception if the poll file cannot be read.
+     */
+    public boolean update() throws Exception {
+        Path path = reader.getPollSource().getPath();
+        long currentSize = Files.size(path);
+        long currentModified = Files.getLastModifiedTime(path).toMillis();
+
+        if (currentSize == size && currentModified == lastModified) return false;
+
+        boolean changed;
+
+        if (!reader.getPollSource().isCompressed() && currentSize >= offset && anchorHash(path, offset) == anchor) {
+            changed = readAppended(path);
+        }
+        else {
+            changed = readReplaced(path);
+        }
+
+        this.size = currentSize;
+        this.lastModified = currentModified;
+
+        if (changed) {
+            for (Election poll : polls) {
+                poll.setTotalVotes();
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Reads the complete rows appended after the offset and adds their votes to the elections.
+     */
+    private boolean readAppended(Path path) throws Exception {
+        long end = CSVScanner.completeLinesEnd(path, Files.size(path));
+        if (end <= offset) return false;
+
+        VoteTally[] tallies = reader.tallyPoll(offset, end, threads, polls);
+
+        for (int p = 0; p < polls.length; p++) {
+            VoteTally tally = tallies[p];
+
+            for (int i = 0; i < tally.size(); i++) {
+                polls[p].addVotes(tally.getVotes(i), tally.getNumber(i), polls[p].getOfficeOption());
+            }
+            if (tally.getCube() != null) polls[p].addVoteCube(tally.getCube());
+            applied[p].merge(tally);
+        }
+
+        moveOffset(path, end);
+        return true;
+    }
+
+    /**
+     * Reads the whole poll file again and applies, for each votable number, the difference between its new total
+     * and the votes already added to the elections.
+     */
+    private boolean readReplaced(Path path) throws Exception {
+        boolean compressed = reader.getPollSource().isCompressed();
+        long end = compressed ? 0 : CSVScanner.completeLinesEnd(path, Files.size(path));
+
+        VoteTally[] tallies = reader.tallyPoll(0, end, threads, polls);
+        boolean changed = false;
+
+        for (int p = 0; p < polls.length; p++) {
+            VoteTally difference = new VoteTally();
+            difference.merge(tallies[p]);
+
+            for (int i = 0; i < applied[p].size(); i++) {
+                difference.add(applied[p].getNumber(i), -applied[p].getVotes(i));
+            }
+
+            for (int i = 0; i < difference.size(); i++) {
+                if (difference.getVotes(i) != 0) {
+                    polls[p].addVotes(difference.getVotes(i), difference.getNumber(i), polls[p].getOfficeOption());
+                    changed = true;
+                }
+            }
+            applied[p] = tallies[p];
+
+            if (tallies[p].getCube() != null) {
+                polls[p].setVoteCube(tallies[p].getCube()); // the votes per place are simply replaced
+                applied[p] = new VoteTally();                 // and must not be merged into again through applied
+                applied[p].merge(tallies[p]);
+            }
+        }
+
+        if (!compressed) moveOffset(path, end);
+        return changed;
+    }
+
+    /**
+     * Records the new read offset and the hash of the bytes just before it.
+     */
+    private void moveOffset(Path path, long end) throws IOException {
+        this.offset = end;
+        this.anchor = anchorHash(path, end);
+    }
+
+    /**
+     * Hashes the bytes just before a position of a file, to check later that they were not rewritten.
+     */
+    private static long anchorHash(Path path, long position) throws IOException {
+        CRC32C crc = new CRC32C();
+        long start = Math.max(0, position - ANCHOR_SIZE);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < position) return -1;
+
+            ByteBuffer buf = ByteBuffer.allocate((int) (position - start));
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, start + buf.position()) <= 0) return -1;
+            }
+
+            buf.flip();
+            crc.update(buf);
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Keeps checking the poll file, calling a listener after the first read and after every change, until interrupted.
+     *
+     * @param intervalMillis The time between two checks, in milliseconds.
+     * @param listener       The listener, called with the updated elections (such as to print the reports).
+     * @throws Exception if the poll file cannot be read.
+     */
+    public void follow(long intervalMillis, Consumer<Election[]> listener) throws Exception {
+        update();
+        listener.accept(polls);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (update()) listener.accept(polls);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+/**
+ * Generates synthetic candidates and poll files with the layout read by CSVReader: the TSE column positions,
+ * ";" separators, quoted fields and ISO-8859-1 encoding. The output depends only on the options and the seed,
+ * so the same command always writes the same bytes. Rows are streamed, so the poll file can have hundreds of
+ * millions of rows. Besides regular candidates, the files have dismissed candidates whose votes go to the party
+ * ("Válido (legenda)") or are annulled, candidates accepted on appeal, party federations, missing birth dates,
+ * votable numbers that are not in the candidates file and the blank, null and annulled numbers 95 to 98.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+public class DatasetGenerator {
+    private static final String[] CANDIDATE_HEADER = {
+        "DT_GERACAO", "HH_GERACAO", "ANO_ELEICAO", "CD_TIPO_ELEICAO", "NM_TIPO_ELEICAO", "NR_TURNO", "CD_ELEICAO",
+        "DS_ELEICAO", "DT_ELEICAO", "TP_ABRANGENCIA", "SG_UF", "SG_UE", "NM_UE", "CD_CARGO", "DS_CARGO", "SQ_CANDIDATO",
+        "NR_CANDIDATO", "NM_CANDIDATO", "NM_URNA_CANDIDATO", "NM_SOCIAL_CANDIDATO", "NR_CPF_CANDIDATO", "NM_EMAIL",
+        "CD_SITUACAO_CANDIDATURA", "DS_SITUACAO_CANDIDATURA", "CD_DETALHE_SITUACAO_CAND", "DS_DETALHE_SITUACAO_CAND",
+        "TP_AGREMIACAO", "NR_PARTIDO", "SG_PARTIDO", "NM_PARTIDO", "NR_FEDERACAO", "NM_FEDERACAO", "SG_FEDERACAO",
+        "DS_COMPOSICAO_FEDERACAO", "SQ_COLIGACAO", "NM_COLIGACAO", "DS_COMPOSICAO_COLIGACAO", "CD_NACIONALIDADE",
+        "DS_NACIONALIDADE", "SG_UF_NASCIMENTO", "CD_MUNICIPIO_NASCIMENTO", "NM_MUNICIPIO_NASCIMENTO", "DT_NASCIMENTO",
+        "NR_IDADE_DATA_POSSE", "NR_TITULO_ELEITORAL_CANDIDATO", "CD_GENERO", "DS_GENERO", "CD_GRAU_INSTRUCAO",
+        "DS_GRAU_INSTRUCAO", "CD_ESTADO_CIVIL", "DS_ESTADO_CIVIL", "CD_COR_RACA", "DS_COR_RACA", "CD_OCUPACAO",
+        "DS_OCUPACAO", "VR_DESPESA_MAX_CAMPANHA", "CD_SIT_TOT_TURNO", "DS_SIT_TOT_TURNO", "ST_REELEICAO",
+        "ST_DECLARAR_BENS", "NR_PROTOCOLO_CANDIDATURA", "NR_PROCESSO", "CD_SITUACAO_CANDIDATO_PLEITO",
+        "DS_SITUACAO_CANDIDATO_PLEITO", "CD_SITUACAO_CANDIDATO_URNA", "DS_SITUACAO_CANDIDATO_URNA",
+        "ST_CANDIDATO_INSERIDO_URNA", "NM_TIPO_DESTINACAO_VOTOS", "CD_SITUACAO_CANDIDATO_TOT",
+        "DS_SITUACAO_CANDIDATO_TOT", "ST_PREST_CONTAS"
+    };
+
+    private static final String[] POLL_HEADER = {
+        "DT_GERACAO", "HH_GERACAO", "ANO_ELEICAO", "CD_TIPO_ELEICAO", "NM_TIPO_ELEICAO", "NR_TURNO", "CD_ELEICAO",
+        "DS_ELEICAO", "DT_ELEICAO", "TP_ABRANGENCIA", "SG_UF", "SG_UE", "NM_UE", "CD_MUNICIPIO", "NM_MUNICIPIO",
+        "NR_ZONA", "NR_SECAO", "CD_CARGO", "DS_CARGO", "NR_VOTAVEL", "NM_VOTAVEL", "QT_VOTOS", "NR_LOCAL_VOTACAO",
+        "SQ_CANDIDATO", "NM_LOCAL_VOTACAO_ORIGINAL", "DS_LOCAL_VOTACAO_ENDERECO"
+    };
+
+    // the leading columns, equal in every row: generation date and time, election and state
+    private static final String[] ELECTION_COLUMNS = {
+        "03/10/2022", "10:00:00", "2022", "2", "ELEIÇÃO ORDINÁRIA", "1", "546", "Eleições Gerais Estaduais 2022",
+        "02/10/2022", "E", "ES", "ES", "ESPÍRITO SANTO"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "JOÃO", "MARIA", "JOSÉ", "ANTÔNIO", "ANA", "FRANCISCO", "CONCEIÇÃO", "LUÍS", "FÁBIO", "LÚCIA", "SÉRGIO",
+        "MÁRCIA", "ÂNGELA", "CÉSAR", "INÊS", "RAIMUNDO", "DÉBORA", "JÚLIO", "ZÉ", "TONINHO", "PASTOR", "DOUTORA"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "SILVA", "SANTOS", "OLIVEIRA", "SOUZA", "D'ÁVILA", "CONCEIÇÃO", "ARAÚJO", "GONÇALVES", "FALCÃO", "BRAGANÇA",
+        "DA PADARIA", "DO POVO", "MÜLLER", "LOUREIRO", "AZEVÊDO", "PÁDUA", "DAS NEVES", "SÁ"
+    };
+
+    private long seed = 42;
+    private int parties = 30;
+    private int federalCandidates = 1000;
+    private int stateCandidates = 2000;
+    private int federalSeats = 10;
+    private int stateSeats = 30;
+    private int municipalities = 78;
+    private int zones = 40;
+    private long rows = 1000000;
+    private long voters = 3000000;
+    private boolean gzip = false;
+    private Path output = Paths.get(".");
+
+    private int[] partyNumbers;
+    private int[] federations;
+    private int[][] votables; // candidate numbers of each office, the most voted first
+    private byte[][][] votableNames;
+
+    /**
+     * Runs the generator.
+     *
+     * @param args Options as --name=value: seed, parties, federal-candidates, state-candidates, federal-seats,
+     *             state-seats, municipalities, zones, rows, voters and output (a directory), and the flag --gzip.
+     */
+    public static void main(String[] args) {
+        DatasetGenerator generator;
+
+        try {
+            generator = configure(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println("To run, use: java DatasetGenerator [--seed=<n>] [--parties=<n>] [--federal-candidates=<n>] [--state-candidates=<n>] "
+                             + "[--federal-seats=<n>] [--state-seats=<n>] [--municipalities=<n>] [--zones=<n>] [--rows=<n>] [--voters=<n>] [--output=<dir>] [--gzip]");
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            Path[] files = generator.generate();
+            System.out.printf("Wrote %s and %s in %.1f s%n", files[0], files[1], (System.nanoTime() - start) / 1e9);
+        } catch (IOException e) {
+            System.out.println("Could not write the files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the files for options given as in main(), so that other programs, such as the JMH benchmarks,
+     * read the same synthetic data as the command line writes.
+     *
+     * @param args Options as in main().
+     * @return The paths of the candidates and poll files.
+     * @throws IllegalArgumentException if an option is invalid.
+     * @throws IOException if a file cannot be written.
+     */
+    public static Path[] write(String... args) throws IOException {
+        return configure(args).generate();
+    }
+
+    /**
+     * Creates a generator with options given as command-line arguments.
+     *
+     * @param args Options as in main().
+     * @return The DatasetGenerator.
+     * @throws IllegalArgumentException if an option is invalid.
+     */
+    private static DatasetGenerator configure(String[] args) {
+        DatasetGenerator generator = new DatasetGenerator();
+
+        for (String arg : args) {
+            generator.setOption(arg);
+        }
+        generator.validate();
+
+        return generator;
+    }
+
+    /**
+     * Sets an option from a command-line argument.
+     *
+     * @param arg The argument, as --name=value or --gzip.
+     */
+    private void setOption(String arg) {
+        if (arg.equals("--gzip")) {
+            gzip = true;
+            return;
+        }
+
+        int equals = arg.indexOf('=');
+        if (!arg.startsWith("--") || equals < 0) throw new IllegalArgumentException("Invalid option: " + arg);
+
+        String name = arg.substring(2, equals);
+        String value = arg.substring(equals + 1);
+
+        try {
+            switch (name) {
+                case "seed": seed = Long.parseLong(value); break;
+                case "parties": parties = Integer.parseInt(value); break;
+                case "federal-candidates": federalCandidates = Integer.parseInt(value); break;
+                case "state-candidates": stateCandidates = Integer.parseInt(value); break;
+                case "federal-seats": federalSeats = Integer.parseInt(value); break;
+                case "state-seats": stateSeats = Integer.parseInt(value); break;
+                case "municipalities": municipalities = Integer.parseInt(value); break;
+                case "zones": zones = Integer.parseInt(value); break;
+                case "rows": rows = Long.parseLong(value); break;
+                case "voters": voters = Long.parseLong(value); break;
+                case "output": output = Paths.get(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + arg);
+        }
+    }
+
+    /**
+     * Checks that the options can be generated: party numbers go from 10 to 94, and each party has up to
+     * 90 federal (four-digit) and 900 state (five-digit) candidate numbers.
+     */
+    private void validate() {
+        if (parties < 1 || parties > 85) throw new IllegalArgumentException("The number of parties must be between 1 and 85");
+        if (federalCandidates < 0 || federalCandidates > parties * 90) throw new IllegalArgumentException("At most 90 federal candidates per party");
+        if (stateCandidates < 0 || stateCandidates > parties * 900) throw new IllegalArgumentException("At most 900 state candidates per party");
+        if (federalCandidates + stateCandidates == 0) throw new IllegalArgumentException("There must be some candidate");
+        if (federalSeats < 0 || stateSeats < 0) throw new IllegalArgumentException("The number of seats cannot be negative");
+        if (municipalities < 1 || zones < 1) throw new IllegalArgumentException("There must be at least one municipality and one zone");
+        if (rows < 0 || voters < 0) throw new IllegalArgumentException("The number of rows and voters cannot be negative");
+    }
+
+    /**
+     * Writes the candidates file and then the poll file. Candidates and votes come from separate random streams,
+     * so the candidates are the same whatever the number of poll rows.
+     *
+     * @return The paths of the candidates and poll files.
+     * @throws IOException if a file cannot be written.
+     */
+    public Path[] generate() throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom candidateRandom = random.split();
+        SplittableRandom pollRandom = random.split();
+
+        Files.createDirectories(output);
+        String extension = gzip ? ".csv.gz" : ".csv";
+        Path candidatesFile = output.resolve("candidatos" + extension);
+        Path pollFile = output.resolve("votacao" + extension);
+
+        choosePartyNumbers(candidateRandom);
+
+        try (RowWriter out = new RowWriter(open(candidatesFile))) {
+            out.row(CANDIDATE_HEADER);
+
+            this.votables = new int[2][];
+            this.votableNames = new byte[2][][];
+            writeCandidates(out, candidateRandom, 0, 6, federalCandidates, federalSeats, 100);
+            writeCandidates(out, candidateRandom, 1, 7, stateCandidates, stateSeats, 1000);
+        }
+
+        try (RowWriter out = new RowWriter(open(pollFile))) {
+            out.row(POLL_HEADER);
+            writePoll(out, pollRandom);
+        }
+
+        return new Path[] { candidatesFile, pollFile };
+    }
+
+    /**
+     * Opens a file for writing, compressed if --gzip was given.
+     */
+    private OutputStream open(Path path) throws IOException {
+        OutputStream out = new FileOutputStream(path.toFile());
+        if (gzip) return new GZIPOutputStream(out, 1 << 16);
+        else return out;
+    }
+
+    /**
+     * Chooses distinct party numbers between 10 and 94 and groups some of the parties into federations.
+     */
+    private void choosePartyNumbers(SplittableRandom random) {
+        int[] all = new int[85];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = 10 + i;
+        }
+        shuffle(all, random);
+
+        this.partyNumbers = new int[parties];
+        this.federations = new int[parties];
+        System.arraycopy(all, 0, partyNumbers, 0, parties);
+
+        // about a tenth of the parties are in federations of three, the rest are isolated
+        for (int i = 0; i < parties; i++) {
+            federations[i] = i < parties / 10 * 3 ? 2022000 + i / 3 : -1;
+        }
+    }
+
+    /**
+     * Writes the candidates of an office. Candidate numbers start with the party number, and the candidates
+     * are stored in a random order that is also their popularity when votes are drawn, with the elected ones first.
+     *
+     * @param office     The index of the office in the votable arrays (0 for federal, 1 for state).
+     * @param code       The office code (6 for federal, 7 for state deputy).
+     * @param count      The number of candidates.
+     * @param seats      The number of elected candidates.
+     * @param numberBase The multiplier of the party number in the candidate numbers (100 or 1000).
+     */
+    private void writeCandidates(RowWriter out, SplittableRandom random, int office, int code, int count, int seats, int numberBase) throws IOException {
+        int[] numbers = new int[count];
+        int[] partyIndexes = new int[count];
+        int[] nextNumber = new int[parties];
+
+        for (int i = 0; i < count; i++) {
+            int p = i % parties;
+            partyIndexes[i] = p;
+            numbers[i] = partyNumbers[p] * numberBase + numberBase / 10 + nextNumber[p]++;
+        }
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        shuffle(order, random);
+
+        this.votables[office] = new int[count];
+        this.votableNames[office] = new byte[count][];
+
+        String[] row = new String[CANDIDATE_HEADER.length];
+        String officeName = code == 6 ? "DEPUTADO FEDERAL" : "DEPUTADO ESTADUAL";
+
+        for (int rank = 0; rank < count; rank++) {
+            int i = order[rank];
+            int p = partyIndexes[i];
+            int party = partyNumbers[p];
+            String ballotName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+
+            // most candidates are accepted; a few were accepted on appeal (16) and a few were dismissed (4 or 6)
+            int kind = random.nextInt(100);
+            int condition = kind < 93 ? 2 : kind < 95 ? 16 : random.nextBoolean() ? 4 : 6;
+            boolean dismissed = condition != 2 && condition != 16;
+            String destination = !dismissed ? "Válido" : random.nextInt(5) < 2 ? "Válido (legenda)" : "Anulado";
+
+            int status;
+            if (dismissed) status = -1;
+            else if (rank < seats) status = 2 + random.nextInt(2);
+            else status = random.nextInt(5) < 3 ? 5 : 4;
+
+            for (int c = 0; c < row.length; c++) {
+                row[c] = "#NULO#";
+            }
+            System.arraycopy(ELECTION_COLUMNS, 0, row, 0, ELECTION_COLUMNS.length);
+
+            row[13] = Integer.toString(code);
+            row[14] = officeName;
+            row[15] = Long.toString(80000000000L + (long) office * 100000 + i);
+            row[16] = Integer.toString(numbers[i]);
+            row[17] = ballotName + " DE " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            row[18] = ballotName;
+            row[27] = Integer.toString(party);
+            row[28] = partyAcronym(party);
+            row[29] = "PARTIDO DA NAÇÃO " + party;
+            row[30] = Integer.toString(federations[p]);
+            row[42] = birthDate(random);
+            row[45] = random.nextInt(3) == 0 ? "4" : "2";
+            row[46] = row[45].equals("4") ? "FEMININO" : "MASCULINO";
+            row[56] = Integer.toString(status);
+            row[67] = destination;
+            row[68] = Integer.toString(condition);
+            row[69] = dismissed ? "INDEFERIDO" : "DEFERIDO";
+            out.row(row);
+
+            votables[office][rank] = numbers[i];
+            votableNames[office][rank] = ballotName.getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Draws a birth date in dd/MM/yyyy, or a missing one for about one candidate in 500.
+     */
+    private static String birthDate(SplittableRandom random) {
+        int kind = random.nextInt(1000);
+        if (kind == 0) return "";
+        if (kind == 1) return "#NULO#";
+
+        int day = 1 + random.nextInt(28);
+        int month = 1 + random.nextInt(12);
+        int year = 1940 + random.nextInt(62);
+
+        return (day < 10 ? "0" : "") + day + (month < 10 ? "/0" : "/") + month + "/" + year;
+    }
+
+    /**
+     * Makes up the acronym of a party from its number.
+     */
+    private static String partyAcronym(int party) {
+        return "P" + (char) ('A' + party / 26 % 26) + (char) ('A' + party % 26);
+    }
+
+    /**
+     * Writes the poll rows. The rows go through the municipalities and zones in order, like the TSE files,
+     * and each row draws an office, a votable number and a number of votes that adds up to about the number of voters.
+     */
+    private void writePoll(RowWriter out, SplittableRandom random) throws IOException {
+        int units = Math.max(municipalities, zones); // the (municipality, zone) pairs
+        int maxVotes = (int) Math.max(1, Math.min(100000, 2 * voters / Math.max(1, rows)));
+
+        byte[][] officeCodes = { bytes("6"), bytes("7") };
+        byte[][] officeNames = { bytes("DEPUTADO FEDERAL"), bytes("DEPUTADO ESTADUAL") };
+        byte[] blank = bytes("VOTO BRANCO");
+        byte[] nullVote = bytes("VOTO NULO");
+        byte[] annulled = bytes("VOTO ANULADO");
+        byte[] unknown = bytes("#NULO#");
+        byte[][] partyNames = new byte[100][];
+        for (int party : partyNumbers) {
+            partyNames[party] = bytes(partyAcronym(party));
+        }
+
+        byte[][] leading = new byte[ELECTION_COLUMNS.length][];
+        for (int c = 0; c < leading.length; c++) {
+            leading[c] = bytes(ELECTION_COLUMNS[c]);
+        }
+
+        int unit = -1;
+        byte[] municipalityName = null;
+        int municipality = 0;
+        int zone = 0;
+        long unitStart = 0;
+
+        for (long r = 0; r < rows; r++) {
+            int rowUnit = (int) (r * units / rows);
+            if (rowUnit != unit) {
+                unit = rowUnit;
+                unitStart = r;
+                municipality = (int) ((long) unit * municipalities / units);
+                zone = 1 + (int) ((long) unit * zones / units);
+                municipalityName = bytes("MUNICÍPIO " + municipality);
+            }
+
+            int office = votables[0].length == 0 ? 1 : votables[1].length == 0 ? 0 : random.nextInt(2);
+            int[] numbers = votables[office];
+
+            int number;
+            byte[] name;
+            int kind = random.nextInt(1000);
+
+            if (kind < 8) { number = 95; name = blank; }
+            else if (kind < 17) { number = 96; name = nullVote; }
+            else if (kind < 20) { number = 97 + random.nextInt(2); name = annulled; }
+            else if (kind < 120) {
+                number = partyNumbers[random.nextInt(parties)];
+                name = partyNames[number];
+            }
+            else if (kind < 123) { // a number that is not in the candidates file
+                number = partyNumbers[random.nextInt(parties)] * (office == 0 ? 100 : 1000) + random.nextInt(office == 0 ? 10 : 100);
+                name = unknown;
+            }
+            else {
+                double u = random.nextDouble();
+                int rank = (int) (numbers.length * u * u); // the first candidates get most of the votes
+                number = numbers[rank];
+                name = votableNames[office][rank];
+            }
+
+            for (byte[] field : leading) {
+                out.field(field);
+            }
+            out.field(1000 + municipality * 10);
+            out.field(municipalityName);
+            out.field(zone);
+            out.field(1 + (int) ((r - unitStart) / 50));
+            out.field(officeCodes[office]);
+            out.field(officeNames[office]);
+            out.field(number);
+            out.field(name);
+            out.field(1 + random.nextInt(maxVotes));
+            out.field(1000 + zone);
+            out.field(unknown);
+            out.field(unknown);
+            out.field(unknown);
+            out.endRow();
+        }
+    }
+
+    /**
+     * Encodes a text in ISO-8859-1.
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Shuffles an array with a Fisher-Yates shuffle.
+     */
+    private static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Writes rows of quoted, ";" separated fields into a byte buffer, without creating strings for each field.
+     */
+    private static class RowWriter implements AutoCloseable {
+        private OutputStream out;
+        private byte[] buffer = new byte[1 << 16];
+        private int length;
+        private boolean rowStart = true;
+
+        private RowWriter(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 1 << 16);
+        }
+
+        /**
+         * Writes a whole row of text fields.
+         */
+        private void row(String[] fields) throws IOException {
+            for (String field : fields) {
+                field(bytes(field));
+            }
+            endRow();
+        }
+
+        /**
+         * Writes a field with already encoded text.
+         */
+        private void field(byte[] text) throws IOException {
+            ensure(text.length + 3);
+            open();
+            System.arraycopy(text, 0, buffer, length, text.length);
+            length += text.length;
+            buffer[length++] = '"';
+        }
+
+        /**
+         * Writes a field with a non-negative number.
+         */
+        private void field(int value) throws IOException {
+            ensure(13);
+            open();
+
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10) digits++;
+
+            for (int i = length + digits - 1; i >= length; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+            buffer[length++] = '"';
+        }
+
+        /**
+         * Writes the separator, if needed, and the opening quote of a field.
+         */
+        private void open() {
+            if (!rowStart) buffer[length++] = ';';
+            buffer[length++] = '"';
+            rowStart = false;
+        }
+
+        /**
+         * Ends the current row.
+         */
+        private void endRow() throws IOException {
+            ensure(1);
+            buffer[length++] = '\n';
+            rowStart = true;
+        }
+
+        /**
+         * Makes room in the buffer for some bytes, writing it out if needed.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (length + bytes > buffer.length) {
+                out.write(buffer, 0, length);
+                length = 0;
+
+                if (bytes > buffer.length) buffer = new byte[bytes];
+            }
+        }
+
+        /**
+         * Writes out what is left in the buffer and closes the stream.
+         */
+        @Override
+        public void close() throws IOException {
+            out.write(buffer, 0, length);
+            length = 0;
+            out.close();
+        }
+    }
+}